@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The {@code AliasTable} class samples indexes from a discrete distribution in constant time using Vose's alias
+ * method.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class AliasTable {
+    /**
+     * A double array holding the probability of keeping each column instead of taking its alias.
+     */
+    private final double[] probabilities;
+
+    /**
+     * An int array holding the alias of each column.
+     */
+    private final int[] aliases;
+
+    /**
+     * The only constructor for class {@code AliasTable}, which builds the table from non-negative weights.
+     *
+     * @param weights a double array describing the weight of each index, where at least one weight is positive.
+     * @throws IllegalArgumentException if a weight is negative or every weight is zero.
+     */
+    public AliasTable(double[] weights) {
+        int size = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0))
+                throw new IllegalArgumentException("Weights should not be negative");
+            total += weight;
+        }
+        if (!(total > 0))
+            throw new IllegalArgumentException("At least one weight should be positive");
+        probabilities = new double[size];
+        aliases = new int[size];
+        // Scale weights so that the average column is exactly full, then pair each small column with a large one.
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] * size / total;
+            if (scaled[i] < 1)
+                small[smallCount++] = i;
+            else
+                large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] += scaled[less] - 1;
+            if (scaled[more] < 1)
+                small[smallCount++] = more;
+            else
+                large[largeCount++] = more;
+        }
+        // Columns left are full up to rounding errors.
+        while (largeCount > 0)
+            probabilities[large[--largeCount]] = 1;
+        while (smallCount > 0)
+            probabilities[small[--smallCount]] = 1;
+    }
+
+    /**
+     * Returns an index drawn with probability proportional to its weight.
+     *
+     * @param random a {@code RandomGenerator} providing randomness.
+     * @return an int describing the index drawn.
+     */
+    public int sample(RandomGenerator random) {
+        int column = random.nextInt(probabilities.length);
+        return random.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+}
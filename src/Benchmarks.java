@@ -0,0 +1,335 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * The {@code Benchmarks} class measures the hot paths of {@code Service}, the hashtag codec of {@code Settings} and
+ * the scoring of {@code Game}, for every word length and word source.
+ *
+ * <p>
+ * Each benchmark follows the methodology of JMH without its annotation processor: warm-up iterations let the JIT
+ * settle and are discarded, then each measured iteration runs the operation in a loop for a fixed time. Results
+ * are consumed into a volatile sink so that they cannot be optimized away. Time per operation is reported as the mean
+ * and the standard deviation across iterations, and allocation per operation is read from the allocation counters of
+ * every live thread, which is what the GC profiler of JMH reports as {@code gc.alloc.rate.norm}.
+ *
+ * <p>
+ * Results can be saved to a csv file, and the next run against the same file prints the change of each benchmark,
+ * so that regressions show up.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class Benchmarks {
+    /**
+     * A static constant holding the number of warm-up iterations.
+     */
+    private static final int WARMUP_ITERATIONS = 3;
+
+    /**
+     * A static constant holding the number of measured iterations.
+     */
+    private static final int MEASUREMENT_ITERATIONS = 5;
+
+    /**
+     * A static constant holding the number of inputs prepared for each benchmark, which are used in turn.
+     */
+    private static final int INPUT_COUNT = 1024;
+
+    /**
+     * A static variable consuming the results of operations, so that they cannot be eliminated.
+     */
+    private static volatile int sink;
+
+    /**
+     * A {@code long} holding the time of each iteration in nanoseconds.
+     */
+    private final long iterationTime;
+
+    /**
+     * A {@code com.sun.management.ThreadMXBean} reading the bytes allocated by each thread.
+     */
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * The {@code Result} class holds the measurements of a benchmark.
+     */
+    private static class Result {
+        /**
+         * A String holding the name of the benchmark followed by its parameters.
+         */
+        private final String name;
+
+        /**
+         * A double holding the mean time per operation in nanoseconds.
+         */
+        private final double meanTime;
+
+        /**
+         * A double holding the standard deviation of the time per operation across iterations in nanoseconds.
+         */
+        private final double deviation;
+
+        /**
+         * A double holding the bytes allocated per operation.
+         */
+        private final double allocation;
+
+        /**
+         * The only constructor for class {@code Result}.
+         *
+         * @param name       a String holding the name of the benchmark followed by its parameters.
+         * @param meanTime   a double describing the mean time per operation in nanoseconds.
+         * @param deviation  a double describing the standard deviation of the time per operation in nanoseconds.
+         * @param allocation a double describing the bytes allocated per operation.
+         */
+        private Result(String name, double meanTime, double deviation, double allocation) {
+            this.name = name;
+            this.meanTime = meanTime;
+            this.deviation = deviation;
+            this.allocation = allocation;
+        }
+    }
+
+    /**
+     * The only constructor for class {@code Benchmarks}.
+     *
+     * @param iterationTime a {@code long} describing the time of each iteration in nanoseconds.
+     */
+    private Benchmarks(long iterationTime) {
+        this.iterationTime = iterationTime;
+    }
+
+    /**
+     * This method runs the benchmarks whose names match a regular expression and prints the results.
+     *
+     * <p>
+     * Arguments are the regular expression, the time of each iteration in milliseconds, and a csv file that the
+     * results are compared with and then saved to, which default to ".*", 200 and no file.
+     *
+     * @param args a String array holding the arguments.
+     * @throws IOException if the csv file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        final String filter = args.length > 0 ? args[0] : ".*";
+        final long iterationTime = (args.length > 1 ? Long.parseLong(args[1]) : 200) * 1000000;
+        final File resultFile = args.length > 2 ? new File(args[2]) : null;
+        // Lines of benchmarks not run this time are kept, so that filtered runs do not drop the other results.
+        LinkedHashMap<String, String> lines = new LinkedHashMap<>();
+        HashMap<String, Double> baseline = new HashMap<>();
+        if (resultFile != null && resultFile.isFile())
+            for (String line : Files.readAllLines(resultFile.toPath())) {
+                String[] columns = line.split(",");
+                if (columns.length >= 2 && !columns[0].equals("benchmark")) {
+                    lines.put(columns[0], line);
+                    baseline.put(columns[0], Double.parseDouble(columns[1]));
+                }
+            }
+        List<Result> results = new Benchmarks(iterationTime).run(filter, baseline);
+        if (resultFile != null) {
+            for (Result result : results)
+                lines.put(result.name, String.format("%s,%.3f,%.3f,%.1f", result.name, result.meanTime,
+                        result.deviation, result.allocation));
+            Files.writeString(resultFile.toPath(),
+                    "benchmark,ns/op,error,B/op\n" + String.join("\n", lines.values()) + "\n");
+        }
+    }
+
+    /**
+     * Returns the results of the benchmarks whose names match a regular expression, printing each one once measured.
+     *
+     * @param filter   a String holding the regular expression matched against the name and parameters.
+     * @param baseline a HashMap storing the time per operation of earlier results by name, which may be empty.
+     * @return a List holding the results.
+     */
+    private List<Result> run(String filter, HashMap<String, Double> baseline) {
+        final String[] wordSources = eWordle.wordSources;
+        final String[] wordLengths = eWordle.wordLengths;
+        List<Result> results = new ArrayList<>();
+        System.out.printf("%-52s %14s %12s %12s %10s%n", "Benchmark", "ns/op", "error", "B/op", "change");
+
+        /* Initialization from scratch, where the cold one parses the csv file and rewrites the snapshot, and the warm
+        one maps the snapshot and loads the partition drawn from. */
+        File snapshotFile = DictionarySnapshot.getSnapshotFile(Service.locateWordSource("Trimmed.csv"));
+        measure("initService.cold", filter, baseline, results, index -> {
+            if (!snapshotFile.delete() && snapshotFile.exists())
+                throw new IllegalStateException("Unable to delete " + snapshotFile);
+            return Service.createInstance().initService(wordSources, wordLengths);
+        });
+        for (String wordLength : wordLengths)
+            for (String wordSource : wordSources)
+                measure("initService.warm:" + wordLength + ":" + wordSource, filter, baseline, results, index -> {
+                    Service service = Service.createInstance();
+                    service.initService(wordSources, wordLengths);
+                    return service.generateRandomWord(Integer.parseInt(wordLength), wordSource);
+                });
+
+        Service service = Service.createInstance();
+        service.initService(wordSources, wordLengths);
+        SplittableRandom random = new SplittableRandom(1);
+        for (String lengthOption : wordLengths)
+            for (String wordSource : wordSources) {
+                final int wordLength = Integer.parseInt(lengthOption);
+                final String parameters = ":" + wordLength + ":" + wordSource;
+                // Inputs are drawn from every source, so that words too difficult for this source are checked too.
+                String[] words = service.generateRandomWords(wordLength, wordSources[wordSources.length - 1],
+                        INPUT_COUNT, null, random);
+                String[] wildcardPatterns = new String[INPUT_COUNT];
+                String[] fixedPatterns = new String[INPUT_COUNT];
+                String[] bracketPatterns = new String[INPUT_COUNT];
+                String[] hashtags = new String[INPUT_COUNT];
+                Settings.configSelection(wordSource, words[0], wordSources);
+                for (int i = 0; i < INPUT_COUNT; i++) {
+                    String word = words[i];
+                    String other = words[(i + 1) % INPUT_COUNT];
+                    wildcardPatterns[i] = "*".repeat(wordLength);
+                    StringBuilder fixed = new StringBuilder("*".repeat(wordLength));
+                    fixed.setCharAt(0, word.charAt(0));
+                    fixed.setCharAt(wordLength - 1, word.charAt(wordLength - 1));
+                    fixedPatterns[i] = fixed.toString();
+                    bracketPatterns[i] = "*".repeat(wordLength) + "(" + word.substring(0, 3) + "*)[" +
+                            other.substring(0, 4) + "]";
+                    hashtags[i] = Settings.hashtagEncoder(wordSource, word);
+                }
+                long[] codes = new long[INPUT_COUNT];
+                for (int i = 0; i < INPUT_COUNT; i++)
+                    codes[i] = WordStore.encode(words[i]);
+                int[] patterns = new int[INPUT_COUNT];
+
+                measure("checkExistence" + parameters, filter, baseline, results,
+                        index -> service.checkExistence(words[index], wordSource));
+                measure("generateRandomWord" + parameters, filter, baseline, results,
+                        index -> service.generateRandomWord(wordLength, wordSource));
+                measure("validateHelperInput.wildcards" + parameters, filter, baseline, results, index -> {
+                    // Every search scans, as cached results would hide the cost being measured.
+                    service.clearHelperCache();
+                    return service.validateHelperInput(wildcardPatterns[index]);
+                });
+                measure("validateHelperInput.fixed" + parameters, filter, baseline, results, index -> {
+                    service.clearHelperCache();
+                    return service.validateHelperInput(fixedPatterns[index]);
+                });
+                measure("validateHelperInput.brackets" + parameters, filter, baseline, results, index -> {
+                    service.clearHelperCache();
+                    return service.validateHelperInput(bracketPatterns[index]);
+                });
+                measure("hashtagEncoder" + parameters, filter, baseline, results,
+                        index -> Settings.hashtagEncoder(wordSource, words[index]));
+                measure("hashtagDecoder" + parameters, filter, baseline, results,
+                        index -> Settings.hashtagDecoder(hashtags[index]));
+                measure("FeedbackKernel.score" + parameters, filter, baseline, results,
+                        index -> FeedbackKernel.score(words[index], words[(index + 1) % INPUT_COUNT]));
+                measure("FeedbackKernel.scoreAll" + parameters, filter, baseline, results, index -> {
+                    FeedbackKernel.scoreAll(codes[index], codes, INPUT_COUNT, wordLength, patterns);
+                    return patterns[0];
+                });
+            }
+        return results;
+    }
+
+    /**
+     * This method measures a benchmark if its name matches the filter, then prints and records the result.
+     *
+     * @param name      a String holding the name of the benchmark followed by its parameters.
+     * @param filter    a String holding the regular expression matched against <var>name</var>.
+     * @param baseline  a HashMap storing the time per operation of earlier results by name.
+     * @param results   a List receiving the result.
+     * @param operation an {@code IntFunction} running the operation on the input of given index.
+     */
+    private void measure(String name, String filter, HashMap<String, Double> baseline, List<Result> results,
+                         IntFunction<Object> operation) {
+        if (!name.matches(filter))
+            return;
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++)
+            iterate(operation, null);
+        double[] times = new double[MEASUREMENT_ITERATIONS];
+        long totalOperations = 0;
+        long totalAllocation = 0;
+        for (int iteration = 0; iteration < MEASUREMENT_ITERATIONS; iteration++) {
+            long[] measurement = new long[2];
+            long operations = iterate(operation, measurement);
+            times[iteration] = (double) measurement[0] / operations;
+            totalOperations += operations;
+            totalAllocation += measurement[1];
+        }
+        double meanTime = 0;
+        for (double time : times)
+            meanTime += time / MEASUREMENT_ITERATIONS;
+        double variance = 0;
+        for (double time : times)
+            variance += (time - meanTime) * (time - meanTime) / (MEASUREMENT_ITERATIONS - 1);
+        Result result = new Result(name, meanTime, Math.sqrt(variance), (double) totalAllocation / totalOperations);
+        results.add(result);
+        Double earlierTime = baseline.get(name);
+        System.out.printf("%-52s %14.1f %12.1f %12.1f %10s%n", name, result.meanTime, result.deviation,
+                result.allocation, earlierTime == null ? "" :
+                        String.format("%+.1f%%", (result.meanTime / earlierTime - 1) * 100));
+    }
+
+    /**
+     * Returns the number of operations run in an iteration, which runs inputs in turn until the iteration time is
+     * up.
+     *
+     * @param operation   an {@code IntFunction} running the operation on the input of given index.
+     * @param measurement a {@code long} array receiving the time in nanoseconds and the bytes allocated, or
+     *                    {@code null} for a warm-up iteration.
+     * @return a {@code long} describing the number of operations run.
+     */
+    private long iterate(IntFunction<Object> operation, long[] measurement) {
+        long allocationBefore = getAllocatedBytes();
+        long startTime = System.nanoTime();
+        long endTime = startTime + iterationTime;
+        long operations = 0;
+        long now;
+        do {
+            sink += operation.apply((int) (operations++ % INPUT_COUNT)).hashCode();
+            now = System.nanoTime();
+        } while (now < endTime);
+        if (measurement != null) {
+            measurement[0] = now - startTime;
+            measurement[1] = getAllocatedBytes() - allocationBefore;
+        }
+        return operations;
+    }
+
+    /**
+     * Returns the bytes allocated so far by every live thread, including the workers of fork-join pools.
+     *
+     * @return a {@code long} describing the bytes allocated.
+     */
+    private long getAllocatedBytes() {
+        long total = 0;
+        for (long allocated : threadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds()))
+            total += Math.max(0, allocated);
+        return total;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * The {@code BoardPanel} class paints the grid of letters of a game as a single component, in place of a text field
+ * per cell.
+ *
+ * <p>
+ * The state of each cell is packed into a byte, where the lower 5 bits hold the letter counting from 1, or 0 if the
+ * cell is empty, and the upper bits hold {@link BoardPanel#TYPED} or the score of the letter plus 1. Changing a cell
+ * only repaints the area of that cell.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class BoardPanel extends JComponent {
+    /**
+     * A static constant holding the state of a cell typed but not scored, which is drawn black on white.
+     */
+    private static final int TYPED = 0;
+
+    /**
+     * A static constant holding the number of bits holding the letter of a cell.
+     */
+    private static final int LETTER_BITS = 5;
+
+    /**
+     * A static constant holding the size ratio of cell size to cell interval size.
+     */
+    private static final int SIZE_RATIO = 8;
+
+    /**
+     * A static constant holding the font size of letters.
+     */
+    private static final int FONT_SIZE = 30;
+
+    /**
+     * A static constant holding the serial version, as boards are never serialized.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * An int holding the number of cells of each line.
+     */
+    private final int wordLength;
+
+    /**
+     * A byte array holding the state of each cell, line by line.
+     */
+    private final byte[] cells;
+
+    /**
+     * A double holding the distance between the left edges of neighbouring cells.
+     */
+    private final double step;
+
+    /**
+     * An int holding the width and height of each cell.
+     */
+    private final int cellSize;
+
+    /**
+     * The only constructor for class {@code BoardPanel}, which holds (wordLength+1) lines of wordLength empty cells.
+     *
+     * @param wordLength an int describing the number of cells of each line.
+     * @param width      an int describing the width of the board, which the cells and their intervals fill.
+     */
+    public BoardPanel(int wordLength, int width) {
+        this.wordLength = wordLength;
+        cells = new byte[(wordLength + 1) * wordLength];
+        double interval = 1.0 * width / ((SIZE_RATIO + 1) * wordLength - 1);
+        step = interval * (SIZE_RATIO + 1);
+        cellSize = (int) (interval * SIZE_RATIO);
+        setPreferredSize(new Dimension(width, (int) (step * wordLength) + cellSize));
+        setFont(Settings.getFont("", Font.BOLD, FONT_SIZE));
+        setFocusable(false);
+        setOpaque(false);
+    }
+
+    /**
+     * This method types a letter into a cell, which is drawn black on white until scored.
+     *
+     * @param cell   an int describing the index of the cell, counting line by line from 0.
+     * @param letter an uppercase char holding the letter.
+     */
+    public void setLetter(int cell, char letter) {
+        setCell(cell, TYPED, letter - 'A' + 1);
+    }
+
+    /**
+     * This method empties a cell.
+     *
+     * @param cell an int describing the index of the cell, counting line by line from 0.
+     */
+    public void clearLetter(int cell) {
+        setCell(cell, TYPED, 0);
+    }
+
+    /**
+     * This method colors the letter of a cell by its score.
+     *
+     * @param cell  an int describing the index of the cell, counting line by line from 0.
+     * @param score an int describing the score of the letter, as defined by {@code FeedbackKernel}.
+     */
+    public void setScore(int cell, int score) {
+        setCell(cell, score + 1, cells[cell] & ((1 << LETTER_BITS) - 1));
+    }
+
+    /**
+     * This method empties every cell.
+     */
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+        repaint();
+    }
+
+    /**
+     * This method changes a cell and repaints its area if it differs.
+     *
+     * @param cell   an int describing the index of the cell.
+     * @param state  an int describing {@link BoardPanel#TYPED} or the score plus 1.
+     * @param letter an int describing the letter counting from 1, or 0 if the cell is empty.
+     */
+    private void setCell(int cell, int state, int letter) {
+        byte value = (byte) (state << LETTER_BITS | letter);
+        if (cells[cell] == value)
+            return;
+        cells[cell] = value;
+        repaint(getCellX(cell), getCellY(cell), cellSize, cellSize);
+    }
+
+    /**
+     * Returns the left edge of a cell.
+     *
+     * @param cell an int describing the index of the cell.
+     * @return an int describing the {@code x}-coordinate of the cell.
+     */
+    private int getCellX(int cell) {
+        return (int) (cell % wordLength * step);
+    }
+
+    /**
+     * Returns the top edge of a cell.
+     *
+     * @param cell an int describing the index of the cell.
+     * @return an int describing the {@code y}-coordinate of the cell.
+     */
+    private int getCellY(int cell) {
+        return (int) (cell / wordLength * step);
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        FontMetrics metrics = g.getFontMetrics();
+        Rectangle clip = g.getClipBounds();
+        // Only the cells overlapping the dirty area are painted.
+        for (int cell = 0; cell < cells.length; cell++) {
+            int x = getCellX(cell);
+            int y = getCellY(cell);
+            if (clip != null && !clip.intersects(x, y, cellSize, cellSize))
+                continue;
+            int state = cells[cell] >>> LETTER_BITS;
+            int letter = cells[cell] & ((1 << LETTER_BITS) - 1);
+            g.setColor(getBackground(state));
+            g.fillRect(x, y, cellSize, cellSize);
+            if (letter == 0)
+                continue;
+            String text = String.valueOf((char) ('A' + letter - 1));
+            g.setColor(state == TYPED ? Color.black : Color.white);
+            g.drawString(text, x + (cellSize - metrics.stringWidth(text)) / 2,
+                    y + (cellSize - metrics.getHeight()) / 2 + metrics.getAscent());
+        }
+    }
+
+    /**
+     * This static method returns the background of a cell.
+     *
+     * @param state an int describing {@link BoardPanel#TYPED} or the score plus 1.
+     * @return a {@code Color} holding the background.
+     */
+    private static Color getBackground(int state) {
+        if (state == FeedbackKernel.CORRECT + 1)
+            return Game.CORRECT_COLOR;
+        if (state == FeedbackKernel.PRESENT + 1)
+            return Game.PRESENT_COLOR;
+        if (state == FeedbackKernel.ABSENT + 1)
+            return Game.ABSENT_COLOR;
+        return Color.white;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+
+/**
+ * The {@code CandidateSet} class holds the words still consistent with every guess of a game, which are narrowed in
+ * place after each guess by scoring the survivors only.
+ *
+ * <p>
+ * Candidates are kept as ranks into the codes of a {@code WordStore} along with their codes, so narrowing scores the
+ * survivors in one batch of {@link FeedbackKernel} without decoding words nor rescanning the dictionary, and the
+ * survivors can be shown by the helper like the results of a search.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class CandidateSet {
+    /**
+     * A {@code WordStore} holding the candidate words.
+     */
+    private final WordStore wordStore;
+
+    /**
+     * An int holding the length of the candidate words.
+     */
+    private final int wordLength;
+
+    /**
+     * An int array whose leading <var>size</var> elements are the ranks of the candidates in ascending order.
+     */
+    private final int[] ranks;
+
+    /**
+     * A {@code long} array whose leading <var>size</var> elements are the codes of the candidates, in the order of
+     * <var>ranks</var>.
+     */
+    private final long[] candidateCodes;
+
+    /**
+     * An int array receiving the pattern of the guess against each candidate, which is reused by every narrowing.
+     */
+    private final int[] patterns;
+
+    /**
+     * An int holding the number of candidates.
+     */
+    private int size;
+
+    /**
+     * The only constructor for class {@code CandidateSet}, which starts from every word eligible.
+     *
+     * @param wordStore  a {@code WordStore} holding the words, whose words of given length and difficulty should be
+     *                   loaded already.
+     * @param wordLength an int describing the length of the candidate words.
+     * @param count      an int describing the number of leading ranks eligible, usually decided by difficulty.
+     */
+    public CandidateSet(WordStore wordStore, int wordLength, int count) {
+        this.wordStore = wordStore;
+        this.wordLength = wordLength;
+        long[] codes = wordStore.getCodes(wordLength);
+        size = Math.min(count, codes.length);
+        ranks = new int[size];
+        for (int rank = 0; rank < size; rank++)
+            ranks[rank] = rank;
+        candidateCodes = Arrays.copyOf(codes, size);
+        patterns = new int[size];
+    }
+
+    /**
+     * This method keeps only the candidates that would have produced the same pattern for the guess, which is how the
+     * game window colors the guess against the answer.
+     *
+     * @param guess   a String holding the guess confirmed.
+     * @param pattern an int describing the pattern of the guess against the answer, as returned by
+     *                {@link FeedbackKernel#score(CharSequence, CharSequence)}.
+     */
+    public void narrow(String guess, int pattern) {
+        FeedbackKernel.scoreAll(WordStore.encode(guess), candidateCodes, size, wordLength, patterns);
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+            if (patterns[i] == pattern) {
+                ranks[kept] = ranks[i];
+                candidateCodes[kept++] = candidateCodes[i];
+            }
+        size = kept;
+    }
+
+    /**
+     * Returns the number of candidates.
+     *
+     * @return an int describing the number of candidates.
+     */
+    public int getCount() {
+        return size;
+    }
+
+    /**
+     * Returns a candidate.
+     *
+     * @param index an int describing the index of the candidate, counting from 0 in rank order.
+     * @return a String holding the candidate.
+     */
+    public String getWord(int index) {
+        return wordStore.getWord(wordLength, ranks[index]);
+    }
+
+    /**
+     * Returns the store holding the candidates, which is the one current when the set was created.
+     *
+     * @return a {@code WordStore} whose ranks the candidates follow.
+     */
+    public WordStore getWordStore() {
+        return wordStore;
+    }
+
+    /**
+     * Returns the ranks of the candidates, which is a copy safe to be read by other threads.
+     *
+     * @return an int array holding the ranks of the candidates in ascending order.
+     */
+    public int[] getRanks() {
+        return Arrays.copyOf(ranks, size);
+    }
+
+    /**
+     * Returns the candidates as a helper result, so that the helper window can show them page by page.
+     *
+     * @return a {@code HelperResult} holding the candidates in the order of a full scan.
+     */
+    public HelperResult toResult() {
+        long[] matched = new long[size == 0 ? 0 : (ranks[size - 1] >>> 6) + 1];
+        for (int i = 0; i < size; i++)
+            matched[ranks[i] >>> 6] |= 1L << (ranks[i] & 63);
+        return new HelperResult(wordStore, wordLength, matched);
+    }
+}
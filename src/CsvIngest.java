@@ -0,0 +1,322 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@code CsvIngest} class parses a word source in csv format in parallel, which is used whenever the dictionary
+ * snapshot has to be rebuilt.
+ *
+ * <p>
+ * The file is mapped and split into byte ranges aligned to line breaks. Each range is parsed on a fork-join pool
+ * straight from the bytes into the keys of {@code WordStore}, without creating any String, and each worker fills its
+ * own per-length partition. The partitions are concatenated when the tasks join, and sorted once by the
+ * {@code WordStore} constructor.
+ *
+ * <p>
+ * Lines are accepted under the same rules as {@link Service#parseCsv(File, int, int, int)}: the word must be
+ * alphabetic, followed by a single comma and the difficulty. Other lines are skipped.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class CsvIngest {
+    /**
+     * A static constant holding the smallest byte range parsed by a single task.
+     */
+    private static final int MIN_RANGE_SIZE = 64 * 1024;
+
+    /**
+     * A {@code ByteBuffer} holding the mapped word source.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * An int holding the shortest word length to be kept.
+     */
+    private final int minLength;
+
+    /**
+     * An int holding the longest word length to be kept.
+     */
+    private final int maxLength;
+
+    /**
+     * An int holding the number of difficulty levels.
+     */
+    private final int difficultyLevels;
+
+    /**
+     * An int array holding the start of every byte range followed by the end of the last one.
+     */
+    private final int[] rangeBounds;
+
+    /**
+     * The only constructor for class {@code CsvIngest}, which splits the mapped file into byte ranges aligned to line
+     * breaks.
+     *
+     * @param buffer           a {@code ByteBuffer} holding the mapped word source.
+     * @param minLength        an int describing the shortest word length to be kept.
+     * @param maxLength        an int describing the longest word length to be kept.
+     * @param difficultyLevels an int describing the number of difficulty levels.
+     * @param rangeCount       an int describing the preferred number of byte ranges.
+     */
+    private CsvIngest(ByteBuffer buffer, int minLength, int maxLength, int difficultyLevels, int rangeCount) {
+        this.buffer = buffer;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.difficultyLevels = difficultyLevels;
+        int size = buffer.limit();
+        rangeCount = Math.max(1, Math.min(rangeCount, size / MIN_RANGE_SIZE));
+        int[] bounds = new int[rangeCount + 1];
+        int count = 0;
+        for (int i = 0; i < rangeCount; i++) {
+            // Move each bound forward to the start of the next line.
+            int bound = (int) ((long) size * i / rangeCount);
+            while (bound > 0 && bound < size && buffer.get(bound - 1) != '\n')
+                bound++;
+            if (count == 0 || bound > bounds[count - 1])
+                bounds[count++] = bound;
+        }
+        bounds[count++] = size;
+        rangeBounds = Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Returns a {@code WordStore} holding the words parsed from a word source in csv format, using the common
+     * fork-join pool.
+     *
+     * @param csvFile          a {@code File} describing the word source, where each line is "word,difficulty".
+     * @param minLength        an int describing the shortest word length to be kept.
+     * @param maxLength        an int describing the longest word length to be kept.
+     * @param difficultyLevels an int describing the number of difficulty levels.
+     * @return a {@code WordStore} holding the words parsed.
+     * @throws IOException if the word source cannot be read.
+     */
+    public static WordStore parse(File csvFile, int minLength, int maxLength, int difficultyLevels)
+            throws IOException {
+        return parse(csvFile, minLength, maxLength, difficultyLevels, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a {@code WordStore} holding the words parsed from a word source in csv format, using given pool.
+     *
+     * @param csvFile          a {@code File} describing the word source, where each line is "word,difficulty".
+     * @param minLength        an int describing the shortest word length to be kept.
+     * @param maxLength        an int describing the longest word length to be kept.
+     * @param difficultyLevels an int describing the number of difficulty levels.
+     * @param pool             a {@code ForkJoinPool} running the parsing tasks.
+     * @return a {@code WordStore} holding the words parsed.
+     * @throws IOException if the word source cannot be read.
+     */
+    public static WordStore parse(File csvFile, int minLength, int maxLength, int difficultyLevels,
+                                  ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(csvFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Word source too large: " + csvFile);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CsvIngest ingest = new CsvIngest(buffer, minLength, maxLength, difficultyLevels,
+                    pool.getParallelism() * 4);
+            Partition partition = pool.invoke(ingest.new RangeTask(0, ingest.rangeBounds.length - 1));
+            return new WordStore(minLength, difficultyLevels, partition.keysByLength, partition.sizesByLength);
+        }
+    }
+
+    /**
+     * This method compares this loader with {@link Service#parseCsv(File, int, int, int)} on the default word source
+     * and prints the throughput of both in lines per second and megabytes per second.
+     *
+     * @param args a String array optionally holding the number of rounds measured, which is 10 by default.
+     * @throws IOException if the word source cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        final int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        final int minLength = Integer.parseInt(eWordle.wordLengths[0]);
+        final int maxLength = Integer.parseInt(eWordle.wordLengths[eWordle.wordLengths.length - 1]);
+        final int difficultyLevels = eWordle.wordSources.length;
+        File csvFile = Service.locateWordSource("Trimmed.csv");
+        long lineCount = 0;
+        for (byte b : Files.readAllBytes(csvFile.toPath()))
+            if (b == '\n')
+                lineCount++;
+        System.out.println("Word source: " + csvFile + ", " + lineCount + " lines, " + csvFile.length() +
+                " bytes, " + ForkJoinPool.commonPool().getParallelism() + " workers");
+        for (int loader = 0; loader < 2; loader++) {
+            // The first half of the rounds warms up the JIT and is not reported.
+            long totalTime = 0;
+            for (int round = -rounds; round < rounds; round++) {
+                long startTime = System.nanoTime();
+                if (loader == 0)
+                    Service.parseCsv(csvFile, minLength, maxLength, difficultyLevels);
+                else
+                    CsvIngest.parse(csvFile, minLength, maxLength, difficultyLevels);
+                if (round >= 0)
+                    totalTime += System.nanoTime() - startTime;
+            }
+            double seconds = totalTime / 1e9 / rounds;
+            System.out.printf("%-12s %8.2f ms %12.0f lines/sec %8.1f MB/sec%n",
+                    loader == 0 ? "sequential" : "parallel", seconds * 1000, lineCount / seconds,
+                    csvFile.length() / 1e6 / seconds);
+        }
+    }
+
+    /**
+     * The {@code Partition} class holds the keys parsed by one worker, grouped by length.
+     */
+    private class Partition {
+        /**
+         * An array holding the keys of each length, counting from <var>minLength</var>.
+         */
+        private long[][] keysByLength = new long[maxLength - minLength + 1][256];
+
+        /**
+         * An int array describing the number of keys used in each array of <var>keysByLength</var>.
+         */
+        private final int[] sizesByLength = new int[maxLength - minLength + 1];
+
+        /**
+         * This method appends a key of given length.
+         *
+         * @param index an int describing the length of the word, counting from <var>minLength</var>.
+         * @param key   a long holding the key of the word.
+         */
+        private void add(int index, long key) {
+            if (sizesByLength[index] == keysByLength[index].length)
+                keysByLength[index] = Arrays.copyOf(keysByLength[index], sizesByLength[index] * 2);
+            keysByLength[index][sizesByLength[index]++] = key;
+        }
+
+        /**
+         * This method appends every key of another partition after the keys of this one.
+         *
+         * @param other a {@code Partition} to be merged.
+         * @return this partition.
+         */
+        private Partition merge(Partition other) {
+            for (int index = 0; index < keysByLength.length; index++) {
+                int size = sizesByLength[index] + other.sizesByLength[index];
+                if (size > keysByLength[index].length)
+                    keysByLength[index] = Arrays.copyOf(keysByLength[index], size);
+                System.arraycopy(other.keysByLength[index], 0, keysByLength[index], sizesByLength[index],
+                        other.sizesByLength[index]);
+                sizesByLength[index] = size;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * The {@code RangeTask} class parses a run of byte ranges, splitting it in halves until a single range is left.
+     */
+    private class RangeTask extends RecursiveTask<Partition> {
+        /**
+         * A static constant holding the serial version, as tasks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * An int holding the first range to be parsed.
+         */
+        private final int fromRange;
+
+        /**
+         * An int holding the range after the last one to be parsed.
+         */
+        private final int toRange;
+
+        /**
+         * The only constructor for class {@code RangeTask}.
+         *
+         * @param fromRange an int describing the first range to be parsed.
+         * @param toRange   an int describing the range after the last one to be parsed.
+         */
+        private RangeTask(int fromRange, int toRange) {
+            this.fromRange = fromRange;
+            this.toRange = toRange;
+        }
+
+        @Override
+        protected Partition compute() {
+            if (toRange - fromRange > 1) {
+                int middle = (fromRange + toRange) >>> 1;
+                RangeTask right = new RangeTask(middle, toRange);
+                right.fork();
+                return new RangeTask(fromRange, middle).compute().merge(right.join());
+            }
+            Partition partition = new Partition();
+            parseRange(rangeBounds[fromRange], rangeBounds[toRange], partition);
+            return partition;
+        }
+    }
+
+    /**
+     * This method parses the lines between two positions into a partition.
+     *
+     * @param from      an int describing the start of the first line.
+     * @param to        an int describing the end of the range, which is a line start or the end of the file.
+     * @param partition a {@code Partition} receiving the keys parsed.
+     */
+    private void parseRange(int from, int to, Partition partition) {
+        int position = from;
+        while (position < to) {
+            // Read the word, folding lowercase letters to uppercase.
+            long code = 0;
+            int wordLength = 0;
+            boolean isValid = true;
+            byte b = 0;
+            for (; position < to && (b = buffer.get(position)) != ',' && b != '\n'; position++) {
+                int letter = (b | 0x20) - 'a';
+                if (letter < 0 || letter >= 26)
+                    isValid = false;
+                else
+                    code = code << WordStore.LETTER_BITS | letter;
+                wordLength++;
+            }
+            // Read the difficulty after a single comma.
+            int difficulty = 0;
+            if (b == ',' && position < to) {
+                position++;
+                int digits = 0;
+                for (; position < to && (b = buffer.get(position)) != '\n'; position++, digits++)
+                    if ('0' <= b && b <= '9' && difficulty < 1000)
+                        difficulty = difficulty * 10 + (b - '0');
+                    else if (b != '\r')
+                        isValid = false;
+                if (digits == 0)
+                    isValid = false;
+            } else
+                isValid = false;
+            position++;
+            /* Ignore the words that are impossible to be requested. */
+            if (isValid && minLength <= wordLength && wordLength <= maxLength && 1 <= difficulty &&
+                    difficulty <= difficultyLevels)
+                partition.add(wordLength - minLength, WordStore.toKey(code, difficulty));
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code DictionarySnapshot} class compiles a {@code WordStore} into a versioned binary file and maps it back at
+ * startup, so that the word source does not need to be parsed on every launch.
+ *
+ * <p>
+ * The snapshot is laid out in little-endian as a header, an offsets table, a CRC32 checksum of each block of words
+ * sharing the same length and difficulty, a CRC32 checksum of everything so far, and then the codes of each length
+ * sorted by difficulty. The header records the size, modification time and CRC32 of the csv file it was compiled from,
+ * so that an edited word source is detected as stale.
+ *
+ * <p>
+ * Opening a snapshot only reads the tables before the codes. Each block is verified and copied to the heap when
+ * {@code WordStore} first needs it, so that startup does not depend on the size of the word source.
+ *
+ * <p>
+ * The snapshot can be compiled offline through {@link DictionarySnapshot#main(String[])}, and {@code Service} also
+ * refreshes it whenever it has to fall back to the csv file.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class DictionarySnapshot {
+    /**
+     * A static constant holding the magic number at the start of every snapshot, which is "EWDS" in ASCII.
+     */
+    private static final int MAGIC = 0x45574453;
+
+    /**
+     * A static constant holding the format version, which should be increased whenever the layout changes.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * A static constant holding the size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 4 * 2 + 8 * 3 + 4 * 3;
+
+    /**
+     * A static constant holding the position of the modification time of the csv file inside the header.
+     */
+    private static final int CSV_LAST_MODIFIED_POSITION = 4 * 2 + 8;
+
+    /**
+     * A {@code ByteBuffer} holding the mapped snapshot file.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * An array holding the offsets table of each length, in the same layout as {@code WordStore}.
+     */
+    private final int[][] offsetsByLength;
+
+    /**
+     * An array holding the CRC32 checksum of each block, indexed by length and then difficulty.
+     */
+    private final int[][] blockChecksums;
+
+    /**
+     * An int array holding the position in <var>buffer</var> where the codes of each length start.
+     */
+    private final int[] codesPositions;
+
+    /**
+     * The only constructor for class {@code DictionarySnapshot}, which is called by
+     * {@link DictionarySnapshot#open(File, File, int, int, int)} after the header is checked.
+     *
+     * @param buffer          a {@code ByteBuffer} holding the mapped snapshot file.
+     * @param offsetsByLength an array holding the offsets table of each length.
+     * @param blockChecksums  an array holding the CRC32 checksum of each block.
+     * @param codesPositions  an int array holding the position where the codes of each length start.
+     */
+    private DictionarySnapshot(ByteBuffer buffer, int[][] offsetsByLength, int[][] blockChecksums,
+                               int[] codesPositions) {
+        this.buffer = buffer;
+        this.offsetsByLength = offsetsByLength;
+        this.blockChecksums = blockChecksums;
+        this.codesPositions = codesPositions;
+    }
+
+    /**
+     * This method compiles the default word source into its snapshot with the default settings of {@code eWordle}.
+     *
+     * @param args a default String array which is not used by this program.
+     * @throws IOException if the word source cannot be read or the snapshot cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        final int minLength = Integer.parseInt(eWordle.wordLengths[0]);
+        final int maxLength = Integer.parseInt(eWordle.wordLengths[eWordle.wordLengths.length - 1]);
+        final int difficultyLevels = eWordle.wordSources.length;
+        File csvFile = Service.locateWordSource("Trimmed.csv");
+        long startTime = System.nanoTime();
+        WordStore wordStore = CsvIngest.parse(csvFile, minLength, maxLength, difficultyLevels);
+        File snapshotFile = getSnapshotFile(csvFile);
+        write(wordStore, csvFile, snapshotFile, minLength, maxLength, difficultyLevels);
+        System.out.println("Compiled " + csvFile + " into " + snapshotFile + " (" + snapshotFile.length() +
+                " bytes) in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+    }
+
+    /**
+     * Returns the snapshot file of a csv file, which sits next to it with the extension replaced by {@code .bin}.
+     *
+     * @param csvFile a {@code File} describing the csv file.
+     * @return a {@code File} describing the snapshot file.
+     */
+    public static File getSnapshotFile(File csvFile) {
+        String name = csvFile.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(csvFile.getParentFile(), (dot < 0 ? name : name.substring(0, dot)) + ".bin");
+    }
+
+    /**
+     * This static method writes a fully loaded {@code WordStore} into a snapshot file, replacing the older one
+     * atomically.
+     *
+     * @param wordStore        a {@code WordStore} to be written.
+     * @param csvFile          a {@code File} describing the csv file <var>wordStore</var> is parsed from.
+     * @param snapshotFile     a {@code File} describing the snapshot file to be written.
+     * @param minLength        an int describing the shortest word length stored.
+     * @param maxLength        an int describing the longest word length stored.
+     * @param difficultyLevels an int describing the number of difficulty levels.
+     * @throws IOException              if the snapshot cannot be written.
+     * @throws IllegalArgumentException if the codes of a length are not loaded, as a compact store keeps none.
+     */
+    public static void write(WordStore wordStore, File csvFile, File snapshotFile, int minLength, int maxLength,
+                             int difficultyLevels) throws IOException {
+        int lengthCount = maxLength - minLength + 1;
+        int wordCount = 0;
+        for (int wordLength = minLength; wordLength <= maxLength; wordLength++) {
+            if (wordStore.getCodes(wordLength).length < wordStore.count(wordLength, difficultyLevels))
+                throw new IllegalArgumentException("The words of length " + wordLength + " are not loaded");
+            wordCount += wordStore.count(wordLength, difficultyLevels);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(getCodesPosition(lengthCount, difficultyLevels) + wordCount * 8)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        buffer.putLong(csvFile.length()).putLong(csvFile.lastModified()).putLong(checksum(csvFile));
+        buffer.putInt(minLength).putInt(maxLength).putInt(difficultyLevels);
+        for (int wordLength = minLength; wordLength <= maxLength; wordLength++)
+            for (int difficulty = 0; difficulty <= difficultyLevels; difficulty++)
+                buffer.putInt(wordStore.count(wordLength, difficulty));
+        // Block checksums are filled in after the codes are written.
+        int checksumsPosition = buffer.position();
+        buffer.position(getCodesPosition(lengthCount, difficultyLevels));
+        for (int wordLength = minLength; wordLength <= maxLength; wordLength++)
+            for (long code : wordStore.getCodes(wordLength))
+                buffer.putLong(code);
+        buffer.position(checksumsPosition);
+        int codesPosition = getCodesPosition(lengthCount, difficultyLevels);
+        for (int wordLength = minLength; wordLength <= maxLength; wordLength++) {
+            for (int difficulty = 1; difficulty <= difficultyLevels; difficulty++) {
+                CRC32 crc = new CRC32();
+                crc.update(buffer.array(), codesPosition + wordStore.count(wordLength, difficulty - 1) * 8,
+                        (wordStore.count(wordLength, difficulty) - wordStore.count(wordLength, difficulty - 1)) * 8);
+                buffer.putInt((int) crc.getValue());
+            }
+            codesPosition += wordStore.count(wordLength, difficultyLevels) * 8;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+
+        // Write to a temporary file first so that a reader never maps a half-written snapshot.
+        File temporaryFile = new File(snapshotFile.getPath() + ".tmp");
+        Files.write(temporaryFile.toPath(), buffer.array());
+        Files.move(temporaryFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the snapshot mapped from a file, or {@code null} if the snapshot is missing, corrupted, compiled with
+     * other settings or stale compared with the csv file.
+     *
+     * <p>
+     * Only the tables before the codes are read and verified here, the codes are verified block by block through
+     * {@link DictionarySnapshot#readBlock(int, int, long[])}.
+     *
+     * @param snapshotFile     a {@code File} describing the snapshot file.
+     * @param csvFile          a {@code File} describing the csv file, which is only read if its size or modification
+     *                         time differs from the one recorded.
+     * @param minLength        an int describing the shortest word length expected.
+     * @param maxLength        an int describing the longest word length expected.
+     * @param difficultyLevels an int describing the number of difficulty levels expected.
+     * @return a {@code DictionarySnapshot} mapped from the file, or {@code null} if it cannot be used.
+     */
+    public static DictionarySnapshot open(File snapshotFile, File csvFile, int minLength, int maxLength,
+                                          int difficultyLevels) {
+        if (!snapshotFile.isFile())
+            return null;
+        int lengthCount = maxLength - minLength + 1;
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int codesPosition = getCodesPosition(lengthCount, difficultyLevels);
+            if (size < codesPosition || size > Integer.MAX_VALUE)
+                return null;
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return null;
+            long csvSize = buffer.getLong();
+            long csvLastModified = buffer.getLong();
+            long csvChecksum = buffer.getLong();
+            if (buffer.getInt() != minLength || buffer.getInt() != maxLength ||
+                    buffer.getInt() != difficultyLevels)
+                return null;
+            // A csv file merely touched keeps its checksum, so only its content decides staleness.
+            long lastModified = csvFile.lastModified();
+            boolean isTouched = csvFile.isFile() && lastModified != csvLastModified;
+            if (csvFile.isFile() && (csvFile.length() != csvSize || isTouched && checksum(csvFile) != csvChecksum))
+                return null;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit(codesPosition - 8));
+            if (buffer.getLong(codesPosition - 8) != crc.getValue())
+                return null;
+            if (isTouched)
+                updateCsvLastModified(snapshotFile, buffer, codesPosition, lastModified);
+
+            int[][] offsetsByLength = new int[lengthCount][difficultyLevels + 1];
+            for (int i = 0; i < lengthCount; i++)
+                for (int difficulty = 0; difficulty <= difficultyLevels; difficulty++)
+                    offsetsByLength[i][difficulty] = buffer.getInt();
+            int[][] blockChecksums = new int[lengthCount][difficultyLevels + 1];
+            for (int i = 0; i < lengthCount; i++)
+                for (int difficulty = 1; difficulty <= difficultyLevels; difficulty++)
+                    blockChecksums[i][difficulty] = buffer.getInt();
+            int[] codesPositions = new int[lengthCount];
+            for (int i = 0; i < lengthCount; i++) {
+                codesPositions[i] = codesPosition;
+                codesPosition += offsetsByLength[i][difficultyLevels] * 8;
+            }
+            if (codesPosition != size)
+                return null;
+            return new DictionarySnapshot(buffer, offsetsByLength, blockChecksums, codesPositions);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the offsets table of each length, in the same layout as {@code WordStore}.
+     *
+     * @return an array holding the offsets table of each length.
+     */
+    public int[][] getOffsetsByLength() {
+        return offsetsByLength;
+    }
+
+    /**
+     * This method verifies a block and copies its codes into <var>target</var> at the same offset as in the
+     * snapshot.
+     *
+     * @param lengthIndex an int describing the length of the block, counting from the shortest length.
+     * @param difficulty  an int describing the difficulty of the block, counting from 1.
+     * @param target      a {@code long} array holding at least the codes up to <var>difficulty</var>.
+     * @throws IllegalStateException if the block does not match its checksum.
+     */
+    public void readBlock(int lengthIndex, int difficulty, long[] target) {
+        int from = offsetsByLength[lengthIndex][difficulty - 1];
+        int to = offsetsByLength[lengthIndex][difficulty];
+        ByteBuffer block = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+                .position(codesPositions[lengthIndex] + from * 8).limit(codesPositions[lengthIndex] + to * 8);
+        CRC32 crc = new CRC32();
+        crc.update(block.duplicate());
+        if ((int) crc.getValue() != blockChecksums[lengthIndex][difficulty])
+            throw new IllegalStateException("Dictionary snapshot corrupted at length index " + lengthIndex +
+                    " difficulty " + difficulty);
+        block.asLongBuffer().get(target, from, to - from);
+    }
+
+    /**
+     * Returns whether a block contains a code, which is looked up in the mapped file directly without loading the
+     * block.
+     *
+     * @param lengthIndex an int describing the length of the block, counting from the shortest length.
+     * @param difficulty  an int describing the difficulty of the block, counting from 1.
+     * @param code        a long holding the code to be found.
+     * @return a boolean describing whether the block contains <var>code</var>.
+     */
+    public boolean contains(int lengthIndex, int difficulty, long code) {
+        int low = offsetsByLength[lengthIndex][difficulty - 1];
+        int high = offsetsByLength[lengthIndex][difficulty] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long current = buffer.getLong(codesPositions[lengthIndex] + middle * 8);
+            if (current < code)
+                low = middle + 1;
+            else if (current > code)
+                high = middle - 1;
+            else
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * This static method records a new modification time of the csv file in a snapshot whose csv file has been touched
+     * without changing, so that later launches skip checksumming the csv file again. The snapshot is still used if it
+     * cannot be written, and a header torn by a crash fails its checksum, so the csv file is parsed instead.
+     *
+     * @param snapshotFile  a {@code File} describing the snapshot file.
+     * @param buffer        a {@code ByteBuffer} holding the mapped snapshot file.
+     * @param codesPosition an int describing the position where the codes start.
+     * @param lastModified  a {@code long} describing the modification time of the csv file.
+     */
+    private static void updateCsvLastModified(File snapshotFile, ByteBuffer buffer, int codesPosition,
+                                              long lastModified) {
+        ByteBuffer header = ByteBuffer.allocate(codesPosition).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(buffer.duplicate().position(0).limit(codesPosition - 8));
+        header.putLong(CSV_LAST_MODIFIED_POSITION, lastModified);
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, codesPosition - 8);
+        header.putLong(codesPosition - 8, crc.getValue());
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.WRITE)) {
+            channel.write(header.rewind(), 0);
+        } catch (IOException e) {
+            System.out.println("Unable to update dictionary snapshot: " + e);
+        }
+    }
+
+    /**
+     * This static method returns the position where the codes start, which follows the header, the offsets table, the
+     * block checksums and the checksum of all of them.
+     *
+     * @param lengthCount      an int describing the number of lengths stored.
+     * @param difficultyLevels an int describing the number of difficulty levels.
+     * @return an int describing the position where the codes start.
+     */
+    private static int getCodesPosition(int lengthCount, int difficultyLevels) {
+        return HEADER_SIZE + lengthCount * (difficultyLevels + 1) * 4 + lengthCount * difficultyLevels * 4 + 8;
+    }
+
+    /**
+     * This static method returns the CRC32 checksum of a file.
+     *
+     * @param file a {@code File} to be read.
+     * @return a long describing the checksum.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long checksum(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            CRC32 crc = new CRC32();
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            return crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+
+/**
+ * The {@code FeedbackKernel} class scores guesses against answers, which is shared by the game window, the helper, the
+ * solver and the simulator.
+ *
+ * <p>
+ * A letter scores 2 if it is at the same position in the answer. Otherwise, it scores 1 only while the answer has
+ * copies of it left that are neither matched exactly nor claimed by an earlier letter of the guess, and 0 afterwards,
+ * so a repeated letter is marked as present no more times than the answer holds it.
+ *
+ * <p>
+ * The scores of a guess are returned as a pattern, which is the base-3 number whose digits are the scores from the
+ * first letter, so 3^8 patterns fit in an int. Letters of a single pair are counted in nibbles of two {@code long}
+ * values, so scoring a pair never allocates, and the batch entry points share their buffers across the answers.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class FeedbackKernel {
+    /**
+     * A static constant holding the pattern digit of a letter at the same position in the answer.
+     */
+    public static final int CORRECT = 2;
+
+    /**
+     * A static constant holding the pattern digit of a letter present at another position of the answer.
+     */
+    public static final int PRESENT = 1;
+
+    /**
+     * A static constant holding the pattern digit of a letter absent from the answer.
+     */
+    public static final int ABSENT = 0;
+
+    /**
+     * Returns the pattern of a guess against an answer.
+     *
+     * @param guess  a CharSequence holding the uppercase guess.
+     * @param answer a CharSequence holding the uppercase answer of the same length.
+     * @return an int describing the pattern.
+     */
+    public static int score(CharSequence guess, CharSequence answer) {
+        int wordLength = guess.length();
+        long lowCounts = 0;
+        long highCounts = 0;
+        int exact = 0;
+        for (int i = 0; i < wordLength; i++) {
+            int answerLetter = answer.charAt(i) - 'A';
+            if (guess.charAt(i) - 'A' == answerLetter)
+                exact |= 1 << i;
+            else if (answerLetter < 16)
+                lowCounts += 1L << (answerLetter << 2);
+            else
+                highCounts += 1L << (answerLetter - 16 << 2);
+        }
+        int pattern = 0;
+        for (int i = 0; i < wordLength; i++) {
+            int guessLetter = guess.charAt(i) - 'A';
+            if ((exact >>> i & 1) != 0)
+                pattern = pattern * 3 + CORRECT;
+            else if (guessLetter < 16 && (lowCounts >>> (guessLetter << 2) & 15) != 0) {
+                lowCounts -= 1L << (guessLetter << 2);
+                pattern = pattern * 3 + PRESENT;
+            } else if (guessLetter >= 16 && (highCounts >>> (guessLetter - 16 << 2) & 15) != 0) {
+                highCounts -= 1L << (guessLetter - 16 << 2);
+                pattern = pattern * 3 + PRESENT;
+            } else
+                pattern = pattern * 3 + ABSENT;
+        }
+        return pattern;
+    }
+
+    /**
+     * Returns the pattern of a guess against an answer from their codes.
+     *
+     * @param guessCode  a {@code long} holding the code of the guess, encoded by
+     *                   {@link WordStore#encode(CharSequence)}.
+     * @param answerCode a {@code long} holding the code of the answer.
+     * @param wordLength an int describing the length of both words.
+     * @return an int describing the pattern.
+     */
+    public static int score(long guessCode, long answerCode, int wordLength) {
+        long lowCounts = 0;
+        long highCounts = 0;
+        int exact = 0;
+        for (int i = 0; i < wordLength; i++) {
+            int answerLetter = WordStore.letterAt(answerCode, wordLength, i);
+            if (WordStore.letterAt(guessCode, wordLength, i) == answerLetter)
+                exact |= 1 << i;
+            else if (answerLetter < 16)
+                lowCounts += 1L << (answerLetter << 2);
+            else
+                highCounts += 1L << (answerLetter - 16 << 2);
+        }
+        int pattern = 0;
+        for (int i = 0; i < wordLength; i++) {
+            int guessLetter = WordStore.letterAt(guessCode, wordLength, i);
+            if ((exact >>> i & 1) != 0)
+                pattern = pattern * 3 + CORRECT;
+            else if (guessLetter < 16 && (lowCounts >>> (guessLetter << 2) & 15) != 0) {
+                lowCounts -= 1L << (guessLetter << 2);
+                pattern = pattern * 3 + PRESENT;
+            } else if (guessLetter >= 16 && (highCounts >>> (guessLetter - 16 << 2) & 15) != 0) {
+                highCounts -= 1L << (guessLetter - 16 << 2);
+                pattern = pattern * 3 + PRESENT;
+            } else
+                pattern = pattern * 3 + ABSENT;
+        }
+        return pattern;
+    }
+
+    /**
+     * This static method scores a guess against many answers given by their letters one after another.
+     *
+     * @param guessLetters  a byte array holding the letters of the guess, counting from 0 for A.
+     * @param answerLetters a byte array holding the letters of the answers one after another.
+     * @param wordLength    an int describing the length of every word.
+     * @param patterns      an int array receiving the pattern of each answer.
+     */
+    public static void scoreAll(byte[] guessLetters, byte[] answerLetters, int wordLength, int[] patterns) {
+        scoreAll(guessLetters, answerLetters, answerLetters.length / wordLength, wordLength, patterns);
+    }
+
+    /**
+     * This static method scores a guess against many answers given by their codes, which are read in place, so only
+     * the letters of the guess are unpacked.
+     *
+     * @param guessCode   a {@code long} holding the code of the guess.
+     * @param answerCodes a {@code long} array holding the codes of the answers.
+     * @param count       an int describing the number of leading answers scored.
+     * @param wordLength  an int describing the length of every word.
+     * @param patterns    an int array receiving the pattern of each answer.
+     */
+    public static void scoreAll(long guessCode, long[] answerCodes, int count, int wordLength, int[] patterns) {
+        byte[] guessLetters = new byte[wordLength];
+        toLetters(guessCode, wordLength, guessLetters, 0);
+        int[] shifts = new int[26];
+        findRepeatedLetters(guessLetters, wordLength, shifts);
+        for (int answer = 0; answer < count; answer++) {
+            long answerCode = answerCodes[answer];
+            int remainIncorrect = 0;
+            int copies = 0;
+            int exact = 0;
+            for (int i = 0; i < wordLength; i++) {
+                int answerLetter = WordStore.letterAt(answerCode, wordLength, i);
+                if (guessLetters[i] != answerLetter) {
+                    remainIncorrect |= 1 << answerLetter;
+                    int shift = shifts[answerLetter];
+                    if (shift >= 0)
+                        copies += 1 << shift;
+                } else
+                    exact |= 1 << i;
+            }
+            int pattern = 0;
+            for (int i = 0; i < wordLength; i++) {
+                int shift = shifts[guessLetters[i]];
+                if ((exact >>> i & 1) != 0)
+                    pattern = pattern * 3 + CORRECT;
+                else if (shift < 0)
+                    pattern = pattern * 3 + (remainIncorrect >>> guessLetters[i] & 1);
+                else if ((copies >>> shift & 15) != 0) {
+                    copies -= 1 << shift;
+                    pattern = pattern * 3 + PRESENT;
+                } else
+                    pattern = pattern * 3 + ABSENT;
+            }
+            patterns[answer] = pattern;
+        }
+    }
+
+    /**
+     * This static method finds the letters repeated in a guess, giving each of them a nibble to count its copies left
+     * in an answer.
+     *
+     * @param guessLetters a byte array holding the letters of the guess, counting from 0 for A.
+     * @param wordLength   an int describing the length of the guess.
+     * @param shifts       an int array of 26 elements receiving the shift of the nibble of each repeated letter, or -1
+     *                     for other letters.
+     * @return an int describing the number of letters repeated.
+     */
+    private static int findRepeatedLetters(byte[] guessLetters, int wordLength, int[] shifts) {
+        Arrays.fill(shifts, -1);
+        int seen = 0;
+        int repeatedCount = 0;
+        for (int i = 0; i < wordLength; i++) {
+            int guessLetter = guessLetters[i];
+            if ((seen >>> guessLetter & 1) != 0 && shifts[guessLetter] < 0)
+                shifts[guessLetter] = repeatedCount++ << 2;
+            seen |= 1 << guessLetter;
+        }
+        return repeatedCount;
+    }
+
+    /**
+     * This static method scores a guess against the leading answers given by their letters one after another.
+     *
+     * <p>
+     * A letter not matched exactly is looked up in the set of letters of the answer left, which is exact unless the
+     * letter is repeated in the guess. Only the copies of repeated letters are counted, in nibbles of an int, as a
+     * guess of 8 letters repeats at most 4 of them.
+     *
+     * @param guessLetters  a byte array holding the letters of the guess, counting from 0 for A.
+     * @param answerLetters a byte array holding the letters of the answers one after another.
+     * @param count         an int describing the number of leading answers scored.
+     * @param wordLength    an int describing the length of every word.
+     * @param patterns      an int array receiving the pattern of each answer.
+     */
+    private static void scoreAll(byte[] guessLetters, byte[] answerLetters, int count, int wordLength,
+                                 int[] patterns) {
+        // The shift of the nibble counting each repeated letter, or -1 for other letters.
+        int[] shifts = new int[26];
+        if (findRepeatedLetters(guessLetters, wordLength, shifts) == 0) {
+            for (int answer = 0, offset = 0; answer < count; answer++, offset += wordLength) {
+                int remainIncorrect = 0;
+                int exact = 0;
+                for (int i = 0; i < wordLength; i++) {
+                    int answerLetter = answerLetters[offset + i];
+                    if (guessLetters[i] != answerLetter)
+                        remainIncorrect |= 1 << answerLetter;
+                    else
+                        exact |= 1 << i;
+                }
+                // The bit of a letter in the letters left is either PRESENT or ABSENT.
+                int pattern = 0;
+                for (int i = 0; i < wordLength; i++)
+                    if ((exact >>> i & 1) != 0)
+                        pattern = pattern * 3 + CORRECT;
+                    else
+                        pattern = pattern * 3 + (remainIncorrect >>> guessLetters[i] & 1);
+                patterns[answer] = pattern;
+            }
+            return;
+        }
+        for (int answer = 0, offset = 0; answer < count; answer++, offset += wordLength) {
+            int remainIncorrect = 0;
+            int copies = 0;
+            int exact = 0;
+            for (int i = 0; i < wordLength; i++) {
+                int answerLetter = answerLetters[offset + i];
+                if (guessLetters[i] != answerLetter) {
+                    remainIncorrect |= 1 << answerLetter;
+                    int shift = shifts[answerLetter];
+                    if (shift >= 0)
+                        copies += 1 << shift;
+                } else
+                    exact |= 1 << i;
+            }
+            int pattern = 0;
+            for (int i = 0; i < wordLength; i++) {
+                int shift = shifts[guessLetters[i]];
+                if ((exact >>> i & 1) != 0)
+                    pattern = pattern * 3 + CORRECT;
+                else if (shift < 0)
+                    pattern = pattern * 3 + (remainIncorrect >>> guessLetters[i] & 1);
+                else if ((copies >>> shift & 15) != 0) {
+                    copies -= 1 << shift;
+                    pattern = pattern * 3 + PRESENT;
+                } else
+                    pattern = pattern * 3 + ABSENT;
+            }
+            patterns[answer] = pattern;
+        }
+    }
+
+    /**
+     * This static method writes the digits of a pattern into an array, from the first letter.
+     *
+     * @param pattern    an int describing the pattern.
+     * @param wordLength an int describing the length of the guess.
+     * @param scores     an int array receiving {@link FeedbackKernel#CORRECT}, {@link FeedbackKernel#PRESENT} or
+     *                   {@link FeedbackKernel#ABSENT} for each letter.
+     */
+    public static void decode(int pattern, int wordLength, int[] scores) {
+        for (int i = wordLength - 1; i >= 0; i--) {
+            scores[i] = pattern % 3;
+            pattern /= 3;
+        }
+    }
+
+    /**
+     * This static method writes the letters of a code into an array, counting from 0 for A.
+     *
+     * @param code       a {@code long} holding the code of a word.
+     * @param wordLength an int describing the length of the word.
+     * @param letters    a byte array receiving the letters.
+     * @param offset     an int describing the position of the first letter.
+     */
+    public static void toLetters(long code, int wordLength, byte[] letters, int offset) {
+        for (int i = 0; i < wordLength; i++)
+            letters[offset + i] = (byte) WordStore.letterAt(code, wordLength, i);
+    }
+}
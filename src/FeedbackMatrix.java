@@ -0,0 +1,353 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code FeedbackMatrix} class holds the score pattern of every guess against every answer within a partition of
+ * words sharing the same length and difficulty, so that solving and simulation look patterns up instead of scoring
+ * pairs again.
+ *
+ * <p>
+ * Row <var>i</var> holds the patterns of the word of rank <var>i</var> guessed against every word, in the order of
+ * {@link WordStore#getCodes(int)}. A pattern is the base-3 number returned by {@link FeedbackKernel}, which takes one
+ * byte for 5-letter words and two bytes for longer ones, as 3^6 exceeds a byte.
+ *
+ * <p>
+ * The matrix is built in parallel straight into a memory-mapped file, and mapped again by later runs, so it lives off
+ * the heap and loads instantly. The file may exceed 2 GB for 8-letter words, so it is mapped in segments of whole
+ * rows, and a lookup is still a single read from one segment. The header records a CRC32 checksum of the codes, so a
+ * matrix built from another dictionary is detected as stale.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class FeedbackMatrix {
+    /**
+     * A static constant holding the magic number at the start of every matrix file, which is "EWFM" in ASCII.
+     */
+    private static final int MAGIC = 0x4557464D;
+
+    /**
+     * A static constant holding the format version, which should be increased whenever the layout or the patterns
+     * change.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * A static constant holding the size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 4 * 5 + 8;
+
+    /**
+     * A static constant holding the largest size of a mapped segment in bytes.
+     */
+    private static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+    /**
+     * A static constant holding the number of rows built by a single task.
+     */
+    private static final int LEAF_ROWS = 16;
+
+    /**
+     * An int holding the length of every word.
+     */
+    private final int wordLength;
+
+    /**
+     * An int holding the number of words, which is both the number of rows and columns.
+     */
+    private final int wordCount;
+
+    /**
+     * An int holding the size of each pattern in bytes.
+     */
+    private final int cellBytes;
+
+    /**
+     * An int holding the number of rows in every segment.
+     */
+    private final int rowsPerSegment;
+
+    /**
+     * A {@code ByteBuffer} array holding the mapped segments of the file.
+     */
+    private final ByteBuffer[] segments;
+
+    /**
+     * The only constructor for class {@code FeedbackMatrix}, which maps the rows of a matrix file.
+     *
+     * @param channel    a {@code FileChannel} of the matrix file.
+     * @param mode       a {@code FileChannel.MapMode} describing how the file is mapped.
+     * @param wordLength an int describing the length of every word.
+     * @param wordCount  an int describing the number of words.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private FeedbackMatrix(FileChannel channel, FileChannel.MapMode mode, int wordLength, int wordCount)
+            throws IOException {
+        this.wordLength = wordLength;
+        this.wordCount = wordCount;
+        cellBytes = getCellBytes(wordLength);
+        long rowSize = (long) wordCount * cellBytes;
+        rowsPerSegment = (int) Math.max(1, Math.min(wordCount, MAX_SEGMENT_SIZE / Math.max(1, rowSize)));
+        segments = new ByteBuffer[(wordCount + rowsPerSegment - 1) / rowsPerSegment];
+        for (int i = 0; i < segments.length; i++) {
+            int rows = Math.min(rowsPerSegment, wordCount - i * rowsPerSegment);
+            segments[i] = channel.map(mode, HEADER_SIZE + i * rowsPerSegment * rowSize, rows * rowSize)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * This method builds the matrix of given length and word source with the default settings of {@code eWordle}.
+     *
+     * @param args a String array holding the word length and the word source, which are 5 and "CET-4" by default.
+     */
+    public static void main(String[] args) {
+        final int wordLength = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        final String wordSource = args.length > 1 ? args[1] : eWordle.wordSources[0];
+        String initResult = Service.getInstance().initService(eWordle.wordSources, eWordle.wordLengths);
+        if (initResult.length() > 0) {
+            System.out.println(initResult);
+            return;
+        }
+        long startTime = System.nanoTime();
+        FeedbackMatrix feedbackMatrix = Service.getInstance().getFeedbackMatrix(wordLength, wordSource, true);
+        if (feedbackMatrix != null)
+            System.out.println("Feedback matrix of " + feedbackMatrix.getWordCount() + " words with length " +
+                    wordLength + " from " + wordSource + " ready in " + (System.nanoTime() - startTime) / 1000000 +
+                    " ms");
+    }
+
+    /**
+     * Returns the matrix file of a partition, which sits next to the csv file.
+     *
+     * @param csvFile    a {@code File} describing the csv file.
+     * @param wordLength an int describing the length of words.
+     * @param difficulty an int describing the highest difficulty of words.
+     * @return a {@code File} describing the matrix file.
+     */
+    public static File getMatrixFile(File csvFile, int wordLength, int difficulty) {
+        String name = csvFile.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(csvFile.getParentFile(), (dot < 0 ? name : name.substring(0, dot)) + ".feedback." +
+                wordLength + "." + difficulty + ".bin");
+    }
+
+    /**
+     * Returns the matrix mapped from a file, or {@code null} if the file is missing, corrupted or built from other
+     * codes.
+     *
+     * @param matrixFile a {@code File} describing the matrix file.
+     * @param wordLength an int describing the length of every word.
+     * @param codes      a {@code long} array holding the codes of the words in rank order.
+     * @return a {@code FeedbackMatrix} mapped from the file, or {@code null} if it cannot be used.
+     */
+    public static FeedbackMatrix open(File matrixFile, int wordLength, long[] codes) {
+        if (!matrixFile.isFile())
+            return null;
+        try (FileChannel channel = FileChannel.open(matrixFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(header, 0) != HEADER_SIZE)
+                return null;
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getInt() != wordLength ||
+                    header.getInt() != codes.length || header.getInt() != getCellBytes(wordLength) ||
+                    header.getLong() != checksum(codes))
+                return null;
+            if (channel.size() != HEADER_SIZE + (long) codes.length * codes.length * getCellBytes(wordLength))
+                return null;
+            // Mappings stay valid after the channel is closed.
+            return new FeedbackMatrix(channel, FileChannel.MapMode.READ_ONLY, wordLength, codes.length);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the matrix built from given codes on a fork-join pool, which is written into a file replacing the older
+     * one atomically.
+     *
+     * @param matrixFile a {@code File} describing the matrix file to be written.
+     * @param wordLength an int describing the length of every word.
+     * @param codes      a {@code long} array holding the codes of the words in rank order.
+     * @param pool       a {@code ForkJoinPool} running the build.
+     * @return a {@code FeedbackMatrix} mapped from the file written.
+     * @throws IOException if the file cannot be written.
+     */
+    public static FeedbackMatrix build(File matrixFile, int wordLength, long[] codes, ForkJoinPool pool)
+            throws IOException {
+        // Write to a temporary file first so that a reader never maps a half-built matrix.
+        File temporaryFile = new File(matrixFile.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(wordLength).putInt(codes.length)
+                    .putInt(getCellBytes(wordLength)).putLong(checksum(codes)).flip();
+            channel.write(header, 0);
+            FeedbackMatrix feedbackMatrix = new FeedbackMatrix(channel, FileChannel.MapMode.READ_WRITE, wordLength,
+                    codes.length);
+            byte[] letters = new byte[codes.length * wordLength];
+            for (int i = 0; i < codes.length; i++)
+                FeedbackKernel.toLetters(codes[i], wordLength, letters, i * wordLength);
+            pool.invoke(feedbackMatrix.new BuildTask(letters, 0, codes.length));
+            for (ByteBuffer segment : feedbackMatrix.segments)
+                ((MappedByteBuffer) segment).force();
+        }
+        Files.move(temporaryFile.toPath(), matrixFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        FeedbackMatrix feedbackMatrix = open(matrixFile, wordLength, codes);
+        if (feedbackMatrix == null)
+            throw new IOException("Unable to map " + matrixFile);
+        return feedbackMatrix;
+    }
+
+    /**
+     * Returns the score pattern of a guess against an answer.
+     *
+     * @param guess  an int describing the rank of the guess.
+     * @param answer an int describing the rank of the answer.
+     * @return an int describing the pattern, as returned by {@link FeedbackKernel}.
+     */
+    public int get(int guess, int answer) {
+        ByteBuffer segment = segments[guess / rowsPerSegment];
+        int position = ((guess % rowsPerSegment) * wordCount + answer) * cellBytes;
+        return cellBytes == 1 ? segment.get(position) & 0xFF : segment.getShort(position) & 0xFFFF;
+    }
+
+    /**
+     * Returns the length of every word.
+     *
+     * @return an int describing the length of every word.
+     */
+    public int getWordLength() {
+        return wordLength;
+    }
+
+    /**
+     * Returns the number of words, which is both the number of rows and columns.
+     *
+     * @return an int describing the number of words.
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * The {@code BuildTask} class scores a range of rows into the mapped segments.
+     */
+    private class BuildTask extends RecursiveAction {
+        /**
+         * A static constant holding the serial version, as tasks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * A byte array holding the letters of every word one after another.
+         */
+        private final byte[] letters;
+
+        /**
+         * An int holding the first row to be built.
+         */
+        private final int fromRow;
+
+        /**
+         * An int holding the row after the last one to be built.
+         */
+        private final int toRow;
+
+        /**
+         * The only constructor for class {@code BuildTask}.
+         *
+         * @param letters a byte array holding the letters of every word one after another.
+         * @param fromRow an int describing the first row to be built.
+         * @param toRow   an int describing the row after the last one to be built.
+         */
+        private BuildTask(byte[] letters, int fromRow, int toRow) {
+            this.letters = letters;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow > LEAF_ROWS) {
+                int middle = (fromRow + toRow) >>> 1;
+                invokeAll(new BuildTask(letters, fromRow, middle), new BuildTask(letters, middle, toRow));
+                return;
+            }
+            // Each row is scored into a local array and copied into its segment at once.
+            byte[] guessLetters = new byte[wordLength];
+            byte[] row = new byte[wordCount * cellBytes];
+            int[] patterns = new int[wordCount];
+            for (int guess = fromRow; guess < toRow; guess++) {
+                System.arraycopy(letters, guess * wordLength, guessLetters, 0, wordLength);
+                FeedbackKernel.scoreAll(guessLetters, letters, wordLength, patterns);
+                for (int answer = 0; answer < wordCount; answer++) {
+                    int pattern = patterns[answer];
+                    if (cellBytes == 1)
+                        row[answer] = (byte) pattern;
+                    else {
+                        row[answer * 2] = (byte) pattern;
+                        row[answer * 2 + 1] = (byte) (pattern >>> 8);
+                    }
+                }
+                segments[guess / rowsPerSegment].put((guess % rowsPerSegment) * row.length, row);
+            }
+        }
+    }
+
+    /**
+     * This static method returns the size of each pattern in bytes for given word length.
+     *
+     * @param wordLength an int describing the length of every word.
+     * @return an int describing the size of each pattern in bytes.
+     */
+    private static int getCellBytes(int wordLength) {
+        return Math.pow(3, wordLength) <= 256 ? 1 : 2;
+    }
+
+    /**
+     * This static method returns the CRC32 checksum of codes in rank order.
+     *
+     * @param codes a {@code long} array holding the codes.
+     * @return a long describing the checksum.
+     */
+    private static long checksum(long[] codes) {
+        ByteBuffer buffer = ByteBuffer.allocate(codes.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(codes);
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * The {@code FrontCodedDictionary} class holds the words of every length in a compressed and immutable form, which
+ * takes a fraction of the heap of the packed arrays of {@code WordStore} while keeping lookups by word and by rank.
+ *
+ * <p>
+ * Words keep the order of {@code WordStore}, sorted by difficulty and then alphabetically, so ranks are the same in
+ * both. They are split into buckets of {@link FrontCodedDictionary#BUCKET_SIZE} words, where the first code of each
+ * bucket is kept in full and every later one as its gap from the one before in a variable-length byte sequence. As
+ * letters take 5 bits each from the highest bits down, neighbours sharing a long prefix differ by a small gap, so that
+ * this is front coding at the level of letters. Gaps only go negative where a difficulty block starts, and are
+ * zigzag-encoded for that.
+ *
+ * <p>
+ * A word is found by a binary search over the first codes of the buckets inside its difficulty block, followed by a
+ * scan of one bucket, and a rank is read by scanning its bucket from the start.
+ *
+ * <p>
+ * The heap taken by each layout of the default word source can be compared through
+ * {@link FrontCodedDictionary#main(String[])}.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class FrontCodedDictionary {
+    /**
+     * A static constant holding the number of words in each bucket, which trades the size of the first codes kept in
+     * full against the length of the scans.
+     */
+    public static final int BUCKET_SIZE = 16;
+
+    /**
+     * An array holding the offsets table of each length, in the same layout as {@code WordStore}.
+     */
+    private final int[][] offsetsByLength;
+
+    /**
+     * An array holding the first code of each bucket, indexed by length and then bucket.
+     */
+    private final long[][] headsByLength;
+
+    /**
+     * An array holding the position in the gaps where each bucket starts, indexed by length and then bucket.
+     */
+    private final int[][] positionsByLength;
+
+    /**
+     * An array holding the zigzag-encoded gaps of each length, where each byte carries 7 bits and the highest bit
+     * marks that more bytes follow.
+     */
+    private final byte[][] gapsByLength;
+
+    /**
+     * The only constructor for class {@code FrontCodedDictionary}, which compresses the codes of one length at a time
+     * so that only a single length is held uncompressed.
+     *
+     * @param offsetsByLength an array holding the offsets table of each length, in the same layout as
+     *                        {@code WordStore}.
+     * @param codesOfLength   an {@code IntFunction} returning every code of the length of given index, sorted by
+     *                        difficulty and then alphabetically.
+     */
+    public FrontCodedDictionary(int[][] offsetsByLength, IntFunction<long[]> codesOfLength) {
+        this.offsetsByLength = offsetsByLength;
+        int lengthCount = offsetsByLength.length;
+        headsByLength = new long[lengthCount][];
+        positionsByLength = new int[lengthCount][];
+        gapsByLength = new byte[lengthCount][];
+        for (int index = 0; index < lengthCount; index++) {
+            long[] codes = codesOfLength.apply(index);
+            int bucketCount = (codes.length + BUCKET_SIZE - 1) / BUCKET_SIZE;
+            long[] heads = new long[bucketCount];
+            int[] positions = new int[bucketCount];
+            // A gap takes at most 9 bytes, as a zigzag-encoded code of 12 letters fits in 61 bits.
+            byte[] gaps = new byte[codes.length * 9];
+            int position = 0;
+            for (int rank = 0; rank < codes.length; rank++) {
+                if (rank % BUCKET_SIZE == 0) {
+                    heads[rank / BUCKET_SIZE] = codes[rank];
+                    positions[rank / BUCKET_SIZE] = position;
+                    continue;
+                }
+                long gap = codes[rank] - codes[rank - 1];
+                for (long zigzag = gap << 1 ^ gap >> 63; ; zigzag >>>= 7) {
+                    if ((zigzag & ~0x7FL) == 0) {
+                        gaps[position++] = (byte) zigzag;
+                        break;
+                    }
+                    gaps[position++] = (byte) (zigzag | 0x80);
+                }
+            }
+            headsByLength[index] = heads;
+            positionsByLength[index] = positions;
+            gapsByLength[index] = Arrays.copyOf(gaps, position);
+        }
+    }
+
+    /**
+     * This method prints the heap taken by each length of the default word source in three layouts: the nested
+     * HashMaps {@code Service} used to keep, the packed arrays of {@code WordStore}, and this dictionary.
+     *
+     * @param args a default String array which is not used by this program.
+     * @throws IOException if the word source cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        final int minLength = Integer.parseInt(eWordle.wordLengths[0]);
+        final int maxLength = Integer.parseInt(eWordle.wordLengths[eWordle.wordLengths.length - 1]);
+        final int difficultyLevels = eWordle.wordSources.length;
+        WordStore wordStore = CsvIngest.parse(Service.locateWordSource("Trimmed.csv"), minLength, maxLength,
+                difficultyLevels);
+        FrontCodedDictionary dictionary = wordStore.compact().getDictionary();
+        long[] totals = new long[3];
+        System.out.printf("%-8s %10s %14s %14s %14s%n", "Length", "Words", "HashMap", "Packed", "Front-coded");
+        for (int index = 0; index < dictionary.offsetsByLength.length; index++) {
+            int[] offsets = dictionary.offsetsByLength[index];
+            long[] bytes = {estimateHashMapBytes(offsets, minLength + index),
+                    16 + offsets.length * 4L + 16 + offsets[difficultyLevels] * 8L, dictionary.getMemoryBytes(index)};
+            for (int i = 0; i < 3; i++)
+                totals[i] += bytes[i];
+            System.out.printf("%-8d %10d %14d %14d %14d%n", minLength + index, offsets[difficultyLevels], bytes[0],
+                    bytes[1], bytes[2]);
+        }
+        System.out.printf("%-8s %10s %14d %14d %14d%n", "All", "", totals[0], totals[1], totals[2]);
+    }
+
+    /**
+     * Returns an estimate of the heap taken by the words of one length in the nested HashMaps {@code Service} used
+     * to keep: a {@code HashMap} from each word to its difficulty, and an {@code ArrayList} of words for each
+     * difficulty sharing the same Strings. Sizes are those of a 64-bit JVM with compressed references, where objects
+     * are aligned to 8 bytes and Strings of letters take a byte per letter.
+     *
+     * @param offsets    an int array holding the offsets table of the length.
+     * @param wordLength an int describing the length of the words.
+     * @return a {@code long} describing the number of bytes.
+     */
+    private static long estimateHashMapBytes(int[] offsets, int wordLength) {
+        int wordCount = offsets[offsets.length - 1];
+        // A String and its byte array, then a HashMap entry and its share of the table, which doubles at 75% full.
+        long stringBytes = 24 + (16 + wordLength + 7) / 8 * 8;
+        int tableSize = Integer.highestOneBit(Math.max(1, (int) Math.ceil(wordCount / 0.75) - 1)) << 1;
+        long bytes = 48 + 16 + tableSize * 4L + wordCount * (stringBytes + 32);
+        for (int difficulty = 1; difficulty < offsets.length; difficulty++) {
+            // An ArrayList grows by half its capacity from 10, and takes an entry of the HashMap by difficulty.
+            int capacity = 10;
+            while (capacity < offsets[difficulty] - offsets[difficulty - 1])
+                capacity += capacity >> 1;
+            bytes += 32 + 24 + 16 + capacity * 4L;
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the offsets table of each length, in the same layout as {@code WordStore}.
+     *
+     * @return an array holding the offsets table of each length.
+     */
+    public int[][] getOffsetsByLength() {
+        return offsetsByLength;
+    }
+
+    /**
+     * Returns the code of given rank.
+     *
+     * @param lengthIndex an int describing the length of the word, counting from the shortest length.
+     * @param rank        an int describing the position of the word, in the same order as {@code WordStore}.
+     * @return a {@code long} holding the code of the word.
+     */
+    public long getCode(int lengthIndex, int rank) {
+        int bucket = rank / BUCKET_SIZE;
+        long code = headsByLength[lengthIndex][bucket];
+        byte[] gaps = gapsByLength[lengthIndex];
+        int position = positionsByLength[lengthIndex][bucket];
+        for (int skipped = bucket * BUCKET_SIZE; skipped < rank; skipped++) {
+            long zigzag = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = gaps[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    break;
+            }
+            code += zigzag >>> 1 ^ -(zigzag & 1);
+        }
+        return code;
+    }
+
+    /**
+     * This method decodes a block in rank order into <var>target</var> at the same offset as in {@code WordStore},
+     * which is how the words of one length and difficulty are enumerated.
+     *
+     * @param lengthIndex an int describing the length of the block, counting from the shortest length.
+     * @param difficulty  an int describing the difficulty of the block, counting from 1.
+     * @param target      a {@code long} array holding at least the codes up to <var>difficulty</var>.
+     */
+    public void readBlock(int lengthIndex, int difficulty, long[] target) {
+        int from = offsetsByLength[lengthIndex][difficulty - 1];
+        int to = offsetsByLength[lengthIndex][difficulty];
+        if (from == to)
+            return;
+        byte[] gaps = gapsByLength[lengthIndex];
+        int bucket = from / BUCKET_SIZE;
+        long code = headsByLength[lengthIndex][bucket];
+        int position = positionsByLength[lengthIndex][bucket];
+        for (int rank = bucket * BUCKET_SIZE; ; rank++) {
+            if (rank >= from)
+                target[rank] = code;
+            if (rank + 1 == to)
+                return;
+            // The first code of a bucket is kept in full, while its gaps follow those of the bucket before.
+            if ((rank + 1) % BUCKET_SIZE == 0) {
+                code = headsByLength[lengthIndex][(rank + 1) / BUCKET_SIZE];
+                continue;
+            }
+            long zigzag = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = gaps[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    break;
+            }
+            code += zigzag >>> 1 ^ -(zigzag & 1);
+        }
+    }
+
+    /**
+     * Returns the rank of a code inside a block, or -1 if the block does not contain it.
+     *
+     * @param lengthIndex an int describing the length of the block, counting from the shortest length.
+     * @param difficulty  an int describing the difficulty of the block, counting from 1.
+     * @param code        a {@code long} holding the code to be found.
+     * @return an int describing the position of the code, in the same order as {@code WordStore}.
+     */
+    public int findRank(int lengthIndex, int difficulty, long code) {
+        int from = offsetsByLength[lengthIndex][difficulty - 1];
+        int to = offsetsByLength[lengthIndex][difficulty];
+        if (from == to)
+            return -1;
+        long[] heads = headsByLength[lengthIndex];
+        // Buckets after the first one of the block start inside it, so their first codes are sorted.
+        int low = from / BUCKET_SIZE;
+        int high = (to - 1) / BUCKET_SIZE;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (heads[middle] <= code)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        byte[] gaps = gapsByLength[lengthIndex];
+        long current = heads[low];
+        int position = positionsByLength[lengthIndex][low];
+        int last = Math.min((low + 1) * BUCKET_SIZE, to) - 1;
+        for (int rank = low * BUCKET_SIZE; ; rank++) {
+            if (rank >= from && current >= code)
+                return current == code ? rank : -1;
+            if (rank == last)
+                return -1;
+            long zigzag = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = gaps[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    break;
+            }
+            current += zigzag >>> 1 ^ -(zigzag & 1);
+        }
+    }
+
+    /**
+     * Returns the number of bytes taken by the arrays of every length, including their headers.
+     *
+     * @return a {@code long} describing the number of bytes.
+     */
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (int index = 0; index < offsetsByLength.length; index++)
+            bytes += getMemoryBytes(index);
+        return bytes;
+    }
+
+    /**
+     * Returns the number of bytes taken by the arrays of one length, including their headers.
+     *
+     * @param lengthIndex an int describing the length, counting from the shortest length.
+     * @return a {@code long} describing the number of bytes.
+     */
+    private long getMemoryBytes(int lengthIndex) {
+        return 16 + offsetsByLength[lengthIndex].length * 4L + 16 + headsByLength[lengthIndex].length * 8L + 16 +
+                positionsByLength[lengthIndex].length * 4L + 16 + gapsByLength[lengthIndex].length;
+    }
+}
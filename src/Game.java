@@ -24,15 +24,16 @@ import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.List;
 
 /**
- * The {@code Game} class manages a game window that enables user to play the game and shows the result window after
- * the game ends.
+ * The {@code Game} class manages a game played on the {@code GameBoard} of its word length, which enables user to
+ * play the game and shows the result window after the game ends. The board is hidden rather than disposed then, so
+ * that the next game of the same length reuses it.
  *
  * <p>
  * If the user click the helper icon, the helper window will be shown. The helper window is managed by current
- * {@code Game} instance and will be disposed when the game window closes (to show the result window).
+ * {@code Game} instance and will be disposed when the game window hides (to show the result window).
  *
  * <p>
  * Multiple instances of this class may be instantiated for various settings of preferred word length of the word to be
@@ -49,34 +50,34 @@ public class Game {
     private static Game instance;
 
     /**
-     * A static constant holding the width of current window.
+     * A static constant holding the width of each content box.
      */
-    private static final int WINDOW_WIDTH = 600;
+    private static final int CONTENT_WIDTH = 500;
 
     /**
-     * A static constant holding the height of current window.
+     * A static constant holding the interval size of contents of current window.
      */
-    private static final int WINDOW_HEIGHT = 850;
+    private static final int CONTENT_MARGIN = 50;
 
     /**
-     * A static constant holding the width of each content box.
+     * A static constant holding the number of guesses listed by the solver.
      */
-    private static final int CONTENT_WIDTH = 500;
+    private static final int RANKED_GUESSES = 20;
 
     /**
-     * A static constant holding the height of each content box.
+     * A static constant holding the background of a letter at the same position in the answer.
      */
-    private static final int CONTENT_HEIGHT = 100;
+    static final Color CORRECT_COLOR = new Color(121, 167, 107);
 
     /**
-     * A static constant holding the interval size of contents of current window.
+     * A static constant holding the background of a letter present at another position of the answer.
      */
-    private static final int CONTENT_MARGIN = 50;
+    static final Color PRESENT_COLOR = new Color(198, 180, 102);
 
     /**
-     * A static constant holding the size ratio of cell size to cell interval size of current window.
+     * A static constant holding the background of a letter absent from the answer.
      */
-    private static final int SIZE_RATIO = 8;
+    static final Color ABSENT_COLOR = new Color(121, 124, 126);
 
     /**
      * A boolean holding the status that whether the user opened the helper window.
@@ -84,14 +85,14 @@ public class Game {
     private boolean isOpenedHelper = false;
 
     /**
-     * A {@code JFrame} holding the instance of current window.
+     * A {@code GameBoard} holding the game window of the word length, which is shared with other games of the length.
      */
-    private JFrame window;
+    private GameBoard board;
 
     /**
-     * A {@code ArrayList} holding the instances of {@code JTextField} that displays guessed letters typed by the user.
+     * A {@code BoardPanel} painting the letters typed by the user.
      */
-    private ArrayList<JTextField> fields;
+    private BoardPanel cells;
 
     /**
      * A {@code JTextField} holding the instance of {@code JTextField} that displays hint messages.
@@ -119,9 +120,46 @@ public class Game {
     private JFrame helperWindow;
 
     /**
-     * A {@code JTextField} holding the instance of {@code JTextField} that displays helper output.
+     * A {@code JList} holding the instance of {@code JList} that displays matched words of the helper.
+     */
+    private JList<String> helperOutput;
+
+    /**
+     * A {@code HelperListModel} holding the matched words of the helper, which are pulled as the user scrolls.
+     */
+    private HelperListModel helperOutputModel;
+
+    /**
+     * A {@code JTextField} holding the instance of {@code JTextField} that displays the error reason or the number of
+     * matched words of the helper.
+     */
+    private JTextField helperSummary;
+
+    /**
+     * A {@code HelperSearcher} running the searches of the helper window off the Swing event thread.
+     */
+    private HelperSearcher helperSearcher;
+
+    /**
+     * A {@code CandidateSet} holding the words still consistent with every guess of this game.
+     */
+    private CandidateSet candidateSet;
+
+    /**
+     * A {@code JButton} holding the instance of {@code JButton} that shows the candidates in the helper window.
+     */
+    private JButton candidateButton;
+
+    /**
+     * A {@code long} holding the id of this game in {@code GameJournal}, or -1 if this game is not recorded.
+     */
+    private long journalId;
+
+    /**
+     * A boolean holding the status that whether guesses recorded earlier are being confirmed again, which are not
+     * recorded twice.
      */
-    private JTextArea helperOutput;
+    private boolean isReplaying = false;
 
     /**
      * This method launches the game window with settings given.
@@ -131,78 +169,87 @@ public class Game {
      * @param hashtag    a String holding the hashtag of this game.
      */
     public void playGame(String wordSource, String initWord, String hashtag) {
+        GameJournal journal = GameJournal.getInstance();
+        Metrics.getInstance().counter("game.started").increment();
+        playGame(wordSource, initWord, hashtag, journal == null ? -1 : journal.startGame(hashtag), List.of());
+    }
+
+    /**
+     * This method launches the game window of a game recorded by {@code GameJournal} but not finished, and confirms
+     * the guesses recorded again.
+     *
+     * @param wordSource a String describing the specific source type, included in <var>wordSourceOption</var>.
+     * @param initWord   a String holding the word to be guessed, decoded from the hashtag of <var>game</var>.
+     * @param game       a {@code GameJournal.JournalGame} holding the game recorded.
+     */
+    public void resumeGame(String wordSource, String initWord, GameJournal.JournalGame game) {
+        Metrics.getInstance().counter("game.resumed").increment();
+        playGame(wordSource, initWord, game.getHashtag(), game.getGameId(), game.getGuesses());
+    }
+
+    /**
+     * This method launches the game window with settings given, and confirms the guesses given.
+     *
+     * @param wordSource a String describing the specific source type, included in <var>wordSourceOption</var>.
+     * @param initWord   a String holding the word to be guessed.
+     * @param hashtag    a String holding the hashtag of this game.
+     * @param journalId  a {@code long} describing the id of this game in {@code GameJournal}, or -1 if not recorded.
+     * @param guesses    a {@code List} holding the guesses confirmed earlier.
+     */
+    private void playGame(String wordSource, String initWord, String hashtag, long journalId, List<String> guesses) {
         System.out.println("playing Game from word source " + wordSource + " with init word " + initWord + " " +
                 hashtag);
         // Initialize related variables.
         int wordLength = initWord.length();
         currentLine = 0;
         currentWord = "";
-        fields = new ArrayList<>();
         scoreByOrder = new ArrayList<>();
-
-        // Configure window.
-        window = new JFrame("eWordle");
-        window.setFocusable(true);
-        window.setResizable(false);
-        window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        JPanel windowPanel = new JPanel();
-        windowPanel.setPreferredSize(new Dimension(WINDOW_WIDTH, WINDOW_HEIGHT));
-        window.add(windowPanel);
-        window.pack();
-        windowPanel.setFocusable(false);
-        windowPanel.setFocusTraversalKeysEnabled(false);
-        windowPanel.setBackground(new Color(238, 238, 238));
-        windowPanel.setLayout(null);
-
-        //Add hashtag board to the current window panel.
-        JTextField hashtagBoard = Settings.textInit("Hashtag: " + hashtag, "Comic Sans MS",
-                JTextField.CENTER, Font.BOLD, CONTENT_MARGIN, 0, CONTENT_WIDTH, CONTENT_MARGIN, 15,
-                false, false);
-        windowPanel.add(hashtagBoard);
-
-        //Add hashtag board to the current window panel.
-        JTextField wordSourceBoard = Settings.textInit("Current Word Source: " + wordSource,
-                "Comic Sans MS", JTextField.CENTER, Font.BOLD, CONTENT_MARGIN, CONTENT_MARGIN / 2,
-                CONTENT_WIDTH, CONTENT_MARGIN, 15, false, false);
-        wordSourceBoard.setFocusable(false);
-        windowPanel.add(wordSourceBoard);
-
-        // Add message board to the window panel.
-        messageBoard = Settings.textInit("", "Comic Sans MS", JTextField.CENTER, Font.BOLD,
-                CONTENT_MARGIN, CONTENT_MARGIN, CONTENT_WIDTH, CONTENT_HEIGHT, 20, false,
-                false);
-        messageBoard.setForeground(Color.RED);
-        messageBoard.setFocusable(false);
-        windowPanel.add(messageBoard);
-
-        // Add text fields that display letter typed by the user. The number of lines of text fields is wordLength+1
-        final double smallMarginSize = 1.0 * (WINDOW_WIDTH - CONTENT_MARGIN * 2) /
-                ((SIZE_RATIO + 1) * wordLength - 1);
-        final double blockSize = smallMarginSize * SIZE_RATIO;
-        for (int row = 0; row <= wordLength; row++)
-            for (int column = 0; column < wordLength; column++) {
-                int x = (int) (CONTENT_MARGIN + column * smallMarginSize * (SIZE_RATIO + 1));
-                int y = (int) (CONTENT_MARGIN * 2 + CONTENT_HEIGHT + row * smallMarginSize * (SIZE_RATIO + 1));
-                JTextField field = Settings.textInit("", "", JTextField.CENTER, Font.BOLD, x, y,
-                        (int) blockSize, (int) blockSize, 30, true, false);
-                field.setBackground(Color.WHITE);
-                field.setFocusable(false);
-                fields.add(field);
-                windowPanel.add(field);
+        candidateSet = Service.getInstance().createCandidateSet(wordLength, wordSource);
+
+        // Reuse the board of this length, which is only built by the first game of the length.
+        board = GameBoard.getInstance(wordLength);
+        board.reset(hashtag, wordSource, newKeyboardListener(initWord, wordSource), this::createHelperWindow);
+        cells = board.getCells();
+        messageBoard = board.getMessageBoard();
+        board.setVisibleStatus(true);
+
+        // Type and confirm the guesses recorded earlier as the user did.
+        this.journalId = journalId;
+        isReplaying = true;
+        int[] scores = new int[wordLength];
+        for (int replayed = 0; replayed < guesses.size(); replayed++) {
+            String guess = guesses.get(replayed);
+            for (int i = 0; i < wordLength; i++)
+                cells.setLetter(currentLine * wordLength + i, guess.charAt(i));
+            currentWord = guess;
+            if (!confirmGuess(initWord, wordSource, scores)) {
+                // A guess no longer in the word list is dropped with the ones after it, so the board matches the
+                // journal again.
+                for (int i = 0; i < wordLength; i++)
+                    cells.clearLetter(currentLine * wordLength + i);
+                currentWord = "";
+                rewriteJournal(hashtag, guesses.subList(0, replayed));
+                break;
             }
+        }
+        isReplaying = false;
+    }
 
-        // Add helper icon.
-        JButton helper = Settings.initButton("?", WINDOW_WIDTH - CONTENT_MARGIN,
-                WINDOW_HEIGHT - CONTENT_MARGIN, CONTENT_MARGIN, CONTENT_MARGIN, 25,
-                event -> createHelperWindow());
-        helper.setToolTipText("Launch Helper (a \"*\" mark will be displayed in the result)");
-        windowPanel.add(helper);
-
-        window.addKeyListener(newKeyboardListener(initWord, wordSource));
-        hashtagBoard.addKeyListener(newKeyboardListener(initWord, wordSource));
-
-        window.setLocationRelativeTo(null);
-        window.setVisible(true);
+    /**
+     * This method records this game again in {@code GameJournal} with given guesses only, and finishes the game
+     * recorded earlier, as the journal can only be appended to.
+     *
+     * @param hashtag a String holding the hashtag of this game.
+     * @param guesses a {@code List} holding the guesses kept.
+     */
+    private void rewriteJournal(String hashtag, List<String> guesses) {
+        GameJournal journal = GameJournal.getInstance();
+        if (journalId < 0 || journal == null)
+            return;
+        journal.finishGame(journalId);
+        journalId = journal.startGame(hashtag);
+        for (String guess : guesses)
+            journal.recordGuess(journalId, guess);
     }
 
     /**
@@ -237,6 +284,8 @@ public class Game {
      */
     private KeyAdapter newKeyboardListener(String initWord, String wordSource) {
         int wordLength = initWord.length();
+        // Scores of the letters of each guess, decoded from the pattern.
+        int[] scores = new int[wordLength];
         return new KeyAdapter() {
             @Override
             public void keyTyped(KeyEvent e) {
@@ -244,59 +293,12 @@ public class Game {
                 // All possible letters will be converted to uppercase.
                 char c = Character.toUpperCase(e.getKeyChar());
                 // Typed enter.
-                if (c == '\n') {
-                    if (currentWord.length() == wordLength) {
-                        // Word guessed correct.
-                        if (currentWord.equals(initWord)) {
-                            for (int i = 0; i < initWord.length(); i++)
-                                scoreByOrder.add(2);
-                            closeHelperWindow();
-                            Results.getInstance().showResults(initWord, currentLine + 1, true,
-                                    scoreByOrder, isOpenedHelper);
-                            instance = null;
-                            window.dispose();
-                        }
-                        // Word guessed exists in word source of current difficulty level but incorrect.
-                        else if (Service.getInstance().checkExistence(currentWord, wordSource).length() == 0) {
-                            HashSet<Character> charRemainIncorrect = new HashSet<>();
-                            for (int i = 0; i < wordLength; i++)
-                                if (currentWord.charAt(i) == initWord.charAt(i))
-                                    setColor(fields.get(currentLine * wordLength + i), Color.white,
-                                            new Color(121, 167, 107));
-                                else
-                                    charRemainIncorrect.add(initWord.charAt(i));
-                            for (int i = 0; i < wordLength; i++)
-                                if (currentWord.charAt(i) != initWord.charAt(i)) {
-                                    if (charRemainIncorrect.contains(currentWord.charAt(i))) {
-                                        scoreByOrder.add(1);
-                                        setColor(fields.get(currentLine * wordLength + i), Color.white,
-                                                new Color(198, 180, 102));
-                                    } else {
-                                        scoreByOrder.add(0);
-                                        setColor(fields.get(currentLine * wordLength + i), Color.white,
-                                                new Color(121, 124, 126));
-                                    }
-                                } else
-                                    scoreByOrder.add(2);
-                            currentWord = "";
-                            // Maximum guess tries reached.
-                            if (++currentLine > wordLength) {
-                                closeHelperWindow();
-                                Results.getInstance().showResults(initWord, currentLine, false, scoreByOrder,
-                                        isOpenedHelper);
-                                window.dispose();
-                            }
-                        } else
-                            messageBoard.setText("Not in word list");
-                    } else
-                        messageBoard.setText("Not enough length");
-                }
+                if (c == '\n')
+                    confirmGuess(initWord, wordSource, scores);
                 // Typed letters.
                 else if ('A' <= c && c <= 'Z') {
                     if (currentWord.length() < wordLength) {
-                        JTextField field = fields.get(currentLine * wordLength + currentWord.length());
-                        setColor(field, Color.black, Color.white);
-                        field.setText("" + c);
+                        cells.setLetter(currentLine * wordLength + currentWord.length(), c);
                         currentWord += c;
                     } else
                         messageBoard.setText("Time to click enter to confirm");
@@ -304,9 +306,7 @@ public class Game {
                 // Typed backspace.
                 else if (c == '\b') {
                     if (currentWord.length() > 0) {
-                        JTextField field = fields.get(currentLine * wordLength + currentWord.length() - 1);
-                        field.setText("");
-                        setColor(field, Color.black, Color.white);
+                        cells.clearLetter(currentLine * wordLength + currentWord.length() - 1);
                         currentWord = currentWord.substring(0, currentWord.length() - 1);
                     } else
                         messageBoard.setText("No more letters to delete");
@@ -318,6 +318,88 @@ public class Game {
         };
     }
 
+    /**
+     * This method confirms the word in the current line, which colors it and ends the game if it is the answer or the
+     * last try, and records it in {@code GameJournal}.
+     *
+     * @param initWord   a String holding the word to be guessed.
+     * @param wordSource a String describing the specific source type, included in <var>wordSourceOption</var>.
+     * @param scores     an int array receiving the scores of the letters of the guess.
+     * @return a boolean describing whether the guess is confirmed, or {@code false} if it is left typed.
+     */
+    private boolean confirmGuess(String initWord, String wordSource, int[] scores) {
+        int wordLength = initWord.length();
+        if (currentWord.length() == wordLength) {
+            // Word guessed correct.
+            if (currentWord.equals(initWord)) {
+                for (int i = 0; i < initWord.length(); i++)
+                    scoreByOrder.add(2);
+                recordGuess(currentWord, true);
+                recordResult(true, currentLine + 1);
+                closeHelperWindow();
+                Results.getInstance().showResults(initWord, currentLine + 1, true, scoreByOrder, isOpenedHelper);
+                instance = null;
+                board.setVisibleStatus(false);
+                return true;
+            }
+            // Word guessed exists in word source of current difficulty level but incorrect.
+            else if (Service.getInstance().checkExistence(candidateSet.getWordStore(), currentWord, wordSource)
+                    .length() == 0) {
+                int pattern = FeedbackKernel.score(currentWord, initWord);
+                FeedbackKernel.decode(pattern, wordLength, scores);
+                for (int i = 0; i < wordLength; i++) {
+                    scoreByOrder.add(scores[i]);
+                    cells.setScore(currentLine * wordLength + i, scores[i]);
+                }
+                // Narrow the candidates with the same pattern.
+                candidateSet.narrow(currentWord, pattern);
+                if (candidateButton != null)
+                    candidateButton.setText("Candidates: " + candidateSet.getCount());
+                recordGuess(currentWord, currentLine + 1 > wordLength);
+                currentWord = "";
+                // Maximum guess tries reached.
+                if (++currentLine > wordLength) {
+                    recordResult(false, currentLine);
+                    closeHelperWindow();
+                    Results.getInstance().showResults(initWord, currentLine, false, scoreByOrder, isOpenedHelper);
+                    board.setVisibleStatus(false);
+                }
+                return true;
+            } else
+                messageBoard.setText("Not in word list");
+        } else
+            messageBoard.setText("Not enough length");
+        return false;
+    }
+
+    /**
+     * This method records a confirmed guess in {@code GameJournal}, unless it is being confirmed again or this game is
+     * not recorded.
+     *
+     * @param guess      a String holding the guess confirmed.
+     * @param isFinished a boolean describing whether this game ends with the guess.
+     */
+    private void recordGuess(String guess, boolean isFinished) {
+        GameJournal journal = GameJournal.getInstance();
+        if (isReplaying || journalId < 0 || journal == null)
+            return;
+        journal.recordGuess(journalId, guess);
+        if (isFinished)
+            journal.finishGame(journalId);
+    }
+
+    /**
+     * This method counts a finished game and its tries in {@code Metrics}.
+     *
+     * @param isSuccess a boolean describing whether the word is guessed.
+     * @param tries     an int describing the number of guesses confirmed.
+     */
+    private void recordResult(boolean isSuccess, int tries) {
+        Metrics metrics = Metrics.getInstance();
+        metrics.counter(isSuccess ? "game.won" : "game.lost").increment();
+        metrics.histogram("game.guesses").record(tries);
+    }
+
     /**
      * This method closes the helper window if exists.
      */
@@ -343,18 +425,34 @@ public class Game {
         helperWindow.setFocusable(true);
         helperWindowPanel.setFocusable(false);
         helperWindowPanel.setFocusTraversalKeysEnabled(false);
-        helperWindowPanel.setBackground(new Color(238, 238, 238));
+        helperWindowPanel.setBackground(Settings.BACKGROUND_COLOR);
         helperWindowPanel.setLayout(null);
         helperWindow.setResizable(false);
         helperWindow.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosed(java.awt.event.WindowEvent windowEvent) {
+                helperSearcher.close();
                 helperWindow = null;
+                candidateButton = null;
             }
         });
         helperWindow.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        helperOutput = new JTextArea();
+        helperOutputModel = new HelperListModel();
+        helperOutput = new JList<>(helperOutputModel);
         JScrollPane scrollPane = new JScrollPane(helperOutput);
+        helperSearcher = new HelperSearcher(candidateSet.getWordStore(), (result, isFirst, isComplete) -> {
+            if (result.getErrorMessage().length() > 0)
+                helperSummary.setText(result.getErrorMessage());
+            else if (isComplete)
+                helperSummary.setText(result.getSummary());
+            else
+                helperSummary.setText("Searching... " + result.getCount() + " result(s) so far");
+            if (isFirst) {
+                helperOutputModel.setResult(result);
+                helperOutput.ensureIndexIsVisible(0);
+            } else
+                helperOutputModel.extendResult(result);
+        });
 
         // Add word source board to the helper window.
         int currentHelperHeight = 0;
@@ -371,29 +469,89 @@ public class Game {
                 currentHelperHeight, CONTENT_WIDTH, CONTENT_MARGIN, 20, true, true);
         helperWindowPanel.add(inputBoard);
 
+        // Add search-as-you-type switch, which searches the latest input once typing pauses.
+        currentHelperHeight += CONTENT_MARGIN;
+        JCheckBox liveSearchBox = new JCheckBox("Search as you type");
+        liveSearchBox.setBounds(CONTENT_MARGIN, currentHelperHeight, CONTENT_WIDTH / 2, CONTENT_MARGIN);
+        liveSearchBox.setOpaque(false);
+        liveSearchBox.setFocusable(false);
+        liveSearchBox.addActionListener(event -> {
+            if (liveSearchBox.isSelected())
+                helperSearcher.searchLater(inputBoard.getText());
+        });
+        inputBoard.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent documentEvent) {
+                changedUpdate(documentEvent);
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent documentEvent) {
+                changedUpdate(documentEvent);
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent documentEvent) {
+                if (liveSearchBox.isSelected())
+                    helperSearcher.searchLater(inputBoard.getText());
+            }
+        });
+        helperWindowPanel.add(liveSearchBox);
+
+        // Add candidate button, which shows the words still consistent with every guess without searching.
+        candidateButton = Settings.initButton("Candidates: " + candidateSet.getCount(),
+                CONTENT_MARGIN + CONTENT_WIDTH / 2, currentHelperHeight, CONTENT_WIDTH / 2, CONTENT_MARGIN, 15,
+                event -> helperSearcher.show(candidateSet.toResult()));
+        candidateButton.setToolTipText("Show words matching the colors of every guess so far");
+        helperWindowPanel.add(candidateButton);
+
         // Add search button.
-        currentHelperHeight += CONTENT_MARGIN + CONTENT_MARGIN;
+        currentHelperHeight += CONTENT_MARGIN;
         JButton helperButton = Settings.initButton("Search", CONTENT_MARGIN,
-                currentHelperHeight, CONTENT_WIDTH, CONTENT_MARGIN, 20,
-                event -> {
-                    // Handle search.
-                    String[] response = Service.getInstance().validateHelperInput(inputBoard.getText()).
-                            split("\\$");
-                    if (response[0].length() == 0)
-                        helperOutput.setText(response[1]);
-                    else
-                        helperOutput.setText(response[0]);
-                    helperOutput.setCaretPosition(0);
-                });
+                currentHelperHeight, CONTENT_WIDTH / 2, CONTENT_MARGIN, 20,
+                // Handle search in the background.
+                event -> helperSearcher.search(inputBoard.getText()));
         helperButton.setToolTipText(
                 "Search candidates in current word source. GUESS Sample: *****(ESS*), G*E**(SU), *****(ESS*)[AB]");
         helperWindowPanel.add(helperButton);
 
-        // Add helper output text field.
-        currentHelperHeight += CONTENT_MARGIN * 2;
+        // Add solver button, which ranks guesses by the information they reveal about the candidates.
+        JButton solverButton = Settings.initButton("Best Guesses", CONTENT_MARGIN + CONTENT_WIDTH / 2,
+                currentHelperHeight, CONTENT_WIDTH / 2, CONTENT_MARGIN, 20,
+                event -> {
+                    // Candidates are copied here, as they are narrowed on the Swing event thread.
+                    final int[] candidateRanks = candidateSet.getRanks();
+                    final WordStore wordStore = candidateSet.getWordStore();
+                    final int wordLength = Settings.getInitWord().length();
+                    final String wordSource = Settings.getWordSource();
+                    helperSummary.setText("Ranking guesses...");
+                    helperSearcher.submit((partialResults, isCancelled) -> {
+                        Solver.RankedGuess[] rankedGuesses = Service.getInstance().rankGuesses(wordStore,
+                                wordLength, wordSource, candidateRanks, RANKED_GUESSES, isCancelled);
+                        if (rankedGuesses == null)
+                            return null;
+                        String[] lines = new String[rankedGuesses.length];
+                        for (int i = 0; i < lines.length; i++)
+                            lines[i] = String.format("%s  %.3f bits%s", rankedGuesses[i].getWord(),
+                                    rankedGuesses[i].getEntropy(), rankedGuesses[i].isCandidate() ? "  *" : "");
+                        return new HelperResult("Top " + lines.length + " guess(es), * for candidates:", lines);
+                    });
+                });
+        solverButton.setToolTipText("Rank guesses by expected information over the candidates left");
+        helperWindowPanel.add(solverButton);
+
+        // Add helper summary board.
+        currentHelperHeight += CONTENT_MARGIN;
+        helperSummary = Settings.textInit("", "Comic Sans MS", JTextField.CENTER, Font.PLAIN, CONTENT_MARGIN,
+                currentHelperHeight, CONTENT_WIDTH, CONTENT_MARGIN, 15, false, false);
+        helperSummary.setFocusable(false);
+        helperWindowPanel.add(helperSummary);
+
+        // Add helper output list, where a prototype value fixes the cell size so that only visible rows are fetched.
+        currentHelperHeight += CONTENT_MARGIN;
         final int helperOutputHeight =
                 helperWindowHeight - CONTENT_MARGIN - currentHelperHeight;
-        helperOutput.setEditable(false);
+        helperOutput.setPrototypeCellValue("WWWWWWWWWW");
         helperOutput.setOpaque(true);
         scrollPane.setBorder(null);
         scrollPane.setBounds(CONTENT_MARGIN, currentHelperHeight, CONTENT_WIDTH, helperOutputHeight);
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.util.HashMap;
+
+/**
+ * The {@code GameBoard} class holds the game window of one word length, which is built on first use and reset for
+ * every later game of the same length instead of being built again.
+ *
+ * <p>
+ * Key strokes and clicks on the helper icon are forwarded to the handlers given by the current game, so that a board
+ * outlives the {@code Game} instances played on it. Boards are only accessed from the Swing event thread.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class GameBoard {
+    /**
+     * A static constant holding the width of current window.
+     */
+    private static final int WINDOW_WIDTH = 600;
+
+    /**
+     * A static constant holding the height of current window.
+     */
+    private static final int WINDOW_HEIGHT = 850;
+
+    /**
+     * A static constant holding the width of each content box.
+     */
+    private static final int CONTENT_WIDTH = 500;
+
+    /**
+     * A static constant holding the height of each content box.
+     */
+    private static final int CONTENT_HEIGHT = 100;
+
+    /**
+     * A static constant holding the interval size of contents of current window.
+     */
+    private static final int CONTENT_MARGIN = 50;
+
+    /**
+     * A static HashMap holding the board of each word length built so far.
+     */
+    private static final HashMap<Integer, GameBoard> boardByLength = new HashMap<>();
+
+    /**
+     * A {@code JFrame} holding the instance of current window.
+     */
+    private final JFrame window;
+
+    /**
+     * A {@code JTextField} holding the instance of {@code JTextField} that displays the hashtag.
+     */
+    private final JTextField hashtagBoard;
+
+    /**
+     * A {@code JTextField} holding the instance of {@code JTextField} that displays the word source.
+     */
+    private final JTextField wordSourceBoard;
+
+    /**
+     * A {@code JTextField} holding the instance of {@code JTextField} that displays hint messages.
+     */
+    private final JTextField messageBoard;
+
+    /**
+     * A {@code BoardPanel} painting the letters typed by the user.
+     */
+    private final BoardPanel cells;
+
+    /**
+     * A {@code KeyAdapter} processing the keyboard inputs of the current game.
+     */
+    private KeyAdapter keyboardListener;
+
+    /**
+     * A {@code Runnable} launching the helper window of the current game.
+     */
+    private Runnable helperLauncher;
+
+    /**
+     * This static method returns the board of given word length, which is built if absent.
+     *
+     * @param wordLength an int describing the length of words to be guessed.
+     * @return a {@code GameBoard} of <var>wordLength</var>.
+     */
+    public static GameBoard getInstance(int wordLength) {
+        return boardByLength.computeIfAbsent(wordLength, GameBoard::new);
+    }
+
+    /**
+     * The only constructor for class {@code GameBoard}, which builds the window with (wordLength+1) lines of
+     * wordLength cells.
+     *
+     * @param wordLength an int describing the length of words to be guessed.
+     */
+    private GameBoard(int wordLength) {
+        // Configure window.
+        window = new JFrame("eWordle");
+        window.setFocusable(true);
+        window.setResizable(false);
+        window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        JPanel windowPanel = new JPanel();
+        windowPanel.setPreferredSize(new Dimension(WINDOW_WIDTH, WINDOW_HEIGHT));
+        window.add(windowPanel);
+        window.pack();
+        windowPanel.setFocusable(false);
+        windowPanel.setFocusTraversalKeysEnabled(false);
+        windowPanel.setBackground(Settings.BACKGROUND_COLOR);
+        windowPanel.setLayout(null);
+
+        //Add hashtag board to the current window panel.
+        hashtagBoard = Settings.textInit("", "Comic Sans MS", JTextField.CENTER, Font.BOLD, CONTENT_MARGIN, 0,
+                CONTENT_WIDTH, CONTENT_MARGIN, 15, false, false);
+        windowPanel.add(hashtagBoard);
+
+        //Add word source board to the current window panel.
+        wordSourceBoard = Settings.textInit("", "Comic Sans MS", JTextField.CENTER, Font.BOLD, CONTENT_MARGIN,
+                CONTENT_MARGIN / 2, CONTENT_WIDTH, CONTENT_MARGIN, 15, false, false);
+        wordSourceBoard.setFocusable(false);
+        windowPanel.add(wordSourceBoard);
+
+        // Add message board to the window panel.
+        messageBoard = Settings.textInit("", "Comic Sans MS", JTextField.CENTER, Font.BOLD,
+                CONTENT_MARGIN, CONTENT_MARGIN, CONTENT_WIDTH, CONTENT_HEIGHT, 20, false,
+                false);
+        messageBoard.setForeground(Color.RED);
+        messageBoard.setFocusable(false);
+        windowPanel.add(messageBoard);
+
+        // Add the cells that display letters typed by the user. The number of lines of cells is wordLength+1
+        cells = new BoardPanel(wordLength, WINDOW_WIDTH - CONTENT_MARGIN * 2);
+        cells.setBounds(CONTENT_MARGIN, CONTENT_MARGIN * 2 + CONTENT_HEIGHT, cells.getPreferredSize().width,
+                cells.getPreferredSize().height);
+        windowPanel.add(cells);
+
+        // Add helper icon.
+        JButton helper = Settings.initButton("?", WINDOW_WIDTH - CONTENT_MARGIN,
+                WINDOW_HEIGHT - CONTENT_MARGIN, CONTENT_MARGIN, CONTENT_MARGIN, 25,
+                event -> helperLauncher.run());
+        helper.setToolTipText("Launch Helper (a \"*\" mark will be displayed in the result)");
+        windowPanel.add(helper);
+
+        // Both the window and the hashtag board may hold the focus.
+        KeyAdapter forwarder = new KeyAdapter() {
+            @Override
+            public void keyTyped(KeyEvent e) {
+                keyboardListener.keyTyped(e);
+            }
+        };
+        window.addKeyListener(forwarder);
+        hashtagBoard.addKeyListener(forwarder);
+    }
+
+    /**
+     * This method clears the board for a new game and hands it to the handlers of the game.
+     *
+     * @param hashtag          a String holding the hashtag of the game.
+     * @param wordSource       a String describing the word source of the game.
+     * @param keyboardListener a {@code KeyAdapter} processing the keyboard inputs of the game.
+     * @param helperLauncher   a {@code Runnable} launching the helper window of the game.
+     */
+    public void reset(String hashtag, String wordSource, KeyAdapter keyboardListener, Runnable helperLauncher) {
+        this.keyboardListener = keyboardListener;
+        this.helperLauncher = helperLauncher;
+        hashtagBoard.setText("Hashtag: " + hashtag);
+        wordSourceBoard.setText("Current Word Source: " + wordSource);
+        messageBoard.setText("");
+        cells.clear();
+    }
+
+    /**
+     * This method sets the window to the center and makes it change its visible status. A hidden board keeps its
+     * components, so that it is shown again at once.
+     *
+     * @param status a boolean describing the intended visible status of the window.
+     */
+    public void setVisibleStatus(boolean status) {
+        if (status)
+            window.setLocationRelativeTo(null);
+        window.setVisible(status);
+    }
+
+    /**
+     * Returns the cells that display guessed letters.
+     *
+     * @return a {@code BoardPanel} holding (wordLength+1) lines of wordLength cells.
+     */
+    public BoardPanel getCells() {
+        return cells;
+    }
+
+    /**
+     * Returns the text field that displays hint messages.
+     *
+     * @return a {@code JTextField} displaying hint messages.
+     */
+    public JTextField getMessageBoard() {
+        return messageBoard;
+    }
+}
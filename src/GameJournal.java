@@ -0,0 +1,556 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code GameJournal} class records games in progress in an append-only file, so that a game interrupted by the
+ * JVM dying can be resumed with every guess confirmed so far.
+ *
+ * <p>
+ * The file holds a header followed by records of {@link GameJournal#RECORD_SIZE} bytes, each starting with a CRC32
+ * checksum of the rest, so a record torn by a crash is detected and dropped on replay. A game is recorded by its
+ * start, holding the hashtag as the {@code long} it encodes, by each confirmed guess, holding the code of the word,
+ * and by its finish.
+ *
+ * <p>
+ * Records are queued by the caller and written by a single thread, which writes every record queued meanwhile at once
+ * and forces them to disk with one fsync, so a keystroke only pays for queueing. The same thread keeps the games not
+ * finished, and rewrites the file with only their records once it grows beyond twice their size. As at most
+ * {@link GameJournal#MAX_UNFINISHED_GAMES} games are kept, the file and its replay stay bounded however many games
+ * have been played.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class GameJournal {
+    /**
+     * A static variable storing the only one instance instantiated.
+     */
+    private static GameJournal instance;
+
+    /**
+     * A static constant holding the magic number at the start of a journal.
+     */
+    private static final int MAGIC = 0x45574A4E;
+
+    /**
+     * A static constant holding the format version, which should be increased whenever the layout changes.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * A static constant holding the size of the header in bytes, which is the magic number and the version.
+     */
+    private static final int HEADER_SIZE = 4 * 2;
+
+    /**
+     * A static constant holding the size of a record in bytes, which is the checksum, the type padded to 4 bytes,
+     * the id of the game and the value.
+     */
+    private static final int RECORD_SIZE = 4 + 4 + 8 + 8;
+
+    /**
+     * A static constant holding the type of a record starting a game, whose value is its hashtag.
+     */
+    private static final int START = 1;
+
+    /**
+     * A static constant holding the type of a record confirming a guess, whose value is the code of the word.
+     */
+    private static final int GUESS = 2;
+
+    /**
+     * A static constant holding the type of a record finishing a game.
+     */
+    private static final int FINISH = 3;
+
+    /**
+     * A static constant holding the size below which the journal is never compacted.
+     */
+    private static final long COMPACT_MIN_BYTES = 1 << 20;
+
+    /**
+     * A static constant holding the number of games not finished kept, beyond which the oldest are dropped.
+     */
+    private static final int MAX_UNFINISHED_GAMES = 1024;
+
+    /**
+     * A {@code File} holding the journal.
+     */
+    private final File journalFile;
+
+    /**
+     * A {@code FileChannel} appending to the journal, which is only used by the writer thread once opened.
+     */
+    private FileChannel channel;
+
+    /**
+     * A {@code LinkedHashMap} holding the games not finished by their ids in the order started, which is only used
+     * by the writer thread once opened.
+     */
+    private final LinkedHashMap<Long, JournalGame> unfinishedGames = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, JournalGame> eldest) {
+            if (size() <= MAX_UNFINISHED_GAMES)
+                return false;
+            unfinishedRecords -= 1 + eldest.getValue().guessCount;
+            return true;
+        }
+    };
+
+    /**
+     * An int holding the number of records of the games not finished.
+     */
+    private int unfinishedRecords;
+
+    /**
+     * A {@code List} holding the games not finished when the journal was opened.
+     */
+    private final List<JournalGame> replayedGames;
+
+    /**
+     * An {@code AtomicLong} holding the id of the next game.
+     */
+    private final AtomicLong nextGameId;
+
+    /**
+     * A {@code LinkedBlockingQueue} holding the records waiting to be written, each as its type, game id and value.
+     */
+    private final LinkedBlockingQueue<long[]> pendingRecords = new LinkedBlockingQueue<>();
+
+    /**
+     * A {@code long} holding the number of records queued, guarded by <var>pendingRecords</var>.
+     */
+    private long queuedCount;
+
+    /**
+     * A {@code long} holding the number of records forced to disk, guarded by <var>pendingRecords</var>.
+     */
+    private long durableCount;
+
+    /**
+     * A {@code Thread} writing the records.
+     */
+    private final Thread writer;
+
+    /**
+     * The {@code JournalGame} class holds a game not finished, as recorded by the journal.
+     */
+    public static class JournalGame {
+        /**
+         * A {@code long} holding the id of the game in the journal.
+         */
+        private final long gameId;
+
+        /**
+         * A {@code long} holding the number encoded by the hashtag of the game.
+         */
+        private final long hashtagValue;
+
+        /**
+         * A {@code long} array whose leading <var>guessCount</var> elements are the codes of the guesses.
+         */
+        private long[] guessCodes = new long[8];
+
+        /**
+         * An int holding the number of guesses.
+         */
+        private int guessCount;
+
+        /**
+         * The only constructor for class {@code JournalGame}.
+         *
+         * @param gameId       a {@code long} describing the id of the game.
+         * @param hashtagValue a {@code long} describing the number encoded by the hashtag.
+         */
+        private JournalGame(long gameId, long hashtagValue) {
+            this.gameId = gameId;
+            this.hashtagValue = hashtagValue;
+        }
+
+        /**
+         * This method appends a guess.
+         *
+         * @param code a {@code long} holding the code of the guess.
+         */
+        private void addGuess(long code) {
+            if (guessCount == guessCodes.length)
+                guessCodes = Arrays.copyOf(guessCodes, guessCount * 2);
+            guessCodes[guessCount++] = code;
+        }
+
+        /**
+         * Returns the id of the game in the journal, which keeps being used by the game once resumed.
+         *
+         * @return a {@code long} describing the id.
+         */
+        public long getGameId() {
+            return gameId;
+        }
+
+        /**
+         * Returns the hashtag of the game.
+         *
+         * @return a String holding the hashtag.
+         */
+        public String getHashtag() {
+            return toHashtag(hashtagValue);
+        }
+
+        /**
+         * Returns the guesses confirmed, in the order typed.
+         *
+         * @return a {@code List} holding the uppercase guesses.
+         */
+        public List<String> getGuesses() {
+            // The word length is the lowest base-29 digit of the hashtag, as written by Settings#hashtagEncoder.
+            int wordLength = (int) (hashtagValue % 29);
+            List<String> guesses = new ArrayList<>();
+            for (int i = 0; i < guessCount; i++)
+                guesses.add(WordStore.decode(guessCodes[i], wordLength));
+            return guesses;
+        }
+    }
+
+    /**
+     * The constructor for class {@code GameJournal}, which replays a journal and starts the writer thread.
+     *
+     * @param journalFile a {@code File} holding the journal, which is created if missing.
+     * @throws IOException if the journal cannot be read or written.
+     */
+    public GameJournal(File journalFile) throws IOException {
+        this.journalFile = journalFile;
+        channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long maxGameId = replay();
+        replayedGames = new ArrayList<>(unfinishedGames.values());
+        nextGameId = new AtomicLong(maxGameId + 1);
+        if (isCompactable())
+            compact();
+        writer = new Thread(this::write, "eWordle journal writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    /**
+     * Returns an instance of current class opened on the journal next to the word sources, where only one copy of
+     * instance will exist.
+     *
+     * @return an instance of current class, or {@code null} if the journal cannot be opened, in which case games are
+     * played without being recorded.
+     */
+    public static synchronized GameJournal getInstance() {
+        if (instance == null)
+            try {
+                instance = new GameJournal(new File(Service.locateWordSource("Trimmed.csv").getParentFile(),
+                        "eWordle.journal"));
+            } catch (IOException e) {
+                System.out.println("Unable to open game journal: " + e);
+            }
+        return instance;
+    }
+
+    /**
+     * Returns the games not finished when the journal was opened, in the order started.
+     *
+     * @return a {@code List} holding the games.
+     */
+    public List<JournalGame> getUnfinishedGames() {
+        return replayedGames;
+    }
+
+    /**
+     * Returns the id of a new game, whose start is queued to be recorded.
+     *
+     * @param hashtag a String holding the hashtag of the game.
+     * @return a {@code long} describing the id of the game.
+     */
+    public long startGame(String hashtag) {
+        long gameId = nextGameId.getAndIncrement();
+        append(START, gameId, Long.parseLong(hashtag.substring(1), 36));
+        return gameId;
+    }
+
+    /**
+     * This method queues a confirmed guess to be recorded.
+     *
+     * @param gameId a {@code long} describing the id of the game.
+     * @param word   an uppercase String holding the guess.
+     */
+    public void recordGuess(long gameId, String word) {
+        append(GUESS, gameId, WordStore.encode(word));
+    }
+
+    /**
+     * This method queues the finish of a game to be recorded, after which it is no longer offered to be resumed.
+     *
+     * @param gameId a {@code long} describing the id of the game.
+     */
+    public void finishGame(long gameId) {
+        append(FINISH, gameId, 0);
+    }
+
+    /**
+     * This method waits until every record queued so far has been forced to disk.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void flush() throws InterruptedException {
+        synchronized (pendingRecords) {
+            long target = queuedCount;
+            while (durableCount < target && writer.isAlive())
+                pendingRecords.wait();
+        }
+    }
+
+    /**
+     * This method writes every record queued so far and stops the writer thread.
+     */
+    public void close() {
+        if (!writer.isAlive())
+            return;
+        append(0, 0, 0);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * This method queues a record to be written.
+     *
+     * @param type   an int describing the type of the record, or 0 to stop the writer thread.
+     * @param gameId a {@code long} describing the id of the game.
+     * @param value  a {@code long} describing the value of the record.
+     */
+    private void append(int type, long gameId, long value) {
+        synchronized (pendingRecords) {
+            queuedCount++;
+            pendingRecords.add(new long[]{type, gameId, value});
+        }
+    }
+
+    /**
+     * This method runs the writer thread, which writes the records queued in batches, one fsync per batch.
+     */
+    private void write() {
+        List<long[]> batch = new ArrayList<>();
+        boolean isClosed = false;
+        boolean isFailed = false;
+        while (!isClosed) {
+            try {
+                batch.add(pendingRecords.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            pendingRecords.drainTo(batch);
+            ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (long[] record : batch)
+                if (record[0] == 0)
+                    isClosed = true;
+                else {
+                    putRecord(buffer, (int) record[0], record[1], record[2]);
+                    apply((int) record[0], record[1], record[2]);
+                }
+            buffer.flip();
+            if (!isFailed)
+                try {
+                    channel.write(buffer, channel.size());
+                    channel.force(false);
+                    if (isCompactable())
+                        compact();
+                } catch (IOException e) {
+                    // Games go on without being recorded rather than failing.
+                    System.out.println("Unable to write game journal: " + e);
+                    isFailed = true;
+                }
+            synchronized (pendingRecords) {
+                durableCount += batch.size();
+                pendingRecords.notifyAll();
+            }
+            batch.clear();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Unable to close game journal: " + e);
+        }
+    }
+
+    /**
+     * This method reads the journal into the games not finished, and truncates a torn record at the end.
+     *
+     * @return a {@code long} describing the greatest id of any game recorded, or 0 if none.
+     * @throws IOException if the journal cannot be read or written.
+     */
+    private long replay() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            // A journal missing or of another version holds nothing to be resumed.
+            channel.truncate(0);
+            header.clear();
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            channel.write(header, 0);
+            channel.force(false);
+            return 0;
+        }
+        long maxGameId = 0;
+        long position = HEADER_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+        read:
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < RECORD_SIZE)
+                break;
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_SIZE) {
+                int checksum = buffer.getInt();
+                crc.reset();
+                crc.update(buffer.slice(buffer.position(), RECORD_SIZE - 4));
+                if ((int) crc.getValue() != checksum)
+                    break read;
+                int type = buffer.getInt();
+                long gameId = buffer.getLong();
+                long value = buffer.getLong();
+                apply(type, gameId, value);
+                maxGameId = Math.max(maxGameId, gameId);
+                position += RECORD_SIZE;
+            }
+        }
+        if (position < channel.size())
+            channel.truncate(position);
+        return maxGameId;
+    }
+
+    /**
+     * This method applies a record to the games not finished.
+     *
+     * @param type   an int describing the type of the record.
+     * @param gameId a {@code long} describing the id of the game.
+     * @param value  a {@code long} describing the value of the record.
+     */
+    private void apply(int type, long gameId, long value) {
+        if (type == START) {
+            unfinishedGames.put(gameId, new JournalGame(gameId, value));
+            unfinishedRecords++;
+            return;
+        }
+        JournalGame game = unfinishedGames.get(gameId);
+        if (game == null)
+            return;
+        if (type == GUESS) {
+            game.addGuess(value);
+            unfinishedRecords++;
+        } else if (type == FINISH) {
+            unfinishedGames.remove(gameId);
+            unfinishedRecords -= 1 + game.guessCount;
+        }
+    }
+
+    /**
+     * Returns whether the journal has grown enough beyond the records of the games not finished to be compacted.
+     *
+     * @return a boolean describing whether the journal should be compacted.
+     * @throws IOException if the size of the journal cannot be read.
+     */
+    private boolean isCompactable() throws IOException {
+        long size = channel.size();
+        return size > COMPACT_MIN_BYTES && size > 2 * (HEADER_SIZE + (long) unfinishedRecords * RECORD_SIZE);
+    }
+
+    /**
+     * This method rewrites the journal with only the records of the games not finished. The new journal is written
+     * to a temporary file first, so that a crash meanwhile leaves the old one intact.
+     *
+     * @throws IOException if the journal cannot be written.
+     */
+    private void compact() throws IOException {
+        File temporaryFile = new File(journalFile.getPath() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + unfinishedRecords * RECORD_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        for (JournalGame game : unfinishedGames.values()) {
+            putRecord(buffer, START, game.gameId, game.hashtagValue);
+            for (int i = 0; i < game.guessCount; i++)
+                putRecord(buffer, GUESS, game.gameId, game.guessCodes[i]);
+        }
+        buffer.flip();
+        try (FileChannel temporaryChannel = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining())
+                temporaryChannel.write(buffer);
+            temporaryChannel.force(false);
+        }
+        channel.close();
+        Files.move(temporaryFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * This static method writes a record with its checksum.
+     *
+     * @param buffer a {@code ByteBuffer} in little-endian order receiving the record.
+     * @param type   an int describing the type of the record.
+     * @param gameId a {@code long} describing the id of the game.
+     * @param value  a {@code long} describing the value of the record.
+     */
+    private static void putRecord(ByteBuffer buffer, int type, long gameId, long value) {
+        int start = buffer.position();
+        buffer.putInt(0).putInt(type).putLong(gameId).putLong(value);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start + 4, RECORD_SIZE - 4));
+        buffer.putInt(start, (int) crc.getValue());
+    }
+
+    /**
+     * This static method returns the hashtag encoding a number, as written by {@code Settings}.
+     *
+     * @param hashtagValue a {@code long} describing the number encoded.
+     * @return a String holding the hashtag.
+     */
+    private static String toHashtag(long hashtagValue) {
+        return "#" + Long.toString(hashtagValue, 36).toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,543 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The {@code GameServer} class serves games over HTTP without any window, so that many users share one JVM and one
+ * {@code Service}.
+ *
+ * <p>
+ * Every endpoint answers a JSON object, and takes its parameters from the query string or a form body:
+ * <ul>
+ * <li>{@code POST /games} creates a game from <var>hashtag</var>, <var>word</var>, or a random word of
+ * <var>length</var> and <var>source</var>, like the Start button of {@code Settings}.</li>
+ * <li>{@code GET /games/{id}} returns the state of a game.</li>
+ * <li>{@code POST /games/{id}/guesses} scores <var>word</var> like the Enter key of {@code Game}.</li>
+ * <li>{@code GET /games/{id}/helper} searches <var>query</var> in the words of the game, from <var>from</var> to
+ * <var>to</var>, and marks the game as helped.</li>
+ * <li>{@code GET /games/{id}/share} returns the text of {@link Results#getShareText} once the game is over.</li>
+ * </ul>
+ *
+ * <p>
+ * Requests are handled by virtual threads when the running JDK provides them, and by a cached thread pool otherwise,
+ * so blocking on a word source being loaded never holds a platform thread per request. Games are packed by a
+ * {@code SessionStore}, which evicts games idle for {@link GameServer#SESSION_TTL_SECONDS} seconds.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class GameServer {
+    /**
+     * A static constant holding the port listened to by default.
+     */
+    private static final int DEFAULT_PORT = 8080;
+
+    /**
+     * A static constant holding the number of pending connections queued by the socket.
+     */
+    private static final int BACKLOG = 1024;
+
+    /**
+     * A static constant holding the number of words returned by a helper request by default.
+     */
+    private static final int HELPER_PAGE_SIZE = 100;
+
+    /**
+     * A static constant holding the greatest number of games held at the same time.
+     */
+    private static final int MAX_SESSIONS = 1 << 22;
+
+    /**
+     * A static constant holding the idle time after which a game is evicted, in seconds.
+     */
+    private static final long SESSION_TTL_SECONDS = 60 * 60;
+
+    /**
+     * A {@code Service} shared by every game.
+     */
+    private final Service service;
+
+    /**
+     * An {@code HttpServer} accepting the requests.
+     */
+    private final HttpServer server;
+
+    /**
+     * An {@code ExecutorService} running the handlers.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * A {@code SessionStore} holding the games.
+     */
+    private final SessionStore sessions = new SessionStore(MAX_SESSIONS, SESSION_TTL_SECONDS);
+
+    /**
+     * The only constructor for class {@code GameServer}, which binds the port without accepting requests yet.
+     *
+     * @param service a {@code Service} whose word sources have been initialized.
+     * @param port    an int describing the port to listen to, or 0 for any free one.
+     * @throws IOException if the port cannot be bound.
+     */
+    public GameServer(Service service, int port) throws IOException {
+        this.service = service;
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = createExecutor();
+        server.setExecutor(executor);
+        server.createContext("/games", this::handle);
+        Metrics.getInstance().registerGauge("server.sessions", sessions::getCount);
+        Metrics.getInstance().registerGauge("server.sessionBytes", sessions::getMemoryBytes);
+        // Games ranked in the store about to be dropped cannot be decoded any more.
+        service.addReloadListener(sessions::evictGenerationsBefore);
+    }
+
+    /**
+     * This method starts a server from the command line, whose only argument is the port, 8080 by default.
+     *
+     * @param args a String array holding the arguments.
+     * @throws IOException if the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String initResult = Service.getInstance().initService(eWordle.wordSources, eWordle.wordLengths);
+        if (initResult.length() > 0) {
+            System.out.println("Error while initialization:" + initResult);
+            return;
+        }
+        // Hashtags are encoded against the word source options.
+        Settings.configSelection(eWordle.wordSources[eWordle.wordSources.length - 1], "", eWordle.wordSources);
+        // Sessions only need lookups by word and by rank, which the compact store serves without loading blocks.
+        Service.getInstance().compactWordStore();
+        GameServer gameServer = new GameServer(Service.getInstance(), port);
+        Service.getInstance().watchWordSources();
+        gameServer.start();
+        System.out.println("Serving games on port " + gameServer.getPort());
+    }
+
+    /**
+     * Returns an executor starting a virtual thread per task if the running JDK supports them, or a cached thread
+     * pool otherwise. The method is looked up by reflection so that the class still compiles for older releases.
+     *
+     * @return an {@code ExecutorService} running the handlers.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * This method starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * This method stops accepting requests, and waits for the ones being handled up to given delay.
+     *
+     * @param delay an int describing the number of seconds to wait.
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port listened to.
+     *
+     * @return an int describing the port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * This method dispatches a request by its method and path, and answers an error for any unknown one.
+     *
+     * @param exchange an {@code HttpExchange} holding the request.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            Map<String, String> parameters = parseParameters(exchange);
+            // Path segments are "", "games", the id and the action, where the context also matches longer names.
+            if (path.length < 2 || !path[1].equals("games"))
+                send(exchange, 404, error("Not found"));
+            else if (path.length == 2 && method.equals("POST"))
+                createGame(exchange, parameters);
+            else if (path.length < 3 || path.length > 4)
+                send(exchange, 404, error("Not found"));
+            else {
+                long id = parseId(path[2]);
+                SessionStore.Session session = sessions.get(id);
+                String action = path.length == 4 ? path[3] : "";
+                if (session == null)
+                    send(exchange, 404, error("Game not found"));
+                else if (!service.isGenerationKept(session.getGeneration()))
+                    send(exchange, 410, error("Game expired after the word sources changed"));
+                else if (action.equals("") && method.equals("GET"))
+                    send(exchange, 200, "{\"id\":" + quote(path[2]) + "," + toJsonFields(session) + "}");
+                else if (action.equals("guesses") && method.equals("POST"))
+                    guess(exchange, id, session, parameters.getOrDefault("word", ""));
+                else if (action.equals("helper") && method.equals("GET"))
+                    help(exchange, id, session, parameters);
+                else if (action.equals("share") && method.equals("GET"))
+                    share(exchange, session);
+                else
+                    send(exchange, 405, error("Method not allowed"));
+            }
+        } catch (RuntimeException e) {
+            // Details are logged rather than answered, as they describe the server instead of the request.
+            System.out.println("Bad request " + exchange.getRequestURI() + ": " + e);
+            send(exchange, 400, error("Bad request"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * This method creates a game with the same checks as the Start button of {@code Settings}.
+     *
+     * @param exchange   an {@code HttpExchange} holding the request.
+     * @param parameters a {@code Map} holding the parameters of the request.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void createGame(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        String hashtag = parameters.getOrDefault("hashtag", "").toUpperCase();
+        String text = parameters.getOrDefault("word", "").toUpperCase();
+        String wordSource;
+        // Hashtag handler
+        if (hashtag.length() > 0) {
+            String[] decodeResult = Settings.hashtagDecoder(hashtag.charAt(0) == '#' ? hashtag : "#" + hashtag)
+                    .split("\\$");
+            if (decodeResult[0].length() != 0) {
+                send(exchange, 400, error(decodeResult[0]));
+                return;
+            }
+            text = decodeResult[1];
+            wordSource = eWordle.wordSources[Integer.parseInt(decodeResult[2]) - 1];
+        }
+        // Not hashtag
+        else {
+            wordSource = parameters.getOrDefault("source", eWordle.wordSources[eWordle.wordSources.length - 1]);
+            if (!Arrays.asList(eWordle.wordSources).contains(wordSource)) {
+                send(exchange, 400, error("Unknown word source"));
+                return;
+            }
+            int wordLength = text.length() > 0 ? text.length() :
+                    parseNumber(parameters.getOrDefault("length", eWordle.wordLengths[0]));
+            if (!Arrays.asList(eWordle.wordLengths).contains(String.valueOf(wordLength))) {
+                send(exchange, 400, error("Unsupported word length"));
+                return;
+            }
+            String checkResult = service.checkExistence(text, wordSource);
+            if (checkResult.length() != 0) {
+                send(exchange, 400, error(checkResult));
+                return;
+            }
+            if (text.length() == 0)
+                text = service.generateRandomWord(wordLength, wordSource);
+            if (text.equals("Not Found")) {
+                send(exchange, 400, error(text));
+                return;
+            }
+        }
+        // Ranks are pinned to the store they were found in, which later changes of word sources leave alone.
+        int generation = service.getGeneration();
+        int answerRank = service.findRank(text, wordSource, generation);
+        if (answerRank < 0) {
+            send(exchange, 400, error("Not Found"));
+            return;
+        }
+        if (answerRank > SessionStore.MAX_RANK) {
+            send(exchange, 400, error("Word not supported by the server"));
+            return;
+        }
+        long id = sessions.create(text.length(), Arrays.asList(eWordle.wordSources).indexOf(wordSource), answerRank,
+                generation);
+        if (id < 0) {
+            send(exchange, 503, error("Too many games"));
+            return;
+        }
+        Metrics.getInstance().counter("server.games.started").increment();
+        send(exchange, 201, "{\"id\":" + quote(Long.toString(id, 36)) + "," + toJsonFields(sessions.get(id)) + "}");
+    }
+
+    /**
+     * This method scores a guess with the same checks as the Enter key of {@code Game}.
+     *
+     * @param exchange an {@code HttpExchange} holding the request.
+     * @param id       a {@code long} describing the id of the game.
+     * @param session  a {@code SessionStore.Session} holding the game before the guess.
+     * @param word     a String holding the guess.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void guess(HttpExchange exchange, long id, SessionStore.Session session, String word) throws IOException {
+        word = word.toUpperCase();
+        int wordLength = session.getWordLength();
+        String wordSource = eWordle.wordSources[session.getWordSourceIndex()];
+        if (word.length() != wordLength) {
+            send(exchange, 400, error("Error: The length of the guess should be " + wordLength));
+            return;
+        }
+        int guessRank = service.findRank(word, wordSource, session.getGeneration());
+        if (guessRank < 0) {
+            send(exchange, 400, error("Not in word list"));
+            return;
+        }
+        if (guessRank > SessionStore.MAX_RANK) {
+            send(exchange, 400, error("Word not supported by the server"));
+            return;
+        }
+        String initWord = service.getWord(wordLength, session.getAnswerRank(), session.getGeneration());
+        int pattern = FeedbackKernel.score(word, initWord);
+        int[] scores = new int[wordLength];
+        FeedbackKernel.decode(pattern, wordLength, scores);
+        StringBuilder marks = new StringBuilder();
+        for (int score : scores)
+            marks.append(score == FeedbackKernel.ABSENT ? "x" : (score == FeedbackKernel.PRESENT ? "o" : "v"));
+        // The store checks again whether the game is over, as another guess may have been added meanwhile.
+        session = sessions.addGuess(id, guessRank, scores, word.equals(initWord));
+        if (session == null) {
+            send(exchange, 409, error("Game over"));
+            return;
+        }
+        if (session.isOver()) {
+            Metrics metrics = Metrics.getInstance();
+            metrics.counter(session.isSuccess() ? "server.games.won" : "server.games.lost").increment();
+            metrics.histogram("server.games.guesses").record(session.getTries());
+        }
+        send(exchange, 200, "{\"scores\":" + quote(marks.toString()) + ",\"pattern\":" + pattern + "," +
+                toJsonFields(session) + "}");
+    }
+
+    /**
+     * This method searches the helper for the words of a game, and marks the game as helped.
+     *
+     * @param exchange   an {@code HttpExchange} holding the request.
+     * @param id         a {@code long} describing the id of the game.
+     * @param session    a {@code SessionStore.Session} holding the game.
+     * @param parameters a {@code Map} holding the parameters of the request.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void help(HttpExchange exchange, long id, SessionStore.Session session, Map<String, String> parameters)
+            throws IOException {
+        sessions.markHelped(id);
+        HelperResult result = service.searchHelper(parameters.getOrDefault("query", ""),
+                service.getWordStore(session.getGeneration()), session.getWordLength(),
+                eWordle.wordSources[session.getWordSourceIndex()], partialResult -> {
+                }, () -> false);
+        if (result.getErrorMessage().length() > 0) {
+            send(exchange, 400, error(result.getErrorMessage()));
+            return;
+        }
+        int from = parseNumber(parameters.getOrDefault("from", "0"));
+        int to = from < 0 ? -1 : parseNumber(parameters.getOrDefault("to", String.valueOf(from + HELPER_PAGE_SIZE)));
+        if (from < 0 || to < 0) {
+            send(exchange, 400, error("Invalid range of results"));
+            return;
+        }
+        StringBuilder response = new StringBuilder();
+        response.append("{\"summary\":").append(quote(result.getSummary())).append(",\"count\":")
+                .append(result.getCount()).append(",\"words\":[");
+        String[] words = result.getWords(from, Math.min(to, from + HELPER_PAGE_SIZE * 10));
+        for (int i = 0; i < words.length; i++)
+            response.append(i == 0 ? "" : ",").append(quote(words[i]));
+        send(exchange, 200, response.append("]}").toString());
+    }
+
+    /**
+     * This method answers the text shared by the user once the game is over.
+     *
+     * @param exchange an {@code HttpExchange} holding the request.
+     * @param session  a {@code SessionStore.Session} holding the game.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void share(HttpExchange exchange, SessionStore.Session session) throws IOException {
+        if (!session.isOver()) {
+            send(exchange, 409, error("Game not over"));
+            return;
+        }
+        String text = Results.getShareText(session.getWordLength(), getHashtag(session), session.getTries(),
+                session.isSuccess(), session.getScoreByOrder(), session.isOpenedHelper());
+        send(exchange, 200, "{\"text\":" + quote(text) + "}");
+    }
+
+    /**
+     * Returns the state of a game as the fields of a JSON object, which reveals the answer once the game is over.
+     *
+     * @param session a {@code SessionStore.Session} holding the game.
+     * @return a String holding the fields without braces.
+     */
+    private String toJsonFields(SessionStore.Session session) {
+        StringBuilder fields = new StringBuilder();
+        fields.append("\"length\":").append(session.getWordLength()).append(",\"source\":")
+                .append(quote(eWordle.wordSources[session.getWordSourceIndex()])).append(",\"hashtag\":")
+                .append(quote(getHashtag(session))).append(",\"tries\":").append(session.getTries())
+                .append(",\"maxTries\":").append(session.getWordLength() + 1).append(",\"status\":")
+                .append(quote(session.isSuccess() ? "won" : session.isOver() ? "lost" : "playing"));
+        if (session.isOver())
+            fields.append(",\"answer\":").append(quote(service.getWord(session.getWordLength(),
+                    session.getAnswerRank(), session.getGeneration())));
+        return fields.toString();
+    }
+
+    /**
+     * Returns the hashtag of a game, which is encoded again from the answer instead of being stored.
+     *
+     * @param session a {@code SessionStore.Session} holding the game.
+     * @return a String holding the hashtag.
+     */
+    private String getHashtag(SessionStore.Session session) {
+        return Settings.hashtagEncoder(eWordle.wordSources[session.getWordSourceIndex()],
+                service.getWord(session.getWordLength(), session.getAnswerRank(), session.getGeneration()));
+    }
+
+    /**
+     * This static method decodes the id of a game from a path segment.
+     *
+     * @param text a String holding the id in base 36.
+     * @return a {@code long} describing the id, or -1 if the text is not an id.
+     */
+    private static long parseId(String text) {
+        try {
+            return Long.parseLong(text, 36);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * This static method decodes a number given as a parameter.
+     *
+     * @param text a String holding the number in decimal.
+     * @return an int describing the number, or -1 if the text is not a non-negative int.
+     */
+    private static int parseNumber(String text) {
+        try {
+            return Math.max(-1, Integer.parseInt(text));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the parameters of the query string and of a form body, where the latter wins on duplicates.
+     *
+     * @param exchange an {@code HttpExchange} holding the request.
+     * @return a {@code Map} holding the decoded parameters.
+     * @throws IOException if the body cannot be read.
+     */
+    private static Map<String, String> parseParameters(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        parseParameters(exchange.getRequestURI().getRawQuery(), parameters);
+        try (InputStream body = exchange.getRequestBody()) {
+            parseParameters(new String(body.readAllBytes(), StandardCharsets.UTF_8), parameters);
+        }
+        return parameters;
+    }
+
+    /**
+     * This static method decodes parameters encoded as {@code application/x-www-form-urlencoded}.
+     *
+     * @param encoded    a String holding the encoded parameters, which may be {@code null}.
+     * @param parameters a {@code Map} receiving the decoded parameters.
+     */
+    private static void parseParameters(String encoded, Map<String, String> parameters) {
+        if (encoded == null || encoded.isEmpty())
+            return;
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * This static method sends a JSON response.
+     *
+     * @param exchange   an {@code HttpExchange} holding the request.
+     * @param statusCode an int describing the HTTP status.
+     * @param json       a String holding the JSON object.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static void send(HttpExchange exchange, int statusCode, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    /**
+     * Returns a JSON object holding an error reason.
+     *
+     * @param errorMessage a String describing the error reason.
+     * @return a String holding the JSON object.
+     */
+    private static String error(String errorMessage) {
+        return "{\"error\":" + quote(errorMessage) + "}";
+    }
+
+    /**
+     * Returns a String as a JSON string literal.
+     *
+     * @param text a String to be quoted.
+     * @return a String holding the quoted and escaped text.
+     */
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '"' || ch == '\\')
+                quoted.append('\\').append(ch);
+            else if (ch == '\n')
+                quoted.append("\\n");
+            else if (ch < ' ')
+                quoted.append(String.format("\\u%04x", (int) ch));
+            else
+                quoted.append(ch);
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+
+/**
+ * The {@code HelperIndex} class holds a letter-at-position bitmap index over all words of one length, so that helper
+ * queries are answered by bitset operations instead of scanning every word.
+ *
+ * <p>
+ * Words are identified by their rank, which is the order they are given in when the index is built. The caller is
+ * expected to pass the words ordered by difficulty increasingly, so that a difficulty restriction becomes a prefix of
+ * the ranks.
+ *
+ * <p>
+ * Two families of bitsets are kept: one per position and letter, marking the words holding that letter at that
+ * position, and one per letter and count <var>k</var>, marking the words containing that letter at least <var>k</var>
+ * times. Bitsets that would be empty are not allocated.
+ *
+ * <p>
+ * A {@code HelperTrie} over the same ranks is built alongside, for queries whose fixed letters and restrictions prune
+ * most words early, where walking a few branches is cheaper than combining whole bitsets.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class HelperIndex {
+    /**
+     * A static constant holding the number of letters in the alphabet.
+     */
+    private static final int LETTER_COUNT = 26;
+
+    /**
+     * An int holding the length of every word indexed.
+     */
+    private final int wordLength;
+
+    /**
+     * An int holding the number of words indexed.
+     */
+    private final int wordCount;
+
+    /**
+     * An int holding the number of {@code long} blocks in each bitset.
+     */
+    private final int blockCount;
+
+    /**
+     * A bitset array indexed by {@code position * 26 + letter}, where each bitset marks the words holding that letter
+     * at that position. A {@code null} entry stands for an empty bitset.
+     */
+    private final long[][] letterAtPosition;
+
+    /**
+     * A bitset array indexed by {@code letter * (wordLength + 1) + k}, where each bitset marks the words containing
+     * that letter at least <var>k</var> times. A {@code null} entry stands for an empty bitset.
+     */
+    private final long[][] letterAtLeast;
+
+    /**
+     * A {@code HelperTrie} holding the same words with the same ranks.
+     */
+    private final HelperTrie trie;
+
+    /**
+     * The only constructor for class {@code HelperIndex}, which builds the index from codes of words with the same
+     * length.
+     *
+     * @param wordLength an int describing the length of every word given.
+     * @param codes      a {@code long} array holding the codes encoded by {@link WordStore#encode(CharSequence)},
+     *                   whose order decides their ranks.
+     */
+    public HelperIndex(int wordLength, long[] codes) {
+        this.wordLength = wordLength;
+        this.wordCount = codes.length;
+        this.blockCount = (wordCount + 63) >>> 6;
+        letterAtPosition = new long[wordLength * LETTER_COUNT][];
+        letterAtLeast = new long[LETTER_COUNT * (wordLength + 1)][];
+        int[] letterCount = new int[LETTER_COUNT];
+        for (int rank = 0; rank < wordCount; rank++) {
+            long code = codes[rank];
+            for (int i = 0; i < wordLength; i++) {
+                int letter = WordStore.letterAt(code, wordLength, i);
+                setBit(letterAtPosition, i * LETTER_COUNT + letter, rank);
+                setBit(letterAtLeast, letter * (wordLength + 1) + ++letterCount[letter], rank);
+            }
+            Arrays.fill(letterCount, 0);
+        }
+        trie = new HelperTrie(wordLength, codes);
+    }
+
+    /**
+     * Returns the number of words indexed.
+     *
+     * @return an int describing the number of words indexed.
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Returns the number of {@code long} blocks in each bitset.
+     *
+     * @return an int describing the number of {@code long} blocks in each bitset.
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Returns the trie holding the same words with the same ranks.
+     *
+     * @return a {@code HelperTrie} over the words indexed.
+     */
+    public HelperTrie getTrie() {
+        return trie;
+    }
+
+    /**
+     * Returns the number of block operations taken by
+     * {@link HelperIndex#match(char[], boolean[], int[], boolean, int)} for a parsed helper query, which is the cost
+     * a trie walk has to beat.
+     *
+     * @param pattern  a char array holding uppercase letters or {@code *} for each position.
+     * @param excluded a boolean array indexed by letter describing the letters not allowed on {@code *} positions.
+     * @param required an int array indexed by letter describing the letters needed on {@code *} positions.
+     * @param matchAll a boolean describing whether {@code *} positions may hold letters not listed in
+     *                 <var>required</var>.
+     * @return a {@code long} describing the number of blocks combined.
+     */
+    public long getScanCost(char[] pattern, boolean[] excluded, int[] required, boolean matchAll) {
+        int stars = 0;
+        for (char letter : pattern)
+            if (letter == '*')
+                stars++;
+        // Filling the eligible ranks takes one pass, and each fixed letter another.
+        long passes = 1 + wordLength - stars;
+        for (int letter = 0; letter < LETTER_COUNT; letter++) {
+            if (excluded[letter])
+                passes += stars;
+            if (required[letter] > 0)
+                passes++;
+            if (!matchAll)
+                passes++;
+        }
+        return passes * blockCount;
+    }
+
+    /**
+     * Returns a bitset of the ranks matching a parsed helper query, where the results are identical to checking every
+     * word against the helper rules one by one.
+     *
+     * <p>
+     * A word matches if the letters on non-{@code *} positions are equal to <var>pattern</var>, no letter marked in
+     * <var>excluded</var> appears on a {@code *} position, and every letter appears on {@code *} positions at least as
+     * many times as in <var>required</var>. If <var>matchAll</var> is false, the letters on {@code *} positions must
+     * be exactly the ones in <var>required</var>.
+     *
+     * @param pattern  a char array holding uppercase letters or {@code *} for each position.
+     * @param excluded a boolean array indexed by letter describing the letters not allowed on {@code *} positions.
+     * @param required an int array indexed by letter describing the letters needed on {@code *} positions.
+     * @param matchAll a boolean describing whether {@code *} positions may hold letters not listed in
+     *                 <var>required</var>.
+     * @param limit    an int describing the number of leading ranks eligible, usually decided by difficulty.
+     * @return a {@code long} array whose set bits are the matched ranks.
+     */
+    public long[] match(char[] pattern, boolean[] excluded, int[] required, boolean matchAll, int limit) {
+        long[] result = new long[blockCount];
+        match(pattern, excluded, required, matchAll, limit, result, 0, blockCount);
+        return result;
+    }
+
+    /**
+     * This method matches a parsed helper query against the ranks of given blocks only, so that a long scan can be
+     * split into chunks that are published or cancelled in between. See
+     * {@link HelperIndex#match(char[], boolean[], int[], boolean, int)} for the matching rules.
+     *
+     * @param pattern   a char array holding uppercase letters or {@code *} for each position.
+     * @param excluded  a boolean array indexed by letter describing the letters not allowed on {@code *} positions.
+     * @param required  an int array indexed by letter describing the letters needed on {@code *} positions.
+     * @param matchAll  a boolean describing whether {@code *} positions may hold letters not listed in
+     *                  <var>required</var>.
+     * @param limit     an int describing the number of leading ranks eligible, usually decided by difficulty.
+     * @param result    a {@code long} array of {@link HelperIndex#getBlockCount()} blocks, whose blocks in range are
+     *                  overwritten by the matched ranks.
+     * @param fromBlock an int describing the first block to be matched.
+     * @param toBlock   an int describing the block after the last one to be matched.
+     */
+    public void match(char[] pattern, boolean[] excluded, int[] required, boolean matchAll, int limit, long[] result,
+                      int fromBlock, int toBlock) {
+        limit = Math.min(limit, wordCount);
+        // Start from all eligible ranks.
+        for (int block = fromBlock; block < toBlock; block++)
+            result[block] = block < (limit >>> 6) ? -1L : block == (limit >>> 6) ? (1L << (limit & 63)) - 1 : 0;
+        // Fixed letters.
+        int[] fixedCount = new int[LETTER_COUNT];
+        for (int i = 0; i < wordLength; i++)
+            if (pattern[i] != '*') {
+                int letter = pattern[i] - 'A';
+                fixedCount[letter]++;
+                and(result, letterAtPosition[i * LETTER_COUNT + letter], fromBlock, toBlock);
+            }
+        for (int letter = 0; letter < LETTER_COUNT; letter++) {
+            // Excluded letters only count on * positions.
+            if (excluded[letter])
+                for (int i = 0; i < wordLength; i++)
+                    if (pattern[i] == '*')
+                        andNot(result, letterAtPosition[i * LETTER_COUNT + letter], fromBlock, toBlock);
+            // Fixed positions already hold their letters, so the required ones come on top of them.
+            int needed = required[letter] + fixedCount[letter];
+            if (required[letter] > 0)
+                and(result, needed > wordLength ? null : letterAtLeast[letter * (wordLength + 1) + needed],
+                        fromBlock, toBlock);
+            if (!matchAll && needed < wordLength)
+                andNot(result, letterAtLeast[letter * (wordLength + 1) + needed + 1], fromBlock, toBlock);
+        }
+    }
+
+    /**
+     * This method sets a bit of a bitset in given array, allocating the bitset if absent.
+     *
+     * @param bitsets an array of bitsets.
+     * @param index   an int describing the bitset to be modified.
+     * @param rank    an int describing the bit to be set.
+     */
+    private void setBit(long[][] bitsets, int index, int rank) {
+        if (bitsets[index] == null)
+            bitsets[index] = new long[blockCount];
+        bitsets[index][rank >>> 6] |= 1L << (rank & 63);
+    }
+
+    /**
+     * This static method intersects given blocks of <var>result</var> with <var>other</var> in place.
+     *
+     * @param result    a bitset to be modified.
+     * @param other     a bitset, where {@code null} stands for an empty one.
+     * @param fromBlock an int describing the first block to be modified.
+     * @param toBlock   an int describing the block after the last one to be modified.
+     */
+    private static void and(long[] result, long[] other, int fromBlock, int toBlock) {
+        if (other == null)
+            Arrays.fill(result, fromBlock, toBlock, 0);
+        else
+            for (int i = fromBlock; i < toBlock; i++)
+                result[i] &= other[i];
+    }
+
+    /**
+     * This static method removes the bits of <var>other</var> from given blocks of <var>result</var> in place.
+     *
+     * @param result    a bitset to be modified.
+     * @param other     a bitset, where {@code null} stands for an empty one.
+     * @param fromBlock an int describing the first block to be modified.
+     * @param toBlock   an int describing the block after the last one to be modified.
+     */
+    private static void andNot(long[] result, long[] other, int fromBlock, int toBlock) {
+        if (other != null)
+            for (int i = fromBlock; i < toBlock; i++)
+                result[i] &= ~other[i];
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import javax.swing.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code HelperListModel} class presents the words of a {@code HelperResult} to a {@code JList}, pulling them page
+ * by page as rows become visible.
+ *
+ * <p>
+ * Together with a fixed cell height on the {@code JList}, only the visible rows are ever decoded and laid out, so the
+ * helper window stays responsive whatever the number of matched words is.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class HelperListModel extends AbstractListModel<String> {
+    /**
+     * A static constant holding the number of words fetched at once.
+     */
+    private static final int PAGE_SIZE = 256;
+
+    /**
+     * A static constant holding the number of pages kept after being fetched.
+     */
+    private static final int CACHED_PAGES = 16;
+
+    /**
+     * A static constant holding the serial version, as models are never serialized.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * A {@code HelperResult} holding the words displayed.
+     */
+    private transient HelperResult result = new HelperResult("");
+
+    /**
+     * A {@code LinkedHashMap} holding the recently fetched pages ordered by access, where the eldest one is dropped
+     * once there are more than {@link HelperListModel#CACHED_PAGES}.
+     */
+    private final transient LinkedHashMap<Integer, String[]> pages =
+            new LinkedHashMap<>(CACHED_PAGES * 2, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+                    return size() > CACHED_PAGES;
+                }
+            };
+
+    /**
+     * This method replaces the words displayed and notifies the list.
+     *
+     * @param result a {@code HelperResult} holding the words to be displayed.
+     */
+    public void setResult(HelperResult result) {
+        int oldSize = getSize();
+        this.result = result;
+        pages.clear();
+        if (oldSize > 0)
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        if (getSize() > 0)
+            fireIntervalAdded(this, 0, getSize() - 1);
+    }
+
+    /**
+     * This method replaces the words displayed with a longer result of the same search, whose leading words are
+     * unchanged, and notifies the list of the words appended only.
+     *
+     * @param result a {@code HelperResult} holding the words to be displayed.
+     */
+    public void extendResult(HelperResult result) {
+        int oldSize = getSize();
+        this.result = result;
+        // The last page fetched may have been cut short by the previous result.
+        pages.remove(oldSize / PAGE_SIZE);
+        if (getSize() > oldSize)
+            fireIntervalAdded(this, oldSize, getSize() - 1);
+    }
+
+    @Override
+    public int getSize() {
+        return result.getCount();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        int page = index / PAGE_SIZE;
+        String[] words = pages.get(page);
+        if (words == null) {
+            words = result.getWords(page * PAGE_SIZE, (page + 1) * PAGE_SIZE);
+            pages.put(page, words);
+        }
+        return words[index % PAGE_SIZE];
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+
+/**
+ * The {@code HelperQuery} class holds a parsed helper query in canonical form, so that equivalent inputs such as
+ * {@code (SE)} and {@code (ES)}, or {@code [AB]} and {@code [BA]}, are equal and share a cached result.
+ *
+ * <p>
+ * Letters in brackets are kept as per-letter flags and counts, which are independent of the order they are typed in,
+ * and a word source is represented by its difficulty, which decides the words searched. The store searched is
+ * compared by identity, so a game pinned to an older store never shares results with the current one.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class HelperQuery {
+    /**
+     * A {@code WordStore} holding the words searched.
+     */
+    private final WordStore wordStore;
+
+    /**
+     * An int holding the length of words searched.
+     */
+    private final int wordLength;
+
+    /**
+     * An int holding the highest difficulty of words searched.
+     */
+    private final int difficulty;
+
+    /**
+     * A char array holding uppercase letters or {@code *} for each position.
+     */
+    private final char[] pattern;
+
+    /**
+     * A boolean array indexed by letter describing the letters not allowed on {@code *} positions.
+     */
+    private final boolean[] excluded;
+
+    /**
+     * An int array indexed by letter describing the letters needed on {@code *} positions.
+     */
+    private final int[] required;
+
+    /**
+     * A boolean describing whether {@code *} positions may hold letters not listed in <var>required</var>.
+     */
+    private final boolean matchAll;
+
+    /**
+     * An int holding the hash code computed once, as queries are used as keys only.
+     */
+    private final int hashCode;
+
+    /**
+     * The only constructor for class {@code HelperQuery}, which copies the arrays given.
+     *
+     * @param wordStore  a {@code WordStore} holding the words searched.
+     * @param wordLength an int describing the length of words searched.
+     * @param difficulty an int describing the highest difficulty of words searched.
+     * @param pattern    a char array holding uppercase letters or {@code *} for each position.
+     * @param excluded   a boolean array indexed by letter describing the letters not allowed on {@code *} positions.
+     * @param required   an int array indexed by letter describing the letters needed on {@code *} positions.
+     * @param matchAll   a boolean describing whether {@code *} positions may hold letters not listed in
+     *                   <var>required</var>.
+     */
+    public HelperQuery(WordStore wordStore, int wordLength, int difficulty, char[] pattern, boolean[] excluded,
+                       int[] required, boolean matchAll) {
+        this.wordStore = wordStore;
+        this.wordLength = wordLength;
+        this.difficulty = difficulty;
+        this.pattern = pattern.clone();
+        this.excluded = excluded.clone();
+        this.required = required.clone();
+        this.matchAll = matchAll;
+        int hash = 31 * System.identityHashCode(wordStore) + wordLength;
+        hash = 31 * hash + difficulty;
+        hash = 31 * hash + Arrays.hashCode(pattern);
+        hash = 31 * hash + Arrays.hashCode(excluded);
+        hash = 31 * hash + Arrays.hashCode(required);
+        hashCode = 31 * hash + Boolean.hashCode(matchAll);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof HelperQuery))
+            return false;
+        HelperQuery query = (HelperQuery) other;
+        return hashCode == query.hashCode && wordStore == query.wordStore && wordLength == query.wordLength &&
+                difficulty == query.difficulty && matchAll == query.matchAll && Arrays.equals(pattern, query.pattern) &&
+                Arrays.equals(excluded, query.excluded) && Arrays.equals(required, query.required);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+
+/**
+ * The {@code HelperResult} class holds the outcome of a helper query, whose matched words are decoded page by page on
+ * request instead of being joined into a single String.
+ *
+ * <p>
+ * The total count is known as soon as the query completes, and any page of words can be fetched in the order of a
+ * full scan, which is by difficulty and then alphabetically.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class HelperResult {
+    /**
+     * A String holding the error reason, which is empty if the query is valid.
+     */
+    private final String errorMessage;
+
+    /**
+     * A {@code WordStore} holding the matched words.
+     */
+    private final WordStore wordStore;
+
+    /**
+     * An int holding the length of the matched words.
+     */
+    private final int wordLength;
+
+    /**
+     * A {@code long} array whose set bits are the ranks of the matched words.
+     */
+    private final long[] matched;
+
+    /**
+     * A String array holding lines shown in place of matched words, or {@code null} if the result comes from a
+     * search.
+     */
+    private final String[] lines;
+
+    /**
+     * A String holding the summary line of <var>lines</var>, or {@code null} if the result comes from a search.
+     */
+    private final String summary;
+
+    /**
+     * An int array holding the number of matched words before each block of <var>matched</var>, followed by the
+     * total count.
+     */
+    private final int[] countBefore;
+
+    /**
+     * A constructor for class {@code HelperResult}, which describes an invalid query.
+     *
+     * @param errorMessage a String describing the error reason.
+     */
+    public HelperResult(String errorMessage) {
+        this(errorMessage, null, 0, new long[0]);
+    }
+
+    /**
+     * A constructor for class {@code HelperResult}, which describes the words matched by a valid query.
+     *
+     * @param wordStore  a {@code WordStore} holding the matched words.
+     * @param wordLength an int describing the length of the matched words.
+     * @param matched    a {@code long} array whose set bits are the ranks of the matched words.
+     */
+    public HelperResult(WordStore wordStore, int wordLength, long[] matched) {
+        this("", wordStore, wordLength, matched);
+    }
+
+    /**
+     * A constructor for class {@code HelperResult}, which describes lines computed elsewhere, such as ranked guesses.
+     *
+     * @param summary a String describing the summary line shown above the lines.
+     * @param lines   a String array holding the lines to be shown.
+     */
+    public HelperResult(String summary, String[] lines) {
+        this.errorMessage = "";
+        this.wordStore = null;
+        this.wordLength = 0;
+        this.matched = new long[0];
+        this.lines = lines;
+        this.summary = summary;
+        countBefore = new int[]{lines.length};
+    }
+
+    /**
+     * The constructor shared by other constructors, which counts the matched words of each block.
+     *
+     * @param errorMessage a String describing the error reason, which is empty if the query is valid.
+     * @param wordStore    a {@code WordStore} holding the matched words.
+     * @param wordLength   an int describing the length of the matched words.
+     * @param matched      a {@code long} array whose set bits are the ranks of the matched words.
+     */
+    private HelperResult(String errorMessage, WordStore wordStore, int wordLength, long[] matched) {
+        this.errorMessage = errorMessage;
+        this.wordStore = wordStore;
+        this.wordLength = wordLength;
+        this.matched = matched;
+        this.lines = null;
+        this.summary = null;
+        countBefore = new int[matched.length + 1];
+        for (int block = 0; block < matched.length; block++)
+            countBefore[block + 1] = countBefore[block] + Long.bitCount(matched[block]);
+    }
+
+    /**
+     * Returns the error reason of the query.
+     *
+     * @return a String describing the error reason, which is empty if the query is valid.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Returns the number of matched words.
+     *
+     * @return an int describing the number of matched words.
+     */
+    public int getCount() {
+        return countBefore[matched.length];
+    }
+
+    /**
+     * Returns the summary line shown above the matched words.
+     *
+     * @return a String describing the number of matched words.
+     */
+    public String getSummary() {
+        if (summary != null)
+            return summary;
+        return "Found " + getCount() + " result(s)" + (getCount() > 0 ? ":" : ".");
+    }
+
+    /**
+     * Returns a page of matched words.
+     *
+     * @param from an int describing the index of the first word, counting from 0.
+     * @param to   an int describing the index after the last word, which is clamped to the number of words.
+     * @return a String array holding the words of the page.
+     */
+    public String[] getWords(int from, int to) {
+        to = Math.min(to, getCount());
+        String[] words = new String[Math.max(0, to - from)];
+        if (words.length == 0)
+            return words;
+        if (lines != null)
+            return Arrays.copyOfRange(lines, from, to);
+        // Find the block holding the first word, and skip the words before it inside the block.
+        int low = 0;
+        int high = matched.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (countBefore[middle] <= from)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        long bits = matched[low];
+        for (int skipped = countBefore[low]; skipped < from; skipped++)
+            bits &= bits - 1;
+        for (int block = low, i = 0; i < words.length; ) {
+            if (bits == 0) {
+                bits = matched[++block];
+                continue;
+            }
+            words[i++] = wordStore.getWord(wordLength, (block << 6) + Long.numberOfTrailingZeros(bits));
+            bits &= bits - 1;
+        }
+        return words;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * The {@code HelperSearcher} class runs the helper searches of one helper window off the Swing event thread.
+ *
+ * <p>
+ * Every new search supersedes the previous one, which is cancelled between two chunks of its scan, and searches run on
+ * a single thread so that there is never more than one live scan per helper window. Searches requested while typing
+ * are debounced, so only the latest pattern is evaluated. Results, including the partial ones, are delivered on the
+ * Swing event thread.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class HelperSearcher {
+    /**
+     * A static constant holding the delay in milliseconds after the last keystroke before a search starts.
+     */
+    private static final int DEBOUNCE_DELAY = 150;
+
+    /**
+     * The {@code Listener} interface receives the results of searches on the Swing event thread.
+     */
+    public interface Listener {
+        /**
+         * This method is called whenever the results of the latest search grow.
+         *
+         * @param result     a {@code HelperResult} holding the error reason or the matched results so far.
+         * @param isFirst    a boolean describing whether this is the first delivery of the search, in which case
+         *                   previous results should be discarded.
+         * @param isComplete a boolean describing whether the scan has finished.
+         */
+        void resultUpdated(HelperResult result, boolean isFirst, boolean isComplete);
+    }
+
+    /**
+     * A {@code WordStore} holding the words searched, which is the one the game started with.
+     */
+    private final WordStore wordStore;
+
+    /**
+     * A {@code Listener} receiving the results.
+     */
+    private final Listener listener;
+
+    /**
+     * An {@code ExecutorService} holding the only thread that scans for this helper window.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "eWordle helper search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A {@code Timer} starting the debounced search once typing pauses.
+     */
+    private final Timer debounceTimer;
+
+    /**
+     * A String holding the input of the debounced search.
+     */
+    private String pendingInput = "";
+
+    /**
+     * A {@code Future} holding the latest search, which is cancelled once superseded.
+     */
+    private Future<?> currentSearch;
+
+    /**
+     * An int holding the sequence number of the latest search, where results of older ones are dropped.
+     */
+    private volatile int generation;
+
+    /**
+     * The only constructor for class {@code HelperSearcher}.
+     *
+     * @param wordStore a {@code WordStore} holding the words searched.
+     * @param listener  a {@code Listener} receiving the results on the Swing event thread.
+     */
+    public HelperSearcher(WordStore wordStore, Listener listener) {
+        this.wordStore = wordStore;
+        this.listener = listener;
+        debounceTimer = new Timer(DEBOUNCE_DELAY, event -> search(pendingInput));
+        debounceTimer.setRepeats(false);
+    }
+
+    /**
+     * This method starts a search immediately, cancelling the previous one. It should be called on the Swing event
+     * thread.
+     *
+     * @param helperInput a String describing the input from the helper input text field.
+     */
+    public void search(String helperInput) {
+        submit((partialResults, isCancelled) ->
+                Service.getInstance().searchHelper(helperInput, wordStore, Settings.getInitWord().length(),
+                        Settings.getWordSource(), partialResults, isCancelled));
+    }
+
+    /**
+     * This method starts a task on the scanning thread in place of a search, cancelling the previous one. It should be
+     * called on the Swing event thread.
+     *
+     * @param task a {@code BiFunction} accepting a {@code Consumer} of partial results and a {@code BooleanSupplier}
+     *             telling whether it has been superseded, and returning the final result, or {@code null} if
+     *             cancelled.
+     */
+    public void submit(BiFunction<Consumer<HelperResult>, BooleanSupplier, HelperResult> task) {
+        debounceTimer.stop();
+        cancel();
+        final int current = ++generation;
+        currentSearch = executor.submit(() -> {
+            boolean[] isFirst = {true};
+            HelperResult result = task.apply(partialResult -> deliver(current, partialResult, isFirst, false),
+                    () -> current != generation || Thread.currentThread().isInterrupted());
+            if (result != null)
+                deliver(current, result, isFirst, true);
+        });
+    }
+
+    /**
+     * This method shows a result computed elsewhere in place of a search, cancelling the pending and running ones. It
+     * should be called on the Swing event thread.
+     *
+     * @param result a {@code HelperResult} holding the words to be shown.
+     */
+    public void show(HelperResult result) {
+        debounceTimer.stop();
+        cancel();
+        listener.resultUpdated(result, true, true);
+    }
+
+    /**
+     * This method schedules a search once typing pauses for {@link HelperSearcher#DEBOUNCE_DELAY} milliseconds,
+     * replacing the pending one. It should be called on the Swing event thread.
+     *
+     * @param helperInput a String describing the input from the helper input text field.
+     */
+    public void searchLater(String helperInput) {
+        pendingInput = helperInput;
+        debounceTimer.restart();
+    }
+
+    /**
+     * This method cancels the pending and running searches and stops the scanning thread. It should be called on the
+     * Swing event thread when the helper window closes.
+     */
+    public void close() {
+        debounceTimer.stop();
+        cancel();
+        executor.shutdownNow();
+    }
+
+    /**
+     * This method cancels the running search, whose results will be dropped even if already queued for delivery.
+     */
+    private void cancel() {
+        generation++;
+        if (currentSearch != null)
+            currentSearch.cancel(true);
+    }
+
+    /**
+     * This method delivers results to the listener on the Swing event thread unless the search has been superseded.
+     *
+     * @param current    an int describing the sequence number of the search.
+     * @param result     a {@code HelperResult} holding the results.
+     * @param isFirst    a boolean array holding whether nothing of the search has been delivered.
+     * @param isComplete a boolean describing whether the scan has finished.
+     */
+    private void deliver(int current, HelperResult result, boolean[] isFirst, boolean isComplete) {
+        final boolean first = isFirst[0];
+        isFirst[0] = false;
+        SwingUtilities.invokeLater(() -> {
+            if (current == generation)
+                listener.resultUpdated(result, first, isComplete);
+        });
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+import java.util.Arrays;
+
+/**
+ * The {@code HelperTrie} class holds a trie over all words of one length, so that selective helper queries walk only
+ * the branches that can still match instead of every word.
+ *
+ * <p>
+ * Nodes are kept in depth-first order in flat arrays, where the children of a node follow it in alphabetical order
+ * and each node records where its subtree ends, so that a whole subtree is skipped in one step. Each node also
+ * records the lowest rank below it, so that subtrees holding only words too difficult are skipped as well.
+ *
+ * <p>
+ * A walk goes through positions in order, and prunes a branch as soon as it holds a letter other than the fixed one,
+ * an excluded letter on a {@code *} position, a letter not listed in a {@code (...)} requirement that has to be met
+ * exactly, or leaves too few {@code *} positions to place the required letters still missing. A walk gives up once it
+ * has visited more nodes than its budget, so that queries pruning little are left to {@code HelperIndex}.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class HelperTrie {
+    /**
+     * A static constant holding the number of letters in the alphabet.
+     */
+    private static final int LETTER_COUNT = 26;
+
+    /**
+     * An int holding the length of every word indexed.
+     */
+    private final int wordLength;
+
+    /**
+     * A byte array holding the letter leading to each node, counting from 0 for A. The root holds no letter.
+     */
+    private final byte[] letters;
+
+    /**
+     * An int array holding the node after the last one in the subtree of each node.
+     */
+    private final int[] subtreeEnds;
+
+    /**
+     * An int array holding the lowest rank below each node, which is the rank of the word for a leaf.
+     */
+    private final int[] minRanks;
+
+    /**
+     * The only constructor for class {@code HelperTrie}, which builds the trie from codes of words with the same
+     * length.
+     *
+     * @param wordLength an int describing the length of every word given.
+     * @param codes      a {@code long} array holding distinct codes of words up to 8 letters encoded by
+     *                   {@link WordStore#encode(CharSequence)}, whose order decides their ranks.
+     */
+    public HelperTrie(int wordLength, long[] codes) {
+        this.wordLength = wordLength;
+        // Codes compare like the words themselves, so sorting them with their ranks in the low bits orders the words.
+        int rankBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, codes.length - 1));
+        long[] sorted = new long[codes.length];
+        for (int rank = 0; rank < codes.length; rank++)
+            sorted[rank] = codes[rank] << rankBits | rank;
+        Arrays.sort(sorted);
+        int capacity = codes.length * wordLength + 1;
+        byte[] letters = new byte[capacity];
+        int[] subtreeEnds = new int[capacity];
+        int[] minRanks = new int[capacity];
+        minRanks[0] = Integer.MAX_VALUE;
+        int[] path = new int[wordLength + 1];
+        int nodeCount = 1;
+        long previous = -1;
+        for (long entry : sorted) {
+            long code = entry >>> rankBits;
+            int rank = (int) (entry & ((1L << rankBits) - 1));
+            // Nodes below the prefix shared with the previous word are complete.
+            int shared = 0;
+            while (previous >= 0 && shared < wordLength &&
+                    WordStore.letterAt(code, wordLength, shared) == WordStore.letterAt(previous, wordLength, shared))
+                shared++;
+            for (int depth = wordLength; depth > shared; depth--)
+                if (previous >= 0)
+                    subtreeEnds[path[depth]] = nodeCount;
+            for (int depth = shared + 1; depth <= wordLength; depth++) {
+                letters[nodeCount] = (byte) WordStore.letterAt(code, wordLength, depth - 1);
+                minRanks[nodeCount] = Integer.MAX_VALUE;
+                path[depth] = nodeCount++;
+            }
+            for (int depth = 0; depth <= wordLength; depth++)
+                minRanks[path[depth]] = Math.min(minRanks[path[depth]], rank);
+            previous = code;
+        }
+        for (int depth = 0; depth <= wordLength; depth++)
+            subtreeEnds[path[depth]] = nodeCount;
+        this.letters = Arrays.copyOf(letters, nodeCount);
+        this.subtreeEnds = Arrays.copyOf(subtreeEnds, nodeCount);
+        this.minRanks = Arrays.copyOf(minRanks, nodeCount);
+    }
+
+    /**
+     * Returns the number of nodes, including the root.
+     *
+     * @return an int describing the number of nodes.
+     */
+    public int getNodeCount() {
+        return letters.length;
+    }
+
+    /**
+     * Returns the number of nodes visited while marking the ranks matching a parsed helper query, where the results
+     * are identical to {@link HelperIndex#match(char[], boolean[], int[], boolean, int)}, or -1 if the walk gave up.
+     *
+     * @param pattern  a char array holding uppercase letters or {@code *} for each position.
+     * @param excluded a boolean array indexed by letter describing the letters not allowed on {@code *} positions.
+     * @param required an int array indexed by letter describing the letters needed on {@code *} positions.
+     * @param matchAll a boolean describing whether {@code *} positions may hold letters not listed in
+     *                 <var>required</var>.
+     * @param limit    an int describing the number of leading ranks eligible, usually decided by difficulty.
+     * @param result   a {@code long} array large enough for every rank and cleared, whose bits of the matched ranks
+     *                 are set. It is cleared again if the walk gives up.
+     * @param budget   an int describing the number of nodes visited after which the walk gives up.
+     * @return an int describing the number of nodes visited, or -1 if the walk gave up.
+     */
+    public int match(char[] pattern, boolean[] excluded, int[] required, boolean matchAll, int limit, long[] result,
+                     int budget) {
+        int[] missing = Arrays.copyOf(required, LETTER_COUNT);
+        int missingTotal = 0;
+        for (int count : missing)
+            missingTotal += count;
+        // The number of * positions from each position on, which bounds the required letters still placeable.
+        int[] starsFrom = new int[wordLength + 1];
+        for (int i = wordLength - 1; i >= 0; i--)
+            starsFrom[i] = starsFrom[i + 1] + (pattern[i] == '*' ? 1 : 0);
+        if (missingTotal > starsFrom[0])
+            return 0;
+        int visited = walk(0, 0, pattern, excluded, missing, missingTotal, starsFrom, matchAll, limit, result, budget);
+        if (visited <= budget)
+            return visited;
+        Arrays.fill(result, 0);
+        return -1;
+    }
+
+    /**
+     * Returns the number of nodes visited below a node while marking the matched ranks below it.
+     *
+     * @param node         an int describing the node, whose letters so far can still match.
+     * @param depth        an int describing the depth of the node, which is the position of its children.
+     * @param pattern      a char array holding uppercase letters or {@code *} for each position.
+     * @param excluded     a boolean array indexed by letter describing the letters not allowed on {@code *}
+     *                     positions.
+     * @param missing      an int array indexed by letter describing the required letters not placed yet, which is
+     *                     restored before returning.
+     * @param missingTotal an int describing the sum of <var>missing</var>.
+     * @param starsFrom    an int array holding the number of {@code *} positions from each position on.
+     * @param matchAll     a boolean describing whether {@code *} positions may hold letters not listed in
+     *                     <var>required</var>.
+     * @param limit        an int describing the number of leading ranks eligible.
+     * @param result       a {@code long} array whose bits of the matched ranks are set.
+     * @param budget       an int describing the number of nodes left to visit, beyond which the walk stops early.
+     * @return an int describing the number of nodes visited, which is above <var>budget</var> if the walk stopped
+     * early.
+     */
+    private int walk(int node, int depth, char[] pattern, boolean[] excluded, int[] missing, int missingTotal,
+                     int[] starsFrom, boolean matchAll, int limit, long[] result, int budget) {
+        if (depth == wordLength) {
+            result[minRanks[node] >>> 6] |= 1L << (minRanks[node] & 63);
+            return 0;
+        }
+        int visited = 0;
+        int fixed = pattern[depth] == '*' ? -1 : pattern[depth] - 'A';
+        for (int child = node + 1; child < subtreeEnds[node] && visited <= budget; child = subtreeEnds[child]) {
+            visited++;
+            int letter = letters[child];
+            if (fixed >= 0) {
+                // Children are sorted, so nothing after the fixed letter can match.
+                if (letter > fixed)
+                    break;
+                if (letter == fixed && minRanks[child] < limit)
+                    visited += walk(child, depth + 1, pattern, excluded, missing, missingTotal, starsFrom, matchAll,
+                            limit, result, budget - visited);
+                continue;
+            }
+            if (minRanks[child] >= limit || excluded[letter])
+                continue;
+            boolean isRequired = missing[letter] > 0;
+            int newMissingTotal = isRequired ? missingTotal - 1 : missingTotal;
+            if (!isRequired && !matchAll || newMissingTotal > starsFrom[depth + 1])
+                continue;
+            if (isRequired)
+                missing[letter]--;
+            visited += walk(child, depth + 1, pattern, excluded, missing, newMissingTotal, starsFrom, matchAll, limit,
+                    result, budget - visited);
+            if (isRequired)
+                missing[letter]++;
+        }
+        return visited;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code Histogram} class records the distribution of non-negative values, such as latencies in microseconds,
+ * from many threads without locking.
+ *
+ * <p>
+ * Like an HDR histogram, values are counted in buckets whose width grows with the magnitude, so that every value is
+ * kept within about 3% of precision. Values below 2^{@link Histogram#PRECISION_BITS} have a bucket each, and every
+ * power of 2 above is split into 2^{@link Histogram#PRECISION_BITS} buckets of equal width, which takes about 2000
+ * counters for the whole range of {@code long}.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class Histogram {
+    /**
+     * A static constant holding the number of bits of precision kept of each value.
+     */
+    private static final int PRECISION_BITS = 5;
+
+    /**
+     * A static constant holding the number of buckets of each power of 2.
+     */
+    private static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+
+    /**
+     * An {@code AtomicLongArray} holding the count of each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray((64 - PRECISION_BITS + 1) * SUB_BUCKETS);
+
+    /**
+     * A {@code LongAdder} holding the number of values recorded.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * A {@code LongAdder} holding the sum of values recorded.
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * A {@code LongAccumulator} holding the greatest value recorded.
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * The {@code Snapshot} class holds the summary of a histogram at a point of time, which is what JMX clients read.
+     */
+    public static class Snapshot {
+        /**
+         * A {@code long} holding the number of values.
+         */
+        private final long count;
+
+        /**
+         * A double holding the mean of values.
+         */
+        private final double mean;
+
+        /**
+         * A {@code long} array holding the 50th, 90th, 99th and 99.9th percentiles.
+         */
+        private final long[] percentiles;
+
+        /**
+         * A {@code long} holding the greatest value.
+         */
+        private final long max;
+
+        /**
+         * The only constructor for class {@code Snapshot}.
+         *
+         * @param count       a {@code long} describing the number of values.
+         * @param mean        a double describing the mean of values.
+         * @param percentiles a {@code long} array holding the 50th, 90th, 99th and 99.9th percentiles.
+         * @param max         a {@code long} describing the greatest value.
+         */
+        private Snapshot(long count, double mean, long[] percentiles, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.percentiles = percentiles;
+            this.max = max;
+        }
+
+        /**
+         * Returns the number of values.
+         *
+         * @return a {@code long} describing the number of values.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the mean of values.
+         *
+         * @return a double describing the mean, which is 0 if no value has been recorded.
+         */
+        public double getMean() {
+            return mean;
+        }
+
+        /**
+         * Returns the median.
+         *
+         * @return a {@code long} describing the 50th percentile.
+         */
+        public long getP50() {
+            return percentiles[0];
+        }
+
+        /**
+         * Returns the 90th percentile.
+         *
+         * @return a {@code long} describing the 90th percentile.
+         */
+        public long getP90() {
+            return percentiles[1];
+        }
+
+        /**
+         * Returns the 99th percentile.
+         *
+         * @return a {@code long} describing the 99th percentile.
+         */
+        public long getP99() {
+            return percentiles[2];
+        }
+
+        /**
+         * Returns the 99.9th percentile.
+         *
+         * @return a {@code long} describing the 99.9th percentile.
+         */
+        public long getP999() {
+            return percentiles[3];
+        }
+
+        /**
+         * Returns the greatest value.
+         *
+         * @return a {@code long} describing the greatest value.
+         */
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d", count, mean,
+                    percentiles[0], percentiles[1], percentiles[2], percentiles[3], max);
+        }
+    }
+
+    /**
+     * This method records a value, where negative ones are recorded as 0.
+     *
+     * @param value a {@code long} describing the value.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(getBucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * This method records the time elapsed since a start in microseconds.
+     *
+     * @param startTime a {@code long} holding the start, as returned by {@link System#nanoTime()}.
+     */
+    public void recordSince(long startTime) {
+        record((System.nanoTime() - startTime) / 1000);
+    }
+
+    /**
+     * Returns the summary of values recorded so far. Values recorded meanwhile may be counted partly.
+     *
+     * @return a {@code Snapshot} holding the summary.
+     */
+    public Snapshot getSnapshot() {
+        long[] bucketCounts = new long[counts.length()];
+        long total = 0;
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++)
+            total += bucketCounts[bucket] = counts.get(bucket);
+        double[] quantiles = {0.5, 0.9, 0.99, 0.999};
+        long[] percentiles = new long[quantiles.length];
+        long seen = 0;
+        for (int bucket = 0, i = 0; bucket < bucketCounts.length && i < quantiles.length; bucket++) {
+            seen += bucketCounts[bucket];
+            // A percentile is the greatest value of the first bucket reaching it, as HDR histograms report.
+            while (i < quantiles.length && total > 0 && seen >= Math.ceil(quantiles[i] * total))
+                percentiles[i++] = Math.min(getHighestValue(bucket), max.get());
+        }
+        return new Snapshot(total, total == 0 ? 0 : (double) sum.sum() / count.sum(), percentiles, max.get());
+    }
+
+    /**
+     * This method drops every value recorded.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < counts.length(); bucket++)
+            counts.set(bucket, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * This static method returns the bucket of a value.
+     *
+     * @param value a non-negative {@code long} describing the value.
+     * @return an int describing the bucket.
+     */
+    private static int getBucket(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude < PRECISION_BITS)
+            return (int) value;
+        int shift = magnitude - PRECISION_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * This static method returns the greatest value counted by a bucket.
+     *
+     * @param bucket an int describing the bucket.
+     * @return a {@code long} describing the greatest value.
+     */
+    private static long getHighestValue(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        return ((long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift) + (1L << shift) - 1;
+    }
+}
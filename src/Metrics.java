@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The {@code Metrics} class collects named counters, gauges and latency histograms of {@link Service}, {@link Game}
+ * and {@link GameServer}, and publishes them over JMX.
+ *
+ * <p>
+ * Counters and histograms are created on first use and never removed, so callers may look them up on every event.
+ * Latencies are recorded in microseconds.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class Metrics implements MetricsMXBean {
+    /**
+     * A static constant holding the name of the MBean.
+     */
+    public static final String OBJECT_NAME = "eWordle:type=Metrics";
+
+    /**
+     * A static {@code Metrics} holding the only instance.
+     */
+    private static Metrics metrics;
+
+    /**
+     * A {@code ConcurrentHashMap} holding counters by name.
+     */
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    /**
+     * A {@code ConcurrentHashMap} holding gauges by name, which are read when metrics are listed.
+     */
+    private final ConcurrentHashMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * A {@code ConcurrentHashMap} holding histograms by name.
+     */
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * This method returns the only instance of Metrics, which is registered to the platform MBean server on creation.
+     *
+     * <p>
+     * Starting the platform MBean server takes a few hundred milliseconds, so it is done by a daemon thread instead of
+     * delaying the launch.
+     *
+     * @return the only instance of Metrics.
+     */
+    public static synchronized Metrics getInstance() {
+        if (metrics == null) {
+            metrics = new Metrics();
+            Thread thread = new Thread(metrics::register, "eWordle metrics registration");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return metrics;
+    }
+
+    /**
+     * This method registers this instance to the platform MBean server as {@link Metrics#OBJECT_NAME}.
+     */
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            System.out.println("Unable to register metrics: " + e);
+        }
+    }
+
+    /**
+     * Returns the counter of a name, which is created if absent.
+     *
+     * @param name a String describing the name.
+     * @return a {@code LongAdder} holding the counter.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Returns the histogram of a name, which is created if absent.
+     *
+     * @param name a String describing the name.
+     * @return a {@code Histogram} holding the values.
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * This method registers a gauge, replacing any gauge of the same name.
+     *
+     * @param name  a String describing the name.
+     * @param gauge a {@code LongSupplier} providing the value when metrics are listed.
+     */
+    public void registerGauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Histogram.Snapshot> getHistograms() {
+        Map<String, Histogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, histogram.getSnapshot()));
+        return snapshots;
+    }
+
+    @Override
+    public String dump(String fileName) {
+        File file = new File(fileName);
+        try {
+            dump(file);
+            return file.getAbsolutePath();
+        } catch (IOException e) {
+            return "Unable to dump metrics: " + e;
+        }
+    }
+
+    /**
+     * This method writes every metric into a text file, one per line, with counters before histograms.
+     *
+     * @param file a {@code File} describing the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void dump(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            getCounters().forEach((name, value) -> writer.println(name + " " + value));
+            getHistograms().forEach((name, snapshot) -> writer.println(name + " " + snapshot));
+        }
+    }
+
+    @Override
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+        histograms.values().forEach(Histogram::reset);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.Map;
+
+/**
+ * The {@code MetricsMXBean} interface is the management interface of {@link Metrics}, which JMX clients such as
+ * JConsole see as the MBean {@code eWordle:type=Metrics}.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public interface MetricsMXBean {
+    /**
+     * Returns the value of every counter and gauge.
+     *
+     * @return a {@code Map} from names to values.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns the summary of every histogram.
+     *
+     * @return a {@code Map} from names to summaries.
+     */
+    Map<String, Histogram.Snapshot> getHistograms();
+
+    /**
+     * This method writes every metric into a text file.
+     *
+     * @param fileName a String describing the path of the file.
+     * @return a String describing the absolute path written, or the error reason.
+     */
+    String dump(String fileName);
+
+    /**
+     * This method drops every counter and histogram, while gauges are left alone.
+     */
+    void reset();
+}
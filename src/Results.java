@@ -25,6 +25,7 @@ import java.awt.datatransfer.StringSelection;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The {@code Results} class manages a result window that enables user to see the result and choose whether to restart
@@ -130,7 +131,7 @@ public class Results {
         windowPanel.setPreferredSize(new Dimension(WINDOW_WIDTH, WINDOW_HEIGHT));
         window.add(windowPanel);
         window.pack();
-        windowPanel.setBackground(new Color(238, 238, 238));
+        windowPanel.setBackground(Settings.BACKGROUND_COLOR);
         windowPanel.setLayout(null);
 
         // Add result board to the window.
@@ -169,8 +170,9 @@ public class Results {
         JButton toRestart = Settings.initButton("Restart",
                 CONTENT_MARGIN * 2 + (CONTENT_WIDTH - CONTENT_MARGIN) / 2, currentHeight,
                 (CONTENT_WIDTH - CONTENT_MARGIN) / 2, CONTENT_HEIGHT, 50, event -> {
-                    Game.createInstance().playGame(Settings.getWordSource(), Settings.getInitWord(),
-                            Settings.getCurrentHashtag());
+                    Settings.getInstance().launchWhenLoaded(Settings.getInitWord().length(),
+                            Settings.getWordSource(), () -> Game.createInstance().playGame(Settings.getWordSource(),
+                                    Settings.getInitWord(), Settings.getCurrentHashtag()));
                     window.setVisible(false);
                 });
         toRestart.setToolTipText("Use current preferences with the same word");
@@ -185,18 +187,9 @@ public class Results {
         currentHeight += CONTENT_MARGIN;
         JButton shareResult = Settings.initButton("Share", CONTENT_MARGIN, currentHeight,
                 CONTENT_WIDTH, CONTENT_HEIGHT, 50, event -> {
-                    StringBuilder resultStr = new StringBuilder();
-                    resultStr.append("eWordle ").append(isOpenedHelper ? "*" : "").append(isSuccess ? triesUsed : "X")
-                            .append("/").append(Settings.getInitWord().length() + 1).append("\n");
-                    resultStr.append(Settings.getCurrentHashtag()).append("\n").append("\n");
-                    final int initWordLength = Settings.getInitWord().length();
-                    for (int i = 0; i < scoreByOrder.size(); i++) {
-                        int score = scoreByOrder.get(i);
-                        resultStr.append(score == 0 ? "x" : (score == 1 ? "o" : "v"));
-                        if (i % initWordLength + 1 == initWordLength)
-                            resultStr.append("\n");
-                    }
-                    StringSelection stringSelection = new StringSelection(resultStr.toString());
+                    StringSelection stringSelection = new StringSelection(getShareText(
+                            Settings.getInitWord().length(), Settings.getCurrentHashtag(), triesUsed, isSuccess,
+                            scoreByOrder, isOpenedHelper));
                     Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
                     clipboard.setContents(stringSelection, null);
                     copiedReminder.setText("Copied to clipboard.");
@@ -220,6 +213,33 @@ public class Results {
         return Results.instance;
     }
 
+    /**
+     * Returns the text shared by the user, which is copied to clipboard by the window and returned by
+     * {@code GameServer}.
+     *
+     * @param initWordLength an int describing the length of the word guessed.
+     * @param hashtag        a String holding the hashtag of the game.
+     * @param tries          an int describing the number of tries used.
+     * @param isSuccess      a boolean describing the final status of the game.
+     * @param scoreByOrder   a {@code List} holding scored typed word history.
+     * @param isOpenedHelper a boolean holding the status that whether the user opened helper window.
+     * @return a String holding the text to be shared.
+     */
+    public static String getShareText(int initWordLength, String hashtag, int tries, boolean isSuccess,
+                                      List<Integer> scoreByOrder, boolean isOpenedHelper) {
+        StringBuilder resultStr = new StringBuilder();
+        resultStr.append("eWordle ").append(isOpenedHelper ? "*" : "").append(isSuccess ? tries : "X")
+                .append("/").append(initWordLength + 1).append("\n");
+        resultStr.append(hashtag).append("\n").append("\n");
+        for (int i = 0; i < scoreByOrder.size(); i++) {
+            int score = scoreByOrder.get(i);
+            resultStr.append(score == 0 ? "x" : (score == 1 ? "o" : "v"));
+            if (i % initWordLength + 1 == initWordLength)
+                resultStr.append("\n");
+        }
+        return resultStr.toString();
+    }
+
     /**
      * This static method shows result window with given parameters.
      *
@@ -238,8 +258,7 @@ public class Results {
         triesUsed = tries;
         window.setLocationRelativeTo(null);
         resultBoard.setText(isSuccess ? "Success" : "Failed");
-        Game.setColor(resultBoard, isSuccess ? new Color(121, 167, 107) : new Color(121, 124, 126),
-                Color.white);
+        Game.setColor(resultBoard, isSuccess ? Game.CORRECT_COLOR : Game.ABSENT_COLOR, Color.white);
         wordBoard.setText(initWord);
         triesBoard.setText("Tries Used:" + (isOpenedHelper ? "*" : "") + tries);
         window.setVisible(true);
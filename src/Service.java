@@ -22,38 +22,220 @@
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 
 /**
  * The {@code Service} class loads words from {@code Trimmed.csv} and stores indexes of those words, providing all the
  * functionalities related to word sources.
  *
+ * <p>
+ * Once {@link Service#watchWordSources()} is called, every csv file in the {@code Word Sources} folder is watched. A
+ * change publishes a new {@code WordStore} at once, whose lengths left unchanged share the arrays and indexes of the
+ * older one. Callers holding the older store, such as games in progress, keep using it.
+ *
  * @author Mingchun Zhuang
  * @version 1.0
  */
 public class Service {
+    /**
+     * A static constant holding the number of {@code long} blocks, 64 ranks each, matched between two checks of
+     * cancellation during a helper search.
+     */
+    private static final int HELPER_CHUNK_BLOCKS = 64;
+
+    /**
+     * A static constant holding the number of bitset blocks combined in about the time a trie node is visited, which
+     * converts the cost of a scan into the budget of a trie walk.
+     */
+    private static final int SCAN_BLOCKS_PER_TRIE_NODE = 64;
+
+    /**
+     * A static constant holding the number of helper results kept in {@link Service#helperCache}.
+     */
+    private static final int HELPER_CACHE_SIZE = 128;
+
     /**
      * A static variable storing the only one instance instantiated.
      */
     private static Service instance;
 
     /**
-     * A nested HashMap storing the difficulty of words from the given source, which should be attained by
-     * <var>length</var> and then the word itself.
+     * A static constant holding the number of recent stores kept by generation, which is a power of 2.
+     */
+    private static final int STORE_GENERATIONS = 16;
+
+    /**
+     * A {@code WordStore} holding the packed words from the given source, which is {@code null} until initialized.
+     * It is replaced as a whole when word sources change, so methods reading it more than once copy it into a local
+     * variable first, never mixing two stores.
+     */
+    private volatile WordStore wordStore;
+
+    /**
+     * An int holding the number of times the store has been replaced.
+     */
+    private volatile int generation;
+
+    /**
+     * An {@code AtomicReferenceArray} holding the recent stores, each at its generation modulo
+     * {@link Service#STORE_GENERATIONS}.
+     */
+    private final AtomicReferenceArray<PinnedStore> storeByGeneration = new AtomicReferenceArray<>(STORE_GENERATIONS);
+
+    /**
+     * A {@code List} holding the listeners called with the oldest generation kept once a new store is published.
      */
-    private HashMap<Integer, HashMap<String, Integer>> indexByLength;
+    private final List<IntConsumer> reloadListeners = new CopyOnWriteArrayList<>();
 
     /**
-     * A nested HashMap storing the words from the given source, which should be attained first by
-     * <var>length</var> and then <var>difficulty</var>.
+     * A {@code WordSourceFolder} holding the word sources mounted, or {@code null} until initialized.
      */
-    private HashMap<Integer, HashMap<Integer, ArrayList<String>>> wordByLengthThenDifficulty;
+    private WordSourceFolder wordSourceFolder;
+
+    /**
+     * A boolean holding the status that whether stores are kept compact, including those published by reloads.
+     */
+    private volatile boolean isCompact;
+
+    /**
+     * A {@code CompletableFuture} completed with the result of {@link Service#initService(String[], String[])} once
+     * it returns.
+     */
+    private final CompletableFuture<String> initialization = new CompletableFuture<>();
 
     /**
      * A HashMap storing the <var>difficulty</var> of <var>wordSource</var>
      */
     private HashMap<String, Integer> difficultyByWordSource;
 
+    /**
+     * A HashMap storing the {@code HelperIndex} of each <var>length</var>, which is built on first use and whose ranks
+     * follow {@link WordStore#getCodes(int)}.
+     */
+    private HashMap<Integer, HelperIndex> helperIndexByLength;
+
+    /**
+     * A {@code LinkedHashMap} holding the recent helper results ordered by access, where the eldest one is dropped once
+     * there are more than {@link Service#HELPER_CACHE_SIZE}. It is guarded by itself.
+     */
+    private final LinkedHashMap<HelperQuery, HelperResult> helperCache =
+            new LinkedHashMap<>(HELPER_CACHE_SIZE * 2, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<HelperQuery, HelperResult> eldest) {
+                    return size() > HELPER_CACHE_SIZE;
+                }
+            };
+
+    /**
+     * A {@code LongAdder} holding the number of helper searches answered by {@link Service#helperCache}.
+     */
+    private final LongAdder helperCacheHits = Metrics.getInstance().counter("helper.cacheHits");
+
+    /**
+     * A {@code LongAdder} holding the number of helper searches that have to scan the index.
+     */
+    private final LongAdder helperCacheMisses = Metrics.getInstance().counter("helper.cacheMisses");
+
+    /**
+     * A {@code Histogram} holding the latency of helper searches in microseconds, including invalid ones.
+     */
+    private final Histogram helperLatency = Metrics.getInstance().histogram("helper.latencyMicros");
+
+    /**
+     * A {@code Histogram} holding the number of words matched by valid helper searches.
+     */
+    private final Histogram helperResultSize = Metrics.getInstance().histogram("helper.resultSize");
+
+    /**
+     * A {@code Histogram} holding the number of trie nodes visited by helper searches answered by a trie walk.
+     */
+    private final Histogram helperTrieVisits = Metrics.getInstance().histogram("helper.trieVisits");
+
+    /**
+     * A {@code LongAdder} holding the number of helper searches whose trie walk gave up and scanned the index instead.
+     */
+    private final LongAdder helperTrieFallbacks = Metrics.getInstance().counter("helper.trieFallbacks");
+
+    /**
+     * A {@code LongAdder} holding the number of words checked by {@link Service#checkExistence(String, String)}.
+     */
+    private final LongAdder existenceChecks = Metrics.getInstance().counter("service.existenceChecks");
+
+    /**
+     * A {@code LongAdder} holding the number of checked words found in the word source.
+     */
+    private final LongAdder existenceHits = Metrics.getInstance().counter("service.existenceHits");
+
+    /**
+     * A {@code LongAdder} holding the number of random words drawn.
+     */
+    private final LongAdder randomDraws = Metrics.getInstance().counter("service.randomDraws");
+
+    /**
+     * A WeakHashMap storing, for each store, the future {@code FeedbackMatrix} of each <var>length</var> and
+     * <var>difficulty</var> joined by a dot, which is mapped on first use. A future completed with {@code null}
+     * remembers a missing matrix, so the file is not checked again on every ranking.
+     */
+    private final Map<WordStore, ConcurrentHashMap<String, CompletableFuture<FeedbackMatrix>>> feedbackMatricesByStore =
+            new WeakHashMap<>();
+
+    /**
+     * A {@code RandomGenerator} drawing random words, which may be replaced by a seeded one.
+     */
+    private volatile RandomGenerator random = new SplittableRandom();
+
+    /**
+     * An {@code ExecutorService} holding the background thread that loads partitions ahead of use.
+     */
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "eWordle dictionary loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The {@code PinnedStore} class holds a recent store together with its generation, so that a slot reused by a
+     * newer store is never taken for an older one.
+     */
+    private static class PinnedStore {
+        /**
+         * An int holding the generation of the store.
+         */
+        private final int generation;
+
+        /**
+         * A {@code WordStore} holding the words of that generation.
+         */
+        private final WordStore wordStore;
+
+        /**
+         * The only constructor for class {@code PinnedStore}.
+         *
+         * @param generation an int describing the generation of the store.
+         * @param wordStore  a {@code WordStore} holding the words of that generation.
+         */
+        private PinnedStore(int generation, WordStore wordStore) {
+            this.generation = generation;
+            this.wordStore = wordStore;
+        }
+    }
+
     /**
      * Returns an instance of current class, where only one copy of instance will exist.
      *
@@ -68,6 +250,17 @@ public class Service {
         return Service.instance;
     }
 
+    /**
+     * Returns a new instance of current class, where the older copy of this class, if exists, will be eligible for
+     * garbage collection. It is used by benchmarks measuring initialization from scratch.
+     *
+     * @return a new instance of current class.
+     */
+    static Service createInstance() {
+        Service.instance = new Service();
+        return Service.instance;
+    }
+
     /**
      * Returns a string representation of initialization results.
      *
@@ -80,22 +273,367 @@ public class Service {
      * @return a string representation of initialization results.
      */
     public String initService(String[] wordSources, String[] wordLengths) {
+        String result = loadWordSources(wordSources, wordLengths);
+        storeByGeneration.set(generation & (STORE_GENERATIONS - 1), new PinnedStore(generation, wordStore));
+        Metrics.getInstance().registerGauge("dictionary.residentBytes", () -> {
+            WordStore wordStore = this.wordStore;
+            return wordStore == null ? 0 : wordStore.getMemoryBytes();
+        });
+        initialization.complete(result);
+        return result;
+    }
+
+    /**
+     * Returns a future completed with the results of {@link Service#initService(String[], String[])}, which runs on
+     * the background thread, so that windows can be built meanwhile.
+     *
+     * @param wordSources a String array containing word sources ordered by difficulty increasingly.
+     * @param wordLengths a String array containing word lengths ordered increasingly.
+     * @return a {@code CompletableFuture} completed with a string representation of initialization results.
+     */
+    public CompletableFuture<String> initServiceAsync(String[] wordSources, String[] wordLengths) {
+        loader.execute(() -> {
+            try {
+                initService(wordSources, wordLengths);
+            } catch (RuntimeException e) {
+                initialization.complete(e.toString());
+            }
+        });
+        return initialization;
+    }
+
+    /**
+     * Returns a future completed with the results of initialization, whether it runs on the background thread or not.
+     *
+     * @return a {@code CompletableFuture} completed with a string representation of initialization results, which is
+     * empty if the initialization succeeds.
+     */
+    public CompletableFuture<String> whenInitialized() {
+        return initialization;
+    }
+
+    /**
+     * Returns a string representation of loading the word sources for {@link Service#initService(String[], String[])}.
+     *
+     * @param wordSources a String array containing word sources ordered by difficulty increasingly.
+     * @param wordLengths a String array containing word lengths ordered increasingly.
+     * @return a string representation of initialization results.
+     */
+    private String loadWordSources(String[] wordSources, String[] wordLengths) {
         final int minLength = Integer.parseInt(wordLengths[0]);
         final int maxLength = Integer.parseInt(wordLengths[wordLengths.length - 1]);
         difficultyByWordSource = new HashMap<>();
         for (int i = 0; i < wordSources.length; i++)
             difficultyByWordSource.put(wordSources[i], i + 1);
-        indexByLength = new HashMap<>();
-        wordByLengthThenDifficulty = new HashMap<>();
+        helperIndexByLength = new HashMap<>();
+
+        /* Map words from the snapshot, whose partitions are loaded on first use, and only parse the word sources if the
+        snapshot is missing or stale, or other word sources are mounted. */
+        File csvFile = locateWordSource("Trimmed.csv");
+        wordSourceFolder = new WordSourceFolder(csvFile, minLength, maxLength, wordSources.length);
+        boolean isDefaultOnly = wordSourceFolder.isDefaultOnly();
+        DictionarySnapshot snapshot = isDefaultOnly ? DictionarySnapshot.open(
+                DictionarySnapshot.getSnapshotFile(csvFile), csvFile, minLength, maxLength, wordSources.length) : null;
+        if (snapshot != null) {
+            wordStore = new WordStore(minLength, snapshot);
+            return "";
+        }
+        long startTime = System.nanoTime();
+        try {
+            wordStore = wordSourceFolder.parse(List.of());
+        } catch (Exception e) {
+            return e.toString();
+        }
+        Metrics.getInstance().histogram("dictionary.parseMicros").recordSince(startTime);
+        if (isDefaultOnly)
+            writeSnapshot(wordStore);
+        return "";
+    }
+
+    /**
+     * This method writes the dictionary snapshot of the default word source, which only speeds up later launches, so
+     * the game goes on without it if it cannot be written.
+     *
+     * @param wordStore a fully loaded {@code WordStore} holding the words of the default word source.
+     */
+    private void writeSnapshot(WordStore wordStore) {
+        try {
+            wordSourceFolder.writeSnapshot(wordStore);
+        } catch (IOException e) {
+            System.out.println("Unable to write dictionary snapshot: " + e);
+        }
+    }
+
+    /**
+     * This method keeps every word in a {@code FrontCodedDictionary} from now on, which takes a fraction of the heap
+     * of the packed arrays. Existence checks, ranks and random words are then served without loading any block, while
+     * helper searches and candidate sets still load the blocks they scan. Ranks stay the same, so games in progress
+     * are not affected. It should be called after a successful initialization.
+     */
+    public synchronized void compactWordStore() {
+        isCompact = true;
+        WordStore compacted = wordStore.compact();
+        storeByGeneration.set(generation & (STORE_GENERATIONS - 1), new PinnedStore(generation, compacted));
+        wordStore = compacted;
+    }
+
+    /**
+     * This method starts watching the word sources mounted, so that changes are published without a restart. It
+     * should be called once after a successful initialization.
+     */
+    public void watchWordSources() {
+        wordSourceFolder.watch(this::reload);
+    }
+
+    /**
+     * This method registers a listener called before every store is published, with the oldest generation still kept
+     * afterwards. Ranks of older generations can no longer be looked up.
+     *
+     * @param listener an {@code IntConsumer} accepting the oldest generation kept, which is called from the watching
+     *                 thread.
+     */
+    public void addReloadListener(IntConsumer listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * This method publishes the words parsed again from the word sources, rebuilding only the lengths changed. Games
+     * in progress keep the store they started with, while later calls see the new one at once.
+     *
+     * @param source a fully loaded {@code WordStore} holding the words of every mounted word source.
+     */
+    private void reload(WordStore source) {
+        long startTime = System.nanoTime();
+        List<Integer> changedLengths = new ArrayList<>();
+        WordStore updatedWordStore = wordStore.update(source, changedLengths);
+        if (changedLengths.isEmpty())
+            return;
+        // The snapshot is written from the packed arrays, which a compact store no longer keeps.
+        WordStore newWordStore = isCompact ? updatedWordStore.compact() : updatedWordStore;
+        int newGeneration = generation + 1;
+        for (IntConsumer listener : reloadListeners)
+            listener.accept(newGeneration - STORE_GENERATIONS + 1);
+        synchronized (this) {
+            storeByGeneration.set(newGeneration & (STORE_GENERATIONS - 1),
+                    new PinnedStore(newGeneration, newWordStore));
+            wordStore = newWordStore;
+            generation = newGeneration;
+            // Indexes of the lengths changed are built again on first use.
+            for (int wordLength : changedLengths)
+                helperIndexByLength.remove(wordLength);
+        }
+        clearHelperCache();
+        Metrics.getInstance().counter("dictionary.reloads").increment();
+        Metrics.getInstance().histogram("dictionary.reloadMicros").recordSince(startTime);
+        System.out.println("Reloaded word sources, lengths changed: " + changedLengths);
+        if (wordSourceFolder.isDefaultOnly())
+            writeSnapshot(updatedWordStore);
+    }
+
+    /**
+     * Returns whether the words of given length and word source are loaded, so that drawing random words and helper
+     * queries will not wait for loading.
+     *
+     * @param wordLength an int describing the length of words.
+     * @param wordSource a String representing the difficulty level of current setting.
+     * @return a boolean describing whether the partitions are loaded.
+     */
+    public boolean isReady(int wordLength, String wordSource) {
+        WordStore wordStore = this.wordStore;
+        return wordStore != null && wordStore.isLoaded(wordLength, difficultyByWordSource.get(wordSource));
+    }
+
+    /**
+     * Returns a future completed once the words of given length and word source are loaded by the background
+     * thread, which waits for initialization first if it is still running.
+     *
+     * @param wordLength an int describing the length of words.
+     * @param wordSource a String representing the difficulty level of current setting.
+     * @return a {@code CompletableFuture} completed when the partitions are loaded.
+     */
+    public CompletableFuture<Void> prefetch(int wordLength, String wordSource) {
+        if (!initialization.isDone())
+            return initialization.thenCompose(result -> prefetch(wordLength, wordSource));
+        WordStore wordStore = this.wordStore;
+        if (wordStore == null || isReady(wordLength, wordSource))
+            return CompletableFuture.completedFuture(null);
+        int difficulty = difficultyByWordSource.get(wordSource);
+        return CompletableFuture.runAsync(() -> wordStore.ensureLoaded(wordLength, difficulty), loader);
+    }
+
+    /**
+     * Returns a new {@code CandidateSet} starting from every word of given length and word source, loading them first
+     * if needed.
+     *
+     * @param wordLength an int describing the length of words.
+     * @param wordSource a String representing the difficulty level of current setting.
+     * @return a {@code CandidateSet} to be narrowed by the guesses of a game.
+     */
+    public CandidateSet createCandidateSet(int wordLength, String wordSource) {
+        WordStore wordStore = this.wordStore;
+        int difficulty = difficultyByWordSource.get(wordSource);
+        wordStore.ensureLoaded(wordLength, difficulty);
+        return new CandidateSet(wordStore, wordLength, wordStore.count(wordLength, difficulty));
+    }
+
+    /**
+     * Returns the guesses revealing the most information about the answer among given candidates, where every word of
+     * given length and word source may be guessed.
+     *
+     * @param wordStore      a {@code WordStore} holding the candidates, usually from
+     *                       {@link CandidateSet#getWordStore()}, which may be older than the current store.
+     * @param wordLength     an int describing the length of words.
+     * @param wordSource     a String representing the difficulty level of current setting.
+     * @param candidateRanks an int array holding the ranks of the candidates, usually from
+     *                       {@link CandidateSet#getRanks()}.
+     * @param count          an int describing the number of guesses to be returned.
+     * @param isCancelled    a {@code BooleanSupplier} telling whether the ranking is no longer needed.
+     * @return a {@code Solver.RankedGuess} array sorted by expected information, or {@code null} if cancelled.
+     */
+    public Solver.RankedGuess[] rankGuesses(WordStore wordStore, int wordLength, String wordSource,
+                                            int[] candidateRanks, int count, BooleanSupplier isCancelled) {
+        int difficulty = difficultyByWordSource.get(wordSource);
+        wordStore.ensureLoaded(wordLength, difficulty);
+        long[] guessCodes = Arrays.copyOf(wordStore.getCodes(wordLength), wordStore.count(wordLength, difficulty));
+        // Only a matrix built earlier is used, as building one takes far longer than a single ranking.
+        return new Solver(wordLength, guessCodes, candidateRanks,
+                getFeedbackMatrix(wordStore, wordLength, wordSource, false)).rank(count, isCancelled);
+    }
+
+    /**
+     * Returns the {@code FeedbackMatrix} of words with given length and word source, which is mapped from its file,
+     * or built and written first if missing and allowed.
+     *
+     * @param wordLength       an int describing the length of words.
+     * @param wordSource       a String representing the difficulty level of current setting.
+     * @param isBuiltIfMissing a boolean describing whether a missing or stale matrix should be built.
+     * @return a {@code FeedbackMatrix} whose ranks follow {@link WordStore#getCodes(int)}, or {@code null} if it is
+     * missing and not built, or cannot be written.
+     */
+    public FeedbackMatrix getFeedbackMatrix(int wordLength, String wordSource, boolean isBuiltIfMissing) {
+        return getFeedbackMatrix(wordStore, wordLength, wordSource, isBuiltIfMissing);
+    }
+
+    /**
+     * Returns the {@code FeedbackMatrix} of words with given length and word source in given store, which is kept per
+     * store, so a replaced store only maps a matrix whose file still matches its words. The file is opened or built
+     * outside the lock of this service, once per partition, while other callers of the same partition wait for it.
+     *
+     * @param wordStore        a {@code WordStore} holding the words, which may be older than the current store.
+     * @param wordLength       an int describing the length of words.
+     * @param wordSource       a String representing the difficulty level of current setting.
+     * @param isBuiltIfMissing a boolean describing whether a missing or stale matrix should be built.
+     * @return a {@code FeedbackMatrix} whose ranks follow {@link WordStore#getCodes(int)} of <var>wordStore</var>,
+     * or {@code null} if it is missing and not built, or cannot be written.
+     */
+    private FeedbackMatrix getFeedbackMatrix(WordStore wordStore, int wordLength, String wordSource,
+                                             boolean isBuiltIfMissing) {
+        int difficulty = difficultyByWordSource.get(wordSource);
+        String key = wordLength + "." + difficulty;
+        ConcurrentHashMap<String, CompletableFuture<FeedbackMatrix>> matrices;
+        synchronized (feedbackMatricesByStore) {
+            matrices = feedbackMatricesByStore.computeIfAbsent(wordStore, store -> new ConcurrentHashMap<>());
+        }
+        File matrixFile = FeedbackMatrix.getMatrixFile(locateWordSource("Trimmed.csv"), wordLength, difficulty);
+        while (true) {
+            CompletableFuture<FeedbackMatrix> future = matrices.get(key);
+            if (future == null) {
+                CompletableFuture<FeedbackMatrix> opening = new CompletableFuture<>();
+                if (matrices.putIfAbsent(key, opening) != null)
+                    continue;
+                // The file is checked against the codes, so a matrix written for other words is never mapped.
+                completeMatrix(matrices, key, opening, () ->
+                        FeedbackMatrix.open(matrixFile, wordLength, copyCodes(wordStore, wordLength, difficulty)));
+                future = opening;
+            }
+            FeedbackMatrix feedbackMatrix = future.join();
+            if (feedbackMatrix != null || !isBuiltIfMissing)
+                return feedbackMatrix;
+            // Only the caller replacing the missing matrix builds it, while the others wait for the build.
+            CompletableFuture<FeedbackMatrix> building = new CompletableFuture<>();
+            if (!matrices.replace(key, future, building))
+                continue;
+            completeMatrix(matrices, key, building, () -> {
+                try {
+                    return FeedbackMatrix.build(matrixFile, wordLength, copyCodes(wordStore, wordLength, difficulty),
+                            ForkJoinPool.commonPool());
+                } catch (IOException e) {
+                    System.out.println("Unable to write feedback matrix: " + e);
+                    return null;
+                }
+            });
+            return building.join();
+        }
+    }
 
-        /* Load words from word source. */
+    /**
+     * This static method completes the future of a matrix with the matrix loaded, and drops the future if loading
+     * fails, so that the next caller tries again.
+     *
+     * @param matrices a {@code ConcurrentHashMap} holding the futures of the matrices of a store.
+     * @param key      a String describing the partition of the matrix.
+     * @param future   a {@code CompletableFuture} to be completed, which is mapped to <var>key</var>.
+     * @param loader   a {@code Supplier} returning the matrix, or {@code null} if it is missing.
+     */
+    private static void completeMatrix(ConcurrentHashMap<String, CompletableFuture<FeedbackMatrix>> matrices,
+                                       String key, CompletableFuture<FeedbackMatrix> future,
+                                       Supplier<FeedbackMatrix> loader) {
         try {
-            /* Word source file location may vary due to different running methods including running as a project or as
-            a single file. */
-            String FilePath = (new File("./Word Sources/Trimmed.csv").exists() ? "./Word Sources/" :
-                    "./src/Word Sources/") + "Trimmed.csv";
-            FileReader fileReader = new FileReader(FilePath);
-            BufferedReader bufReader = new BufferedReader(fileReader);
+            future.complete(loader.get());
+        } catch (RuntimeException e) {
+            matrices.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * This static method returns a copy of the codes of given length and difficulty, loading them first if needed.
+     *
+     * @param wordStore  a {@code WordStore} holding the words.
+     * @param wordLength an int describing the length of words.
+     * @param difficulty an int describing the highest difficulty of words.
+     * @return a {@code long} array holding the codes, as ranked by {@link WordStore#getCodes(int)}.
+     */
+    private static long[] copyCodes(WordStore wordStore, int wordLength, int difficulty) {
+        wordStore.ensureLoaded(wordLength, difficulty);
+        return Arrays.copyOf(wordStore.getCodes(wordLength), wordStore.count(wordLength, difficulty));
+    }
+
+    /**
+     * Returns the location of a file under the {@code Word Sources} folder.
+     *
+     * <p>
+     * Word source file location may vary due to different running methods including running as a project or as a
+     * single file.
+     *
+     * @param fileName a String describing the name of the file.
+     * @return a {@code File} describing the location of the file.
+     */
+    public static File locateWordSource(String fileName) {
+        return new File((new File("./Word Sources/" + fileName).exists() ? "./Word Sources/" :
+                "./src/Word Sources/") + fileName);
+    }
+
+    /**
+     * Returns a {@code WordStore} holding the words parsed from a word source in csv format line by line.
+     *
+     * <p>
+     * This is the reference loader that {@code CsvIngest} is compared with, while the parallel one is used for
+     * loading.
+     *
+     * @param csvFile          a {@code File} describing the word source, where each line is "word,difficulty".
+     * @param minLength        an int describing the shortest word length to be kept.
+     * @param maxLength        an int describing the longest word length to be kept.
+     * @param difficultyLevels an int describing the number of difficulty levels.
+     * @return a {@code WordStore} holding the words parsed.
+     * @throws IOException if the word source cannot be read.
+     */
+    public static WordStore parseCsv(File csvFile, int minLength, int maxLength, int difficultyLevels)
+            throws IOException {
+        long[][] keysByLength = new long[maxLength - minLength + 1][1024];
+        int[] sizesByLength = new int[keysByLength.length];
+        try (BufferedReader bufReader = new BufferedReader(new FileReader(csvFile))) {
             for (String curLine = bufReader.readLine(); curLine != null; curLine = bufReader.readLine()) {
                 /* The word source is in csv format, where items are separated by a single comma. */
                 String[] items = curLine.split(",");
@@ -105,21 +643,19 @@ public class Service {
                 String word = items[0].toUpperCase();
                 int wordLength = word.length();
                 /* Ignore the words that are impossible to be requested. */
-                if (wordLength < minLength || wordLength > maxLength)
+                if (wordLength < minLength || wordLength > maxLength || difficulty < 1 ||
+                        difficulty > difficultyLevels)
                     continue;
-                indexByLength.putIfAbsent(wordLength, new HashMap<>());
-                indexByLength.get(wordLength).put(word, difficulty);
-
-                wordByLengthThenDifficulty.putIfAbsent(wordLength, new HashMap<>());
-                HashMap<Integer, ArrayList<String>> currentWordByLengthThenDifficulty =
-                        wordByLengthThenDifficulty.get(wordLength);
-                currentWordByLengthThenDifficulty.putIfAbsent(difficulty, new ArrayList<>());
-                currentWordByLengthThenDifficulty.get(difficulty).add(word);
+                long key = WordStore.toKey(word, difficulty);
+                if (key < 0)
+                    continue;
+                int index = wordLength - minLength;
+                if (sizesByLength[index] == keysByLength[index].length)
+                    keysByLength[index] = Arrays.copyOf(keysByLength[index], sizesByLength[index] * 2);
+                keysByLength[index][sizesByLength[index]++] = key;
             }
-        } catch (Exception e) {
-            return e.toString();
         }
-        return "";
+        return new WordStore(minLength, difficultyLevels, keysByLength, sizesByLength);
     }
 
     /**
@@ -138,18 +674,133 @@ public class Service {
      * @return a string representation of checking results.
      */
     public String checkExistence(String word, String wordSource) {
+        return checkExistence(wordStore, word, wordSource);
+    }
+
+    /**
+     * Returns a string representation of checking results like {@link Service#checkExistence(String, String)}, in
+     * given store instead of the current one, so that a game checks its guesses against the words it started with.
+     *
+     * @param wordStore  a {@code WordStore} holding the words checked.
+     * @param word       an uppercase String to be checked in the difficulty level of <var>wordSource</var>.
+     * @param wordSource a String representing the difficulty level of current setting.
+     * @return a string representation of checking results.
+     */
+    public String checkExistence(WordStore wordStore, String word, String wordSource) {
         if (word.length() == 0) return "";
+        existenceChecks.increment();
         int difficulty = difficultyByWordSource.get(wordSource);
-        int length = word.length();
-        if (!indexByLength.containsKey(length) || !indexByLength.get(length).containsKey(word))
+        int wordDifficulty = wordStore.findDifficulty(word);
+        if (wordDifficulty == 0)
             return "Not Found";
-        if (indexByLength.get(length).get(word) > difficulty)
+        if (wordDifficulty > difficulty)
             return "The word is too difficult";
+        existenceHits.increment();
         return "";
     }
 
     /**
-     * Returns a random word with {@code O(1)} time complexity under given restrictions.
+     * Returns the rank of a word among the words of its length, which is how compact game sessions store words.
+     *
+     * @param word       an uppercase String to be found in the difficulty level of <var>wordSource</var>.
+     * @param wordSource a String representing the difficulty level of current setting.
+     * @return an int describing the rank of <var>word</var>, or -1 if it is not found in <var>wordSource</var>.
+     */
+    public int findRank(String word, String wordSource) {
+        return findRank(word, wordSource, generation);
+    }
+
+    /**
+     * Returns the rank of a word in the store of given generation, which stays valid after word sources change.
+     *
+     * @param word       an uppercase String to be found in the difficulty level of <var>wordSource</var>.
+     * @param wordSource a String representing the difficulty level of current setting.
+     * @param generation an int describing the generation of the store, as returned by
+     *                   {@link Service#getGeneration()}.
+     * @return an int describing the rank of <var>word</var>, or -1 if it is not found in <var>wordSource</var>.
+     * @throws IllegalStateException if the store of <var>generation</var> is no longer kept.
+     */
+    public int findRank(String word, String wordSource, int generation) {
+        WordStore wordStore = getWordStore(generation);
+        int difficulty = difficultyByWordSource.get(wordSource);
+        wordStore.ensureReadable(word.length(), difficulty);
+        return wordStore.findRank(word, difficulty);
+    }
+
+    /**
+     * Returns the word of given length and rank, as returned by {@link Service#findRank(String, String)}.
+     *
+     * @param wordLength an int describing the length of the word.
+     * @param rank       an int describing the rank of the word.
+     * @return a String holding the word.
+     */
+    public String getWord(int wordLength, int rank) {
+        return wordStore.getWord(wordLength, rank);
+    }
+
+    /**
+     * Returns the word of given length and rank in the store of given generation, as returned by
+     * {@link Service#findRank(String, String, int)}.
+     *
+     * @param wordLength an int describing the length of the word.
+     * @param rank       an int describing the rank of the word.
+     * @param generation an int describing the generation of the store.
+     * @return a String holding the word.
+     * @throws IllegalStateException if the store of <var>generation</var> is no longer kept.
+     */
+    public String getWord(int wordLength, int rank, int generation) {
+        return getWordStore(generation).getWord(wordLength, rank);
+    }
+
+    /**
+     * Returns whether the store of given generation is still kept, so that ranks found in it can be looked up.
+     *
+     * @param generation an int describing the generation of the store.
+     * @return a boolean describing whether the store is kept.
+     */
+    public boolean isGenerationKept(int generation) {
+        PinnedStore pinnedStore = storeByGeneration.get(generation & (STORE_GENERATIONS - 1));
+        return pinnedStore != null && pinnedStore.generation == generation;
+    }
+
+    /**
+     * Returns the store of given generation, which is checked against the generation of its slot rather than
+     * trusted, as the slot is reused every {@link Service#STORE_GENERATIONS} reloads.
+     *
+     * @param generation an int describing the generation of the store.
+     * @return a {@code WordStore} holding the words of <var>generation</var>.
+     * @throws IllegalStateException if the store is no longer kept.
+     */
+    public WordStore getWordStore(int generation) {
+        PinnedStore pinnedStore = storeByGeneration.get(generation & (STORE_GENERATIONS - 1));
+        if (pinnedStore == null || pinnedStore.generation != generation)
+            throw new IllegalStateException("Words of generation " + generation + " are no longer kept");
+        return pinnedStore.wordStore;
+    }
+
+    /**
+     * Returns the generation of the current store, which grows by one whenever word sources change. Ranks found in a
+     * store stay valid in it until {@link Service#STORE_GENERATIONS} newer stores have been published.
+     *
+     * @return an int describing the generation of the current store.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * This method replaces the generator used by {@link Service#generateRandomWord(int, String)}, such as a seeded one
+     * to reproduce a sequence of words.
+     *
+     * @param random a {@code RandomGenerator} to be used from now on.
+     */
+    public void setRandomGenerator(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * Returns a random word with {@code O(1)} time complexity under given restrictions, drawn from the generator set
+     * by {@link Service#setRandomGenerator(RandomGenerator)}.
      *
      * <p>
      * If the returning String is not {@code "Not Found"}, the word returns is valid.
@@ -159,40 +810,202 @@ public class Service {
      * @return a random word or {@code "Not Found"} under given conditions.
      */
     public String generateRandomWord(int wordLength, String wordSource) {
+        RandomGenerator random = this.random;
+        // Generators are not thread-safe in general, while the draws may come from several threads.
+        synchronized (random) {
+            return generateRandomWord(wordLength, wordSource, random);
+        }
+    }
+
+    /**
+     * Returns a random word with {@code O(1)} time complexity under given restrictions, drawn from given generator.
+     *
+     * <p>
+     * If the returning String is not {@code "Not Found"}, the word returns is valid.
+     *
+     * @param wordLength an int describing the length restriction.
+     * @param wordSource a String representing the difficulty level of current setting.
+     * @param random     a {@code RandomGenerator} owned by the caller.
+     * @return a random word or {@code "Not Found"} under given conditions.
+     */
+    public String generateRandomWord(int wordLength, String wordSource, RandomGenerator random) {
+        WordStore wordStore = this.wordStore;
         int difficulty = difficultyByWordSource.get(wordSource);
-        HashMap<Integer, ArrayList<String>> wordByDifficulty = wordByLengthThenDifficulty.get(wordLength);
-        int total = 0;
-        for (int i = 1; i <= difficulty; i++)
-            if (wordByDifficulty.containsKey(i)) {
-                total += wordByDifficulty.get(i).size();
-            }
-        int randomIndex = new Random().nextInt(total);
-        for (int i = 1; i <= difficulty; i++)
-            if (wordByDifficulty.containsKey(i)) {
-                int size = wordByDifficulty.get(i).size();
-                if (randomIndex < size)
-                    return wordByDifficulty.get(i).get(randomIndex);
-                randomIndex -= size;
-            }
+        // Words are sorted by difficulty, so the eligible ones form a prefix whose size is looked up directly.
+        wordStore.ensureReadable(wordLength, difficulty);
+        int total = wordStore.count(wordLength, difficulty);
+        randomDraws.increment();
+        if (total > 0)
+            return wordStore.getWord(wordLength, random.nextInt(total));
         return "Not Found";
     }
 
+    /**
+     * Returns random words drawn in bulk under given restrictions, where words may repeat.
+     *
+     * <p>
+     * If <var>difficultyWeights</var> is {@code null}, every eligible word is equally likely. Otherwise, each word is
+     * weighted by the weight of its difficulty, so that a difficulty is picked through an {@code AliasTable} and then
+     * a word is picked uniformly inside it.
+     *
+     * @param wordLength        an int describing the length restriction.
+     * @param wordSource        a String representing the difficulty level of current setting.
+     * @param count             an int describing the number of words to be drawn.
+     * @param difficultyWeights a double array holding the weight of each difficulty counting from 1 at index 0, or
+     *                          {@code null} for uniform draws.
+     * @param random            a {@code RandomGenerator} owned by the caller.
+     * @return a String array holding the words drawn, which is empty if no word is eligible.
+     * @throws IllegalArgumentException if no eligible word has a positive weight.
+     */
+    public String[] generateRandomWords(int wordLength, String wordSource, int count, double[] difficultyWeights,
+                                        RandomGenerator random) {
+        WordStore wordStore = this.wordStore;
+        int difficulty = difficultyByWordSource.get(wordSource);
+        wordStore.ensureReadable(wordLength, difficulty);
+        int total = wordStore.count(wordLength, difficulty);
+        if (total == 0)
+            return new String[0];
+        String[] words = new String[count];
+        randomDraws.add(count);
+        if (difficultyWeights == null) {
+            for (int i = 0; i < count; i++)
+                words[i] = wordStore.getWord(wordLength, random.nextInt(total));
+            return words;
+        }
+        // The mass of a difficulty is its weight times the number of words in it.
+        double[] masses = new double[difficulty];
+        for (int i = 0; i < difficulty; i++)
+            masses[i] = (i < difficultyWeights.length ? difficultyWeights[i] : 0) *
+                    (wordStore.count(wordLength, i + 1) - wordStore.count(wordLength, i));
+        AliasTable aliasTable = new AliasTable(masses);
+        for (int i = 0; i < count; i++) {
+            int picked = aliasTable.sample(random);
+            int from = wordStore.count(wordLength, picked);
+            int size = wordStore.count(wordLength, picked + 1) - from;
+            words[i] = wordStore.getWord(wordLength, from + random.nextInt(size));
+        }
+        return words;
+    }
+
     /**
      * This method returns the result of helper input checking and matched results. Word length and word source
      * configuration is attained directly from {@code Settings}.
      *
+     * <p>
+     * Every matched word is joined into the returning String, so {@link Service#searchHelper(String)} should be
+     * preferred when the results are displayed page by page.
+     *
      * @param helperInput a String describing the input from the helper input text field.
      * @return a String containing error reason, which will be empty if no error found, and matched results. The error
      * reason and matched results are separated by "$".
      */
     public String validateHelperInput(String helperInput) {
+        HelperResult result = searchHelper(helperInput);
+        if (result.getErrorMessage().length() > 0)
+            return result.getErrorMessage() + "$";
+        StringBuilder results = new StringBuilder();
+        for (String word : result.getWords(0, result.getCount()))
+            results.append(word).append("\n");
+        return "$" + result.getSummary() + "\n" + results;
+    }
+
+    /**
+     * Returns the result of helper input checking and matched results, whose words are decoded page by page when
+     * requested. Word length and word source configuration is attained directly from {@code Settings}.
+     *
+     * @param helperInput a String describing the input from the helper input text field.
+     * @return a {@code HelperResult} holding the error reason, which will be empty if no error found, or the matched
+     * results.
+     */
+    public HelperResult searchHelper(String helperInput) {
+        return searchHelper(helperInput, partialResult -> {
+        }, () -> false);
+    }
+
+    /**
+     * Returns the result of helper input checking and matched results like {@link Service#searchHelper(String)}, while
+     * the scan is split into chunks of {@link Service#HELPER_CHUNK_BLOCKS} blocks. After each chunk, the results so far
+     * are published and the scan stops if it has been cancelled.
+     *
+     * @param helperInput    a String describing the input from the helper input text field.
+     * @param partialResults a {@code Consumer} accepting a {@code HelperResult} holding the matched results so far,
+     *                       which is called from the scanning thread.
+     * @param isCancelled    a {@code BooleanSupplier} telling whether the scan is no longer needed.
+     * @return a {@code HelperResult} holding the error reason or the matched results, or {@code null} if cancelled.
+     */
+    public HelperResult searchHelper(String helperInput, Consumer<HelperResult> partialResults,
+                                     BooleanSupplier isCancelled) {
+        return searchHelper(helperInput, Settings.getInitWord().length(), Settings.getWordSource(), partialResults,
+                isCancelled);
+    }
+
+    /**
+     * Returns the result of helper input checking and matched results like
+     * {@link Service#searchHelper(String, Consumer, BooleanSupplier)}, for given word length and word source instead
+     * of the ones of {@code Settings}, so that games of different settings can be helped at the same time.
+     *
+     * @param helperInput    a String describing the input from the helper input text field.
+     * @param initWordLength an int describing the length of the words searched.
+     * @param wordSource     a String representing the difficulty level of the words searched.
+     * @param partialResults a {@code Consumer} accepting a {@code HelperResult} holding the matched results so far,
+     *                       which is called from the scanning thread.
+     * @param isCancelled    a {@code BooleanSupplier} telling whether the scan is no longer needed.
+     * @return a {@code HelperResult} holding the error reason or the matched results, or {@code null} if cancelled.
+     */
+    public HelperResult searchHelper(String helperInput, int initWordLength, String wordSource,
+                                     Consumer<HelperResult> partialResults, BooleanSupplier isCancelled) {
+        return searchHelper(helperInput, wordStore, initWordLength, wordSource, partialResults, isCancelled);
+    }
+
+    /**
+     * Returns the result of helper input checking and matched results like
+     * {@link Service#searchHelper(String, int, String, Consumer, BooleanSupplier)}, in given store instead of the
+     * current one, so that a game started before word sources changed is helped with the words it started with.
+     *
+     * @param helperInput    a String describing the input from the helper input text field.
+     * @param wordStore      a {@code WordStore} holding the words searched.
+     * @param initWordLength an int describing the length of the words searched.
+     * @param wordSource     a String representing the difficulty level of the words searched.
+     * @param partialResults a {@code Consumer} accepting a {@code HelperResult} holding the matched results so far,
+     *                       which is called from the scanning thread.
+     * @param isCancelled    a {@code BooleanSupplier} telling whether the scan is no longer needed.
+     * @return a {@code HelperResult} holding the error reason or the matched results, or {@code null} if cancelled.
+     */
+    public HelperResult searchHelper(String helperInput, WordStore wordStore, int initWordLength, String wordSource,
+                                     Consumer<HelperResult> partialResults, BooleanSupplier isCancelled) {
+        long startTime = System.nanoTime();
+        HelperResult result = matchHelper(helperInput, wordStore, initWordLength, wordSource, partialResults,
+                isCancelled);
+        helperLatency.recordSince(startTime);
+        if (result != null && result.getErrorMessage().length() == 0)
+            helperResultSize.record(result.getCount());
+        return result;
+    }
+
+    /**
+     * Returns the result of helper input checking and matched results for
+     * {@link Service#searchHelper(String, WordStore, int, String, Consumer, BooleanSupplier)}, which measures it.
+     *
+     * @param helperInput    a String describing the input from the helper input text field.
+     * @param wordStore      a {@code WordStore} holding the words searched.
+     * @param initWordLength an int describing the length of the words searched.
+     * @param wordSource     a String representing the difficulty level of the words searched.
+     * @param partialResults a {@code Consumer} accepting a {@code HelperResult} holding the matched results so far,
+     *                       which is called from the scanning thread.
+     * @param isCancelled    a {@code BooleanSupplier} telling whether the scan is no longer needed.
+     * @return a {@code HelperResult} holding the error reason or the matched results, or {@code null} if cancelled.
+     */
+    private HelperResult matchHelper(String helperInput, WordStore wordStore, int initWordLength, String wordSource,
+                                     Consumer<HelperResult> partialResults, BooleanSupplier isCancelled) {
         // Initialize variables.
         helperInput = helperInput.toUpperCase();
         boolean isInsideRoundBracket = false;
         boolean isInsideSquareBracket = false;
         boolean isContainedRoundBracket = false;
-        HashMap<Character, Integer> mustExistCount = new HashMap<>();
-        HashSet<Character> mustNotExist = new HashSet<>();
+        int[] mustExistCount = new int[26];
+        boolean[] mustNotExist = new boolean[26];
+        // Letters outside A-Z can never be matched, which only matters if they are required.
+        boolean isUnmatchable = false;
         boolean eligibilityMatchAll = false;
         StringBuilder patternString = new StringBuilder();
         // Scan and check the input string.
@@ -201,91 +1014,150 @@ public class Service {
             if (ch == '(') {
                 isContainedRoundBracket = true;
                 if (isInsideRoundBracket || isInsideSquareBracket)
-                    return "Nested Brackets Not Supported$";
+                    return new HelperResult("Nested Brackets Not Supported");
                 else
                     isInsideRoundBracket = true;
             } else if (ch == ')') {
                 if (isInsideRoundBracket)
                     isInsideRoundBracket = false;
                 else
-                    return "Unpair Bracket Found$";
+                    return new HelperResult("Unpair Bracket Found");
             } else if (ch == '[') {
                 if (isInsideSquareBracket || isInsideRoundBracket)
-                    return "Nested Brackets Not Supported$";
+                    return new HelperResult("Nested Brackets Not Supported");
                 else
                     isInsideSquareBracket = true;
             } else if (ch == ']') {
                 if (isInsideSquareBracket)
                     isInsideSquareBracket = false;
                 else
-                    return "Unpair Bracket Found$";
+                    return new HelperResult("Unpair Bracket Found");
             } else if (Character.isAlphabetic(ch)) {
-                if (isInsideRoundBracket)
-                    mustExistCount.put(ch, mustExistCount.getOrDefault(ch, 0) + 1);
-                else if (isInsideSquareBracket)
-                    mustNotExist.add(ch);
-                else
+                boolean isLetter = 'A' <= ch && ch <= 'Z';
+                if (isInsideRoundBracket) {
+                    if (isLetter)
+                        mustExistCount[ch - 'A']++;
+                    else
+                        isUnmatchable = true;
+                } else if (isInsideSquareBracket) {
+                    if (isLetter)
+                        mustNotExist[ch - 'A'] = true;
+                } else {
                     patternString.append(ch);
+                    if (!isLetter)
+                        isUnmatchable = true;
+                }
             } else if (ch == '*') {
                 if (isInsideRoundBracket)
                     eligibilityMatchAll = true;
                 else if (isInsideSquareBracket)
-                    return "* Inside [] Not Allowed$";
+                    return new HelperResult("* Inside [] Not Allowed");
                 else
                     patternString.append(ch);
             } else
-                return "Illegal Input$";
+                return new HelperResult("Illegal Input");
         }
-        final int initWordLength = Settings.getInitWord().length();
         if (patternString.length() != initWordLength)
-            return "Word Length too " + (patternString.length() < initWordLength ? "small" : "large") + "$";
+            return new HelperResult("Word Length too " +
+                    (patternString.length() < initWordLength ? "small" : "large"));
         if (isInsideRoundBracket || isInsideSquareBracket)
-            return "Unpair Bracket Found$";
-        // Scan the database to filter out valid candidate words.
+            return new HelperResult("Unpair Bracket Found");
+        // Query the bitmap index to filter out valid candidate words.
         if (!isContainedRoundBracket)
             eligibilityMatchAll = true;
-        HashMap<Integer, ArrayList<String>> wordByDifficulty = wordByLengthThenDifficulty.get(initWordLength);
-        int difficultyLevel = difficultyByWordSource.get(Settings.getWordSource());
-        StringBuilder results = new StringBuilder();
-        int candidateCount = 0;
-        for (int currentDifficulty = 1; currentDifficulty <= difficultyLevel; currentDifficulty++) {
-            ArrayList<String> currentWordList = wordByDifficulty.get(currentDifficulty);
-            for (String word : currentWordList) {
-                boolean ok = true;
-                HashMap<Character, Integer> existCount = new HashMap<>();
-                for (int i = 0; i < initWordLength; i++) {
-                    char ch = word.charAt(i);
-                    if (ch != patternString.charAt(i)) {
-                        if (patternString.charAt(i) != '*') { // Pattern not match.
-                            ok = false;
-                            break;
-                        }
-                        // Pattern string here is *.
-                        else if (mustNotExist.contains(ch)) {
-                            ok = false;
-                            break;
-                        } else if (existCount.getOrDefault(ch, 0) <
-                                mustExistCount.getOrDefault(ch, 0)) { // Check must exist condition first.
-                            existCount.put(ch, existCount.getOrDefault(ch, 0) + 1);
-                        } else if (!eligibilityMatchAll) {
-                            ok = false;
-                            break;
-                        }
-                    }
-                }
-                // Check must exist characters validity.
-                for (Map.Entry<Character, Integer> pair : mustExistCount.entrySet()) {
-                    if (existCount.getOrDefault(pair.getKey(), 0) < pair.getValue()) {
-                        ok = false;
-                        break;
-                    }
-                }
-                if (ok) {
-                    ++candidateCount;
-                    results.append(word).append("\n");
-                }
+        if (isUnmatchable)
+            return new HelperResult(wordStore, initWordLength, new long[0]);
+        int difficultyLevel = difficultyByWordSource.get(wordSource);
+        char[] pattern = patternString.toString().toCharArray();
+        // Equivalent queries of the same store share a key, so repeated searches skip the scan.
+        HelperQuery query = new HelperQuery(wordStore, initWordLength, difficultyLevel, pattern, mustNotExist,
+                mustExistCount, eligibilityMatchAll);
+        synchronized (helperCache) {
+            HelperResult cachedResult = helperCache.get(query);
+            if (cachedResult != null) {
+                helperCacheHits.increment();
+                return cachedResult;
             }
+            helperCacheMisses.increment();
+        }
+        HelperIndex helperIndex = getHelperIndex(wordStore, initWordLength, difficultyLevel);
+        // Ranks are ordered by difficulty, so the results keep the order of a full scan.
+        int limit = wordStore.count(initWordLength, difficultyLevel);
+        long[] matched = new long[helperIndex.getBlockCount()];
+        /* Selective queries prune most of the trie after a few letters, so a walk is tried first, giving up once it
+        costs as much as the scan. */
+        int budget = (int) Math.min(Integer.MAX_VALUE, helperIndex.getScanCost(pattern, mustNotExist, mustExistCount,
+                eligibilityMatchAll) / SCAN_BLOCKS_PER_TRIE_NODE);
+        int visited = helperIndex.getTrie().match(pattern, mustNotExist, mustExistCount, eligibilityMatchAll, limit,
+                matched, budget);
+        if (visited >= 0)
+            helperTrieVisits.record(visited);
+        else
+            helperTrieFallbacks.increment();
+        for (int fromBlock = 0; visited < 0 && fromBlock < matched.length; fromBlock += HELPER_CHUNK_BLOCKS) {
+            if (isCancelled.getAsBoolean())
+                return null;
+            int toBlock = Math.min(fromBlock + HELPER_CHUNK_BLOCKS, matched.length);
+            helperIndex.match(pattern, mustNotExist, mustExistCount, eligibilityMatchAll, limit, matched, fromBlock,
+                    toBlock);
+            if (toBlock < matched.length)
+                partialResults.accept(new HelperResult(wordStore, initWordLength, Arrays.copyOf(matched, toBlock)));
+        }
+        HelperResult result = new HelperResult(wordStore, initWordLength, matched);
+        // Only results of the current store are kept, as the cache is dropped whenever the store is replaced.
+        synchronized (helperCache) {
+            if (wordStore == this.wordStore)
+                helperCache.put(query, result);
+        }
+        return result;
+    }
+
+    /**
+     * This method drops every cached helper result, so that benchmarks measure the scan itself.
+     */
+    void clearHelperCache() {
+        synchronized (helperCache) {
+            helperCache.clear();
+        }
+    }
+
+    /**
+     * Returns the number of helper searches answered by the result cache without scanning.
+     *
+     * @return a {@code long} describing the number of cache hits.
+     */
+    public long getHelperCacheHits() {
+        return helperCacheHits.sum();
+    }
+
+    /**
+     * Returns the number of helper searches that missed the result cache and scanned the index.
+     *
+     * @return a {@code long} describing the number of cache misses.
+     */
+    public long getHelperCacheMisses() {
+        return helperCacheMisses.sum();
+    }
+
+    /**
+     * Returns the {@code HelperIndex} of words with given length, which is built on first use as most games never
+     * open the helper, and rebuilt if a higher difficulty has been loaded since. Indexes of a replaced store are built
+     * without being kept.
+     *
+     * @param wordStore     a {@code WordStore} holding the words indexed.
+     * @param wordLength    an int describing the length of words indexed.
+     * @param maxDifficulty an int describing the highest difficulty to be indexed.
+     * @return a {@code HelperIndex} whose ranks follow {@link WordStore#getCodes(int)}.
+     */
+    private synchronized HelperIndex getHelperIndex(WordStore wordStore, int wordLength, int maxDifficulty) {
+        wordStore.ensureLoaded(wordLength, maxDifficulty);
+        if (wordStore != this.wordStore)
+            return new HelperIndex(wordLength, wordStore.getCodes(wordLength));
+        HelperIndex helperIndex = helperIndexByLength.get(wordLength);
+        if (helperIndex == null || helperIndex.getWordCount() < wordStore.count(wordLength, maxDifficulty)) {
+            helperIndex = new HelperIndex(wordLength, wordStore.getCodes(wordLength));
+            helperIndexByLength.put(wordLength, helperIndex);
         }
-        return "$" + ("Found " + candidateCount + " result(s)" + (candidateCount > 0 ? ":" : ".")) + "\n" + results;
+        return helperIndex;
     }
 }
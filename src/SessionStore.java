@@ -0,0 +1,618 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.security.SecureRandom;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code SessionStore} class holds the games served by {@code GameServer}, packed into a few {@code long} values
+ * each instead of a {@code Game} with its window, so that a million idle games take tens of megabytes.
+ *
+ * <p>
+ * A game is a slot of {@link SessionStore#SLOT_LONGS} longs: a header holding the rank of the answer, the word
+ * length, the word source, the tries used, the final status and the last access time, followed by room for 10 guesses
+ * of 32 bits, each holding the rank of the guess and the 2-bit score of every letter. A game takes at most 9 guesses,
+ * so the last half holds the generation of the words ranked. Words are ranks into {@link WordStore#getCodes(int)} of
+ * 16 bits, so games whose words rank above {@link SessionStore#MAX_RANK} are rejected rather than stored.
+ *
+ * <p>
+ * Slots are split into stripes locked on their own, and freed slots are reused before a stripe grows. The id of a
+ * game is its slot index together with a random tag, so a stale or forged id never reaches another game. Games idle
+ * for longer than the TTL are evicted when their stripe runs out of slots or when they are accessed, and no game is
+ * created beyond the hard cap.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class SessionStore {
+    /**
+     * A static constant holding the number of stripes, which is a power of 2.
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * A static constant holding the number of longs of each slot.
+     */
+    private static final int SLOT_LONGS = 6;
+
+    /**
+     * A static constant holding the number of bits of the slot index inside an id, which bounds the hard cap.
+     */
+    private static final int INDEX_BITS = 24;
+
+    /**
+     * A static constant holding the highest rank of a word that fits in a slot.
+     */
+    public static final int MAX_RANK = 0xFFFF;
+
+    /**
+     * A static constant holding the number of slots of a stripe when it is first used.
+     */
+    private static final int INITIAL_STRIPE_SLOTS = 64;
+
+    /**
+     * A static constant holding the shortest word length, which is stored as an offset from it.
+     */
+    private static final int MIN_LENGTH = 5;
+
+    /**
+     * A static constant holding the shift of the word length inside a header.
+     */
+    private static final int LENGTH_SHIFT = 16;
+
+    /**
+     * A static constant holding the shift of the word source inside a header.
+     */
+    private static final int SOURCE_SHIFT = 19;
+
+    /**
+     * A static constant holding the shift of the tries used inside a header.
+     */
+    private static final int TRIES_SHIFT = 22;
+
+    /**
+     * A static constant holding the bit of a game whose answer has been guessed.
+     */
+    private static final long SUCCESS_BIT = 1L << 26;
+
+    /**
+     * A static constant holding the bit of a game whose user used the helper.
+     */
+    private static final long HELPER_BIT = 1L << 27;
+
+    /**
+     * A static constant holding the shift of the last access time inside a header, in seconds since the store was
+     * created.
+     */
+    private static final int ACCESS_SHIFT = 32;
+
+    /**
+     * A {@code long} holding the idle time after which a game is evicted, in seconds.
+     */
+    private final long ttlSeconds;
+
+    /**
+     * An int holding the greatest number of games held by each stripe.
+     */
+    private final int maxStripeSessions;
+
+    /**
+     * A {@code long} holding the time the store was created, as returned by {@link System#nanoTime()}.
+     */
+    private final long createdTime = System.nanoTime();
+
+    /**
+     * A {@code Stripe} array holding the games.
+     */
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * A {@code SecureRandom} drawing the tags of ids, which cannot be guessed by other users.
+     */
+    private final SecureRandom tagRandom = new SecureRandom();
+
+    /**
+     * The {@code Stripe} class holds the slots guarded by one lock.
+     */
+    private static class Stripe {
+        /**
+         * A {@code long} array holding the slots one after another.
+         */
+        private long[] slots = new long[0];
+
+        /**
+         * An int array holding the tag of the game of each slot, which is 0 if the slot is free.
+         */
+        private int[] tags = new int[0];
+
+        /**
+         * An int array whose leading <var>freeCount</var> elements are the free slots.
+         */
+        private int[] freeSlots = new int[0];
+
+        /**
+         * An int holding the number of free slots.
+         */
+        private int freeCount;
+
+        /**
+         * An int holding the number of games.
+         */
+        private int size;
+
+        /**
+         * A {@code long} holding the last time expired games were looked for when the stripe was full, so that a full
+         * store is scanned at most once a second.
+         */
+        private long sweptTime = -1;
+    }
+
+    /**
+     * The {@code Session} class holds a copy of a game decoded from its slot.
+     */
+    public static class Session {
+        /**
+         * An int holding the length of the words.
+         */
+        private final int wordLength;
+
+        /**
+         * An int holding the index of the word source.
+         */
+        private final int wordSourceIndex;
+
+        /**
+         * An int holding the rank of the answer.
+         */
+        private final int answerRank;
+
+        /**
+         * An int array holding the rank of every guess.
+         */
+        private final int[] guessRanks;
+
+        /**
+         * An int array holding the score of every letter guessed, in the order typed.
+         */
+        private final int[] scores;
+
+        /**
+         * An int holding the generation of the words ranked.
+         */
+        private final int generation;
+
+        /**
+         * A boolean holding the status that whether the answer has been guessed.
+         */
+        private final boolean isSuccess;
+
+        /**
+         * A boolean holding the status that whether the user used the helper.
+         */
+        private final boolean isOpenedHelper;
+
+        /**
+         * The only constructor for class {@code Session}, which decodes a slot.
+         *
+         * @param slots  a {@code long} array holding the slot.
+         * @param offset an int describing the position of the slot.
+         */
+        private Session(long[] slots, int offset) {
+            long header = slots[offset];
+            answerRank = (int) (header & 0xFFFF);
+            wordLength = (int) (header >>> LENGTH_SHIFT & 7) + MIN_LENGTH;
+            wordSourceIndex = (int) (header >>> SOURCE_SHIFT & 7);
+            generation = (int) (slots[offset + SLOT_LONGS - 1] >>> 32);
+            isSuccess = (header & SUCCESS_BIT) != 0;
+            isOpenedHelper = (header & HELPER_BIT) != 0;
+            int tries = (int) (header >>> TRIES_SHIFT & 15);
+            guessRanks = new int[tries];
+            scores = new int[tries * wordLength];
+            for (int guess = 0; guess < tries; guess++) {
+                int packed = (int) (slots[offset + 1 + guess / 2] >>> (guess % 2 * 32));
+                guessRanks[guess] = packed & 0xFFFF;
+                for (int i = 0; i < wordLength; i++)
+                    scores[guess * wordLength + i] = packed >>> (16 + i * 2) & 3;
+            }
+        }
+
+        /**
+         * Returns the generation of the words ranked, as passed to {@link Service#getWord(int, int, int)}.
+         *
+         * @return an int describing the generation.
+         */
+        public int getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Returns the length of the words.
+         *
+         * @return an int describing the length of the words.
+         */
+        public int getWordLength() {
+            return wordLength;
+        }
+
+        /**
+         * Returns the index of the word source in the options it was created with.
+         *
+         * @return an int describing the index of the word source.
+         */
+        public int getWordSourceIndex() {
+            return wordSourceIndex;
+        }
+
+        /**
+         * Returns the rank of the answer.
+         *
+         * @return an int describing the rank of the answer.
+         */
+        public int getAnswerRank() {
+            return answerRank;
+        }
+
+        /**
+         * Returns the number of tries used.
+         *
+         * @return an int describing the number of tries used.
+         */
+        public int getTries() {
+            return guessRanks.length;
+        }
+
+        /**
+         * Returns the rank of a guess.
+         *
+         * @param guess an int describing the index of the guess, counting from 0.
+         * @return an int describing the rank of the guess.
+         */
+        public int getGuessRank(int guess) {
+            return guessRanks[guess];
+        }
+
+        /**
+         * Returns the score of every letter guessed, in the order typed.
+         *
+         * @return a {@code List} holding the scores.
+         */
+        public List<Integer> getScoreByOrder() {
+            return new AbstractList<>() {
+                @Override
+                public Integer get(int index) {
+                    return scores[index];
+                }
+
+                @Override
+                public int size() {
+                    return scores.length;
+                }
+            };
+        }
+
+        /**
+         * Returns whether the answer has been guessed.
+         *
+         * @return a boolean describing whether the game is won.
+         */
+        public boolean isSuccess() {
+            return isSuccess;
+        }
+
+        /**
+         * Returns whether the user used the helper.
+         *
+         * @return a boolean describing whether the helper was used.
+         */
+        public boolean isOpenedHelper() {
+            return isOpenedHelper;
+        }
+
+        /**
+         * Returns whether no more guesses are accepted.
+         *
+         * @return a boolean describing whether the game is over.
+         */
+        public boolean isOver() {
+            return isSuccess || guessRanks.length > wordLength;
+        }
+    }
+
+    /**
+     * The only constructor for class {@code SessionStore}.
+     *
+     * @param maxSessions an int describing the hard cap on the number of games, which is at most 2^24.
+     * @param ttlSeconds  a {@code long} describing the idle time after which a game is evicted, in seconds.
+     * @throws IllegalArgumentException if the cap is out of range.
+     */
+    public SessionStore(int maxSessions, long ttlSeconds) {
+        if (maxSessions < STRIPES || maxSessions > 1 << INDEX_BITS)
+            throw new IllegalArgumentException("The cap should be between " + STRIPES + " and " + (1 << INDEX_BITS));
+        this.ttlSeconds = ttlSeconds;
+        maxStripeSessions = maxSessions / STRIPES;
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new Stripe();
+    }
+
+    /**
+     * Returns the id of a new game, which is never negative, or -1 if the cap has been reached.
+     *
+     * @param wordLength      an int describing the length of the words, from 5 to 8.
+     * @param wordSourceIndex an int describing the index of the word source, from 0 to 7.
+     * @param answerRank      an int describing the rank of the answer, up to {@link SessionStore#MAX_RANK}.
+     * @param generation      an int describing the generation of the words ranked.
+     * @return a {@code long} describing the id of the game.
+     * @throws IllegalArgumentException if the rank does not fit in a slot.
+     */
+    public long create(int wordLength, int wordSourceIndex, int answerRank, int generation) {
+        checkRank(answerRank);
+        int tag = tagRandom.nextInt() | 1;
+        long header = answerRank | (long) (wordLength - MIN_LENGTH) << LENGTH_SHIFT |
+                (long) wordSourceIndex << SOURCE_SHIFT;
+        // Stripes are tried from a random one, so that creations spread over every lock.
+        int firstStripe = tag >>> 1 & (STRIPES - 1);
+        for (int i = 0; i < STRIPES; i++) {
+            int stripeIndex = (firstStripe + i) & (STRIPES - 1);
+            Stripe stripe = stripes[stripeIndex];
+            synchronized (stripe) {
+                int slot = allocate(stripe);
+                if (slot < 0)
+                    continue;
+                stripe.tags[slot] = tag;
+                stripe.slots[slot * SLOT_LONGS] = header | now() << ACCESS_SHIFT;
+                stripe.slots[(slot + 1) * SLOT_LONGS - 1] = (long) generation << 32;
+                return (tag & 0xFFFFFFFFL) << INDEX_BITS | (long) slot * STRIPES + stripeIndex;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of a game, and marks it as accessed.
+     *
+     * @param id a {@code long} describing the id of the game.
+     * @return a {@code Session} holding the game, or {@code null} if the id is unknown or the game has expired.
+     */
+    public Session get(long id) {
+        Stripe stripe = stripes[(int) (id & (STRIPES - 1))];
+        synchronized (stripe) {
+            int slot = find(stripe, id);
+            return slot < 0 ? null : new Session(stripe.slots, slot * SLOT_LONGS);
+        }
+    }
+
+    /**
+     * This method appends a guess to a game unless the game is over.
+     *
+     * @param id        a {@code long} describing the id of the game.
+     * @param guessRank an int describing the rank of the guess, up to {@link SessionStore#MAX_RANK}.
+     * @param scores    an int array holding the score of each letter of the guess.
+     * @param isSuccess a boolean describing whether the guess is the answer.
+     * @return a {@code Session} holding the game after the guess, or {@code null} if the id is unknown, the game has
+     * expired or the game is over.
+     * @throws IllegalArgumentException if the rank does not fit in a slot.
+     */
+    public Session addGuess(long id, int guessRank, int[] scores, boolean isSuccess) {
+        checkRank(guessRank);
+        Stripe stripe = stripes[(int) (id & (STRIPES - 1))];
+        synchronized (stripe) {
+            int slot = find(stripe, id);
+            if (slot < 0)
+                return null;
+            int offset = slot * SLOT_LONGS;
+            long header = stripe.slots[offset];
+            int tries = (int) (header >>> TRIES_SHIFT & 15);
+            int wordLength = (int) (header >>> LENGTH_SHIFT & 7) + MIN_LENGTH;
+            if ((header & SUCCESS_BIT) != 0 || tries > wordLength)
+                return null;
+            long packed = guessRank;
+            for (int i = 0; i < scores.length; i++)
+                packed |= (long) scores[i] << (16 + i * 2);
+            stripe.slots[offset + 1 + tries / 2] |= packed << (tries % 2 * 32);
+            header += 1L << TRIES_SHIFT;
+            stripe.slots[offset] = isSuccess ? header | SUCCESS_BIT : header;
+            return new Session(stripe.slots, offset);
+        }
+    }
+
+    /**
+     * This method marks a game as helped, so that its shared result is starred.
+     *
+     * @param id a {@code long} describing the id of the game.
+     * @return a boolean describing whether the game was found.
+     */
+    public boolean markHelped(long id) {
+        Stripe stripe = stripes[(int) (id & (STRIPES - 1))];
+        synchronized (stripe) {
+            int slot = find(stripe, id);
+            if (slot >= 0)
+                stripe.slots[slot * SLOT_LONGS] |= HELPER_BIT;
+            return slot >= 0;
+        }
+    }
+
+    /**
+     * This method evicts every game idle for longer than the TTL.
+     *
+     * @return an int describing the number of games evicted.
+     */
+    public int evictExpired() {
+        int evicted = 0;
+        for (Stripe stripe : stripes)
+            synchronized (stripe) {
+                evicted += evictExpired(stripe);
+            }
+        return evicted;
+    }
+
+    /**
+     * This method evicts every game whose words were ranked in a generation older than given one, once the store of
+     * that generation is no longer kept.
+     *
+     * @param oldestGeneration an int describing the oldest generation whose games are kept.
+     * @return an int describing the number of games evicted.
+     */
+    public int evictGenerationsBefore(int oldestGeneration) {
+        int evicted = 0;
+        for (Stripe stripe : stripes)
+            synchronized (stripe) {
+                for (int slot = 0; slot < stripe.tags.length; slot++)
+                    if (stripe.tags[slot] != 0 &&
+                            (int) (stripe.slots[(slot + 1) * SLOT_LONGS - 1] >>> 32) < oldestGeneration) {
+                        free(stripe, slot);
+                        evicted++;
+                    }
+            }
+        return evicted;
+    }
+
+    /**
+     * Returns the number of games held.
+     *
+     * @return an int describing the number of games.
+     */
+    public int getCount() {
+        int count = 0;
+        for (Stripe stripe : stripes)
+            synchronized (stripe) {
+                count += stripe.size;
+            }
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes taken by the arrays of every stripe, including the free slots.
+     *
+     * @return a {@code long} describing the number of bytes.
+     */
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes)
+            synchronized (stripe) {
+                bytes += stripe.slots.length * 8L + stripe.tags.length * 4L + stripe.freeSlots.length * 4L;
+            }
+        return bytes;
+    }
+
+    /**
+     * This method checks that a rank fits in the 16 bits a slot keeps for it, so that it never spills into the fields
+     * beside it.
+     *
+     * @param rank an int describing the rank of a word.
+     * @throws IllegalArgumentException if the rank is negative or above {@link SessionStore#MAX_RANK}.
+     */
+    private static void checkRank(int rank) {
+        if (rank < 0 || rank > MAX_RANK)
+            throw new IllegalArgumentException("The rank should be between 0 and " + MAX_RANK);
+    }
+
+    /**
+     * Returns the slot of a game and marks it as accessed, or evicts it if it has expired.
+     *
+     * @param stripe a {@code Stripe} holding the game, which is locked by the caller.
+     * @param id     a {@code long} describing the id of the game.
+     * @return an int describing the slot, or -1 if the game is not found.
+     */
+    private int find(Stripe stripe, long id) {
+        if (id < 0)
+            return -1;
+        int slot = (int) ((id & ((1L << INDEX_BITS) - 1)) / STRIPES);
+        if (slot >= stripe.tags.length || stripe.tags[slot] == 0 || stripe.tags[slot] != (int) (id >>> INDEX_BITS))
+            return -1;
+        int offset = slot * SLOT_LONGS;
+        long now = now();
+        if (now - (stripe.slots[offset] >>> ACCESS_SHIFT) > ttlSeconds) {
+            free(stripe, slot);
+            return -1;
+        }
+        stripe.slots[offset] = stripe.slots[offset] & ((1L << ACCESS_SHIFT) - 1) | now << ACCESS_SHIFT;
+        return slot;
+    }
+
+    /**
+     * Returns a free slot of a stripe, evicting expired games or growing the stripe if none is free.
+     *
+     * @param stripe a {@code Stripe} locked by the caller.
+     * @return an int describing the slot, or -1 if the stripe is full.
+     */
+    private int allocate(Stripe stripe) {
+        long now = now();
+        if (stripe.freeCount == 0 && stripe.sweptTime < now) {
+            stripe.sweptTime = now;
+            evictExpired(stripe);
+        }
+        if (stripe.freeCount == 0) {
+            int capacity = stripe.tags.length;
+            if (capacity >= maxStripeSessions)
+                return -1;
+            int newCapacity = Math.min(Math.max(INITIAL_STRIPE_SLOTS, capacity * 2), maxStripeSessions);
+            stripe.slots = Arrays.copyOf(stripe.slots, newCapacity * SLOT_LONGS);
+            stripe.tags = Arrays.copyOf(stripe.tags, newCapacity);
+            stripe.freeSlots = Arrays.copyOf(stripe.freeSlots, newCapacity);
+            // Lower slots are handed out first.
+            for (int slot = newCapacity - 1; slot >= capacity; slot--)
+                stripe.freeSlots[stripe.freeCount++] = slot;
+        }
+        stripe.size++;
+        return stripe.freeSlots[--stripe.freeCount];
+    }
+
+    /**
+     * This method evicts the expired games of a stripe.
+     *
+     * @param stripe a {@code Stripe} locked by the caller.
+     * @return an int describing the number of games evicted.
+     */
+    private int evictExpired(Stripe stripe) {
+        long now = now();
+        int evicted = 0;
+        for (int slot = 0; slot < stripe.tags.length; slot++)
+            if (stripe.tags[slot] != 0 && now - (stripe.slots[slot * SLOT_LONGS] >>> ACCESS_SHIFT) > ttlSeconds) {
+                free(stripe, slot);
+                evicted++;
+            }
+        return evicted;
+    }
+
+    /**
+     * This method frees a slot, clearing it for the next game.
+     *
+     * @param stripe a {@code Stripe} locked by the caller.
+     * @param slot   an int describing the slot.
+     */
+    private void free(Stripe stripe, int slot) {
+        stripe.tags[slot] = 0;
+        Arrays.fill(stripe.slots, slot * SLOT_LONGS, (slot + 1) * SLOT_LONGS, 0);
+        stripe.freeSlots[stripe.freeCount++] = slot;
+        stripe.size--;
+    }
+
+    /**
+     * Returns the time since the store was created.
+     *
+     * @return a {@code long} describing the number of seconds.
+     */
+    private long now() {
+        return (System.nanoTime() - createdTime) / 1_000_000_000L;
+    }
+}
@@ -23,6 +23,9 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -38,6 +41,17 @@ public class Settings {
      */
     private static Settings instance;
 
+    /**
+     * A static constant holding the background of every window.
+     */
+    static final Color BACKGROUND_COLOR = new Color(238, 238, 238);
+
+    /**
+     * A static {@code ConcurrentHashMap} holding the fonts created so far, keyed by name, style and size, so that
+     * components share them.
+     */
+    private static final ConcurrentHashMap<String, Font> fontCache = new ConcurrentHashMap<>();
+
     /**
      * A static constant holding the width of current window.
      */
@@ -109,6 +123,11 @@ public class Settings {
      */
     private static String currentHashtag;
 
+    /**
+     * A static boolean holding the status that whether a start is waiting for the selected words to be loaded.
+     */
+    private static boolean isStartPending = false;
+
     /**
      * This method configs the setting window at the very beginning and should be called before being set visible.
      *
@@ -133,7 +152,7 @@ public class Settings {
         windowPanel.setPreferredSize(new Dimension(WINDOW_WIDTH, WINDOW_HEIGHT));
         window.add(windowPanel);
         window.pack();
-        windowPanel.setBackground(new Color(238, 238, 238));
+        windowPanel.setBackground(BACKGROUND_COLOR);
         windowPanel.setLayout(null);
 
         windowPanel.add(Settings.textInit("Preferences", "Comic Sans MS", JTextField.CENTER,
@@ -150,6 +169,7 @@ public class Settings {
                     Settings.wordLength = Integer.parseInt(selectedItem.substring(13));
                 else if (c == 'S')
                     Settings.wordSource = selectedItem.substring(13);
+                prefetchSelection();
             }
         };
         // Add two combos.
@@ -195,6 +215,21 @@ public class Settings {
         windowPanel.add(startButton);
     }
 
+    /**
+     * This static method sets the selection without creating any window, which is used by benchmarks and tools that
+     * call the helper or the hashtag codec headless.
+     *
+     * @param wordSource        a String describing the specific source type, included in <var>wordSourceOptions</var>.
+     * @param initWord          a String holding the word to be guessed, whose length is the one searched by the helper.
+     * @param wordSourceOptions a String array containing the word sources to be chosen.
+     */
+    static void configSelection(String wordSource, String initWord, String[] wordSourceOptions) {
+        Settings.wordLength = initWord.length();
+        Settings.wordSource = wordSource;
+        Settings.initWord = initWord;
+        Settings.wordSourceOptions = wordSourceOptions;
+    }
+
     /**
      * Returns an instance of current class, where only one copy of instance will exist.
      *
@@ -244,6 +279,16 @@ public class Settings {
     public void setVisibleStatus(Boolean status) {
         window.setLocationRelativeTo(null);
         window.setVisible(status);
+        if (status)
+            prefetchSelection();
+    }
+
+    /**
+     * This static method asks {@code Service} to load the words of the selected length and source in the background,
+     * so that they are likely ready when the user clicks start.
+     */
+    private static void prefetchSelection() {
+        Service.getInstance().prefetch(wordLength, wordSource);
     }
 
     /**
@@ -270,10 +315,23 @@ public class Settings {
         textField.setEditable(editable);
         textField.setOpaque(opaqueStatus);
         textField.setBorder(null);
-        textField.setFont(new Font(fontName, fontStyle, fontSize));
+        textField.setFont(getFont(fontName, fontStyle, fontSize));
         return textField;
     }
 
+    /**
+     * This static method returns the font of given name, style and size, which is created on first use only.
+     *
+     * @param fontName  a String describing the name of the font.
+     * @param fontStyle an int describing the style of the font.
+     * @param fontSize  an int describing the size of the font.
+     * @return a {@code Font} shared by every caller asking for the same one.
+     */
+    public static Font getFont(String fontName, int fontStyle, int fontSize) {
+        return fontCache.computeIfAbsent(fontName + "$" + fontStyle + "$" + fontSize,
+                key -> new Font(fontName, fontStyle, fontSize));
+    }
+
     /**
      * This static method returns a configured {@code JButton}.
      *
@@ -290,7 +348,7 @@ public class Settings {
                                      ActionListener event) {
         JButton button = new JButton(content);
         button.setBounds(x, y, xSize, ySize);
-        button.setFont(new Font("Comic Sans MS", Font.PLAIN, fontSize));
+        button.setFont(getFont("Comic Sans MS", Font.PLAIN, fontSize));
         button.setCursor(new Cursor(Cursor.HAND_CURSOR));
         button.addActionListener(event);
         button.setFocusable(false);
@@ -325,8 +383,29 @@ public class Settings {
     /**
      * This method checks the word typed by the user and create a new {@code Game} instance to start the game if the
      * check is passed. Otherwise, this method will display error message in the <var>errorMessageField</var>
+     *
+     * <p>
+     * If the word sources are still being initialized, or the words of the game are not loaded yet, this method returns
+     * at once and the game is started on the EDT when loading completes.
      */
     private void start() {
+        if (isStartPending)
+            return;
+        CompletableFuture<String> initialization = Service.getInstance().whenInitialized();
+        if (!initialization.isDone()) {
+            isStartPending = true;
+            errorMessageField.setText("Loading word source...");
+            initialization.thenRun(() -> SwingUtilities.invokeLater(() -> {
+                isStartPending = false;
+                errorMessageField.setText("");
+                start();
+            }));
+            return;
+        }
+        if (initialization.join().length() > 0) {
+            errorMessageField.setText("Error while initialization: " + initialization.join());
+            return;
+        }
         // All internal letters are stored and processed in uppercase.
         String text = initWordField.getText().toUpperCase();
         // Hashtag handler
@@ -336,17 +415,25 @@ public class Settings {
                 errorMessageField.setText(decodeResult[0]);
                 return;
             }
-            errorMessageField.setText("");
-            this.setVisibleStatus(false);
-            Settings.initWord = decodeResult[1];
-            currentHashtag = text;
-            Game.createInstance().playGame(Settings.wordSourceOptions[Integer.parseInt(decodeResult[2]) - 1],
-                    decodeResult[1], currentHashtag);
+            String hashtagWordSource = Settings.wordSourceOptions[Integer.parseInt(decodeResult[2]) - 1];
+            String hashtag = text;
+            launchWhenLoaded(decodeResult[1].length(), hashtagWordSource, () -> {
+                errorMessageField.setText("");
+                this.setVisibleStatus(false);
+                Settings.initWord = decodeResult[1];
+                currentHashtag = hashtag;
+                Game.createInstance().playGame(hashtagWordSource, decodeResult[1], currentHashtag);
+            });
         }
         // Not hashtag
         else if (text.length() == wordLength || text.length() == 0) {
             String checkResult = Service.getInstance().checkExistence(text, wordSource);
             if (checkResult.length() == 0) {
+                // Both drawing a random word and the game need the selected words loaded, so wait for them first.
+                if (!Service.getInstance().isReady(wordLength, wordSource)) {
+                    launchWhenLoaded(wordLength, wordSource, this::start);
+                    return;
+                }
                 if (text.length() == 0) {
                     text = Service.getInstance().generateRandomWord(wordLength, wordSource);
                     initWordField.setText(text);
@@ -366,6 +453,63 @@ public class Settings {
                     (text.length() < wordLength ? "small" : "large") + "!");
     }
 
+    /**
+     * This method launches a game once the words of given length and word source are loaded, which are awaited in the
+     * background, so that {@code Game} never loads them on the EDT. If loading fails, this window shows the error.
+     *
+     * @param wordLength an int describing the length of words.
+     * @param wordSource a String describing the specific source type, included in <var>wordSourceOptions</var>.
+     * @param launch     a {@code Runnable} starting the game, which is run on the EDT.
+     */
+    public void launchWhenLoaded(int wordLength, String wordSource, Runnable launch) {
+        if (Service.getInstance().isReady(wordLength, wordSource)) {
+            launch.run();
+            return;
+        }
+        isStartPending = true;
+        errorMessageField.setText("Loading word source...");
+        Service.getInstance().prefetch(wordLength, wordSource).whenComplete((result, exception) ->
+                SwingUtilities.invokeLater(() -> {
+                    isStartPending = false;
+                    if (exception == null) {
+                        errorMessageField.setText("");
+                        launch.run();
+                    } else {
+                        errorMessageField.setText(exception.toString());
+                        this.setVisibleStatus(true);
+                    }
+                }));
+    }
+
+    /**
+     * This method offers to resume the latest game recorded by {@code GameJournal} but not finished, such as one
+     * interrupted by the JVM dying. Declining finishes every such game, so that they are not offered again.
+     *
+     * @return a boolean describing whether a game has been resumed.
+     */
+    public boolean offerResume() {
+        GameJournal journal = GameJournal.getInstance();
+        if (journal == null || journal.getUnfinishedGames().isEmpty())
+            return false;
+        List<GameJournal.JournalGame> games = journal.getUnfinishedGames();
+        GameJournal.JournalGame game = games.get(games.size() - 1);
+        String[] decodeResult = Settings.hashtagDecoder(game.getHashtag()).split("\\$");
+        if (decodeResult[0].length() == 0 && JOptionPane.showConfirmDialog(null, "Resume the unfinished game " +
+                game.getHashtag() + " with " + game.getGuesses().size() + " guess(es)?", "eWordle",
+                JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
+            Settings.wordSource = Settings.wordSourceOptions[Integer.parseInt(decodeResult[2]) - 1];
+            Settings.wordLength = decodeResult[1].length();
+            Settings.initWord = decodeResult[1];
+            currentHashtag = game.getHashtag();
+            launchWhenLoaded(Settings.wordLength, Settings.wordSource,
+                    () -> Game.createInstance().resumeGame(Settings.wordSource, decodeResult[1], game));
+            return true;
+        }
+        for (GameJournal.JournalGame unfinishedGame : games)
+            journal.finishGame(unfinishedGame.getGameId());
+        return false;
+    }
+
     /**
      * This static method encodes current settings and return the hashtag.
      *
@@ -390,7 +534,7 @@ public class Settings {
      * @param hashtagWord       a String describing the Wordle word selected.
      * @return a String describing the decoded hashtag result.
      */
-    static private String hashtagEncoder(String hashtagWordSource, String hashtagWord) {
+    static String hashtagEncoder(String hashtagWordSource, String hashtagWord) {
 //        System.out.println("Encoding:"+hashtagWordSource+" "+hashtagWord);
         final long hashtagLetterCount = 26 + 10;
         final long radix = 29;
@@ -433,7 +577,7 @@ public class Settings {
      * Note: difficulty counts from 1 to total word sources available.
      * Sample: error: "Invalid hashtag input$$", successfully decoded: "$apple$1".
      */
-    static private String hashtagDecoder(String hashtag) {
+    static String hashtagDecoder(String hashtag) {
         final long hashtagLetterCount = 26 + 10;
         final long radix = 29;
         long encoded = 0;
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@code Simulator} class plays games without any window, which is used for balancing word sources and as a load
+ * test of {@code Service}.
+ *
+ * <p>
+ * Every game follows the rules of {@code Game}: a guess has to pass {@link Service#checkExistence(String, String)},
+ * is scored by {@link FeedbackKernel#score(CharSequence, CharSequence)}, and the answer has to be found within
+ * <var>wordLength</var> + 1 tries. Guesses are made by a {@code Strategy} from the candidates left, which are narrowed
+ * after each guess like the ones of a game window. Games are split into ranges played on a fork-join pool, and the
+ * report of each range is merged when the tasks join.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class Simulator {
+    /**
+     * A static constant holding the largest number of games played by a single task.
+     */
+    private static final int LEAF_GAMES = 16;
+
+    /**
+     * The {@code Strategy} interface makes the guesses of a simulated game.
+     */
+    public interface Strategy {
+        /**
+         * Returns the next guess.
+         *
+         * @param candidates a {@code CandidateSet} holding the words consistent with every guess so far.
+         * @param turn       an int describing the number of guesses made, counting from 0.
+         * @param random     a {@code SplittableRandom} owned by the game.
+         * @return a String holding the guess.
+         */
+        String nextGuess(CandidateSet candidates, int turn, SplittableRandom random);
+    }
+
+    /**
+     * The {@code Report} class holds the outcome of simulated games.
+     */
+    public static class Report {
+        /**
+         * An int array holding the number of games solved by each number of guesses, counting from 1.
+         */
+        private final int[] solvedByGuesses;
+
+        /**
+         * An int holding the number of games not solved within the tries allowed.
+         */
+        private int failures;
+
+        /**
+         * An int holding the number of guesses rejected by {@link Service#checkExistence(String, String)}, each of
+         * which ends its game as a failure.
+         */
+        private int rejections;
+
+        /**
+         * A {@code long} holding the time spent in nanoseconds, which is set once all games are played.
+         */
+        private long elapsedTime;
+
+        /**
+         * The only constructor for class {@code Report}.
+         *
+         * @param wordLength an int describing the length of every word.
+         */
+        private Report(int wordLength) {
+            solvedByGuesses = new int[wordLength + 2];
+        }
+
+        /**
+         * Returns the reports of both ranges.
+         *
+         * @param other a {@code Report} of another range.
+         * @return a {@code Report} holding the merged results, which is the current one.
+         */
+        private Report merge(Report other) {
+            for (int i = 0; i < solvedByGuesses.length; i++)
+                solvedByGuesses[i] += other.solvedByGuesses[i];
+            failures += other.failures;
+            rejections += other.rejections;
+            return this;
+        }
+
+        /**
+         * Returns the number of games played.
+         *
+         * @return an int describing the number of games played.
+         */
+        public int getGameCount() {
+            return Arrays.stream(solvedByGuesses).sum() + failures;
+        }
+
+        /**
+         * Returns the number of games solved by given number of guesses.
+         *
+         * @param guesses an int describing the number of guesses, counting from 1.
+         * @return an int describing the number of games.
+         */
+        public int getSolvedCount(int guesses) {
+            return solvedByGuesses[guesses];
+        }
+
+        /**
+         * Returns the ratio of games not solved within the tries allowed.
+         *
+         * @return a double describing the failure rate.
+         */
+        public double getFailureRate() {
+            return getGameCount() == 0 ? 0 : (double) failures / getGameCount();
+        }
+
+        /**
+         * Returns the number of games played per second.
+         *
+         * @return a double describing the throughput.
+         */
+        public double getGamesPerSecond() {
+            return getGameCount() / (elapsedTime / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            int solved = getGameCount() - failures;
+            long totalGuesses = 0;
+            for (int guesses = 1; guesses < solvedByGuesses.length; guesses++)
+                totalGuesses += (long) guesses * solvedByGuesses[guesses];
+            report.append(String.format("%d games in %.2f s, %.1f games/sec%n", getGameCount(), elapsedTime / 1e9,
+                    getGamesPerSecond()));
+            for (int guesses = 1; guesses < solvedByGuesses.length; guesses++)
+                report.append(String.format("  %2d guesses: %8d (%5.2f%%)%n", guesses, solvedByGuesses[guesses],
+                        100.0 * solvedByGuesses[guesses] / Math.max(1, getGameCount())));
+            report.append(String.format("  failed    : %8d (%5.2f%%), %d rejected guesses%n", failures,
+                    100 * getFailureRate(), rejections));
+            report.append(String.format("  mean guesses to solve: %.3f", solved == 0 ? 0 : (double) totalGuesses /
+                    solved));
+            return report.toString();
+        }
+    }
+
+    /**
+     * This method plays games from the command line and prints the report.
+     *
+     * <p>
+     * Arguments are the word length, the word source, the strategy ("entropy", "random" or "first"), the answers
+     * ("all" for every word of the partition, or a number of random ones) and the seed, which default to 5, "CET-4",
+     * "entropy", "all" and 1.
+     *
+     * @param args a String array holding the arguments.
+     */
+    public static void main(String[] args) {
+        final int wordLength = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        final String wordSource = args.length > 1 ? args[1] : eWordle.wordSources[0];
+        final String strategyName = args.length > 2 ? args[2] : "entropy";
+        final String answerSet = args.length > 3 ? args[3] : "all";
+        final long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        String initResult = Service.getInstance().initService(eWordle.wordSources, eWordle.wordLengths);
+        if (initResult.length() > 0) {
+            System.out.println(initResult);
+            return;
+        }
+        String[] answers;
+        if (answerSet.equals("all")) {
+            CandidateSet partition = Service.getInstance().createCandidateSet(wordLength, wordSource);
+            answers = new String[partition.getCount()];
+            for (int i = 0; i < answers.length; i++)
+                answers[i] = partition.getWord(i);
+        } else
+            answers = Service.getInstance().generateRandomWords(wordLength, wordSource, Integer.parseInt(answerSet),
+                    null, new SplittableRandom(seed));
+        System.out.println("Simulating " + answers.length + " games with length " + wordLength + " from " +
+                wordSource + " using " + strategyName + " strategy on " +
+                ForkJoinPool.commonPool().getParallelism() + " workers");
+        Report report = simulate(wordLength, wordSource, createStrategy(strategyName, wordLength, wordSource),
+                answers, seed, ForkJoinPool.commonPool());
+        System.out.println(report);
+    }
+
+    /**
+     * Returns a built-in strategy.
+     *
+     * <p>
+     * "first" guesses the first candidate in rank order, "random" guesses a random candidate, and "entropy" guesses
+     * the top one ranked by
+     * {@link Service#rankGuesses(WordStore, int, String, int[], int, java.util.function.BooleanSupplier)}, whose
+     * opening guess is ranked once and shared by every game.
+     *
+     * @param name       a String describing the strategy.
+     * @param wordLength an int describing the length of every word.
+     * @param wordSource a String representing the difficulty level of the games.
+     * @return a {@code Strategy} making the guesses.
+     * @throws IllegalArgumentException if the strategy is unknown.
+     */
+    public static Strategy createStrategy(String name, int wordLength, String wordSource) {
+        switch (name) {
+            case "first":
+                return (candidates, turn, random) -> candidates.getWord(0);
+            case "random":
+                return (candidates, turn, random) -> candidates.getWord(random.nextInt(candidates.getCount()));
+            case "entropy":
+                // Every game starts from the same candidates, so the opening guess is the same.
+                CandidateSet opening = Service.getInstance().createCandidateSet(wordLength, wordSource);
+                String openingGuess = Service.getInstance().rankGuesses(opening.getWordStore(), wordLength,
+                        wordSource, opening.getRanks(), 1, () -> false)[0].getWord();
+                return (candidates, turn, random) -> turn == 0 ? openingGuess : Service.getInstance()
+                        .rankGuesses(candidates.getWordStore(), wordLength, wordSource, candidates.getRanks(), 1,
+                                () -> false)[0].getWord();
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + name);
+        }
+    }
+
+    /**
+     * Returns the report of playing a game for every answer on a fork-join pool.
+     *
+     * @param wordLength an int describing the length of every word.
+     * @param wordSource a String representing the difficulty level of the games.
+     * @param strategy   a {@code Strategy} making the guesses.
+     * @param answers    a String array holding the answer of each game.
+     * @param seed       a {@code long} deciding the randomness given to each game.
+     * @param pool       a {@code ForkJoinPool} playing the games.
+     * @return a {@code Report} holding the outcome of the games.
+     */
+    public static Report simulate(int wordLength, String wordSource, Strategy strategy, String[] answers, long seed,
+                                  ForkJoinPool pool) {
+        long startTime = System.nanoTime();
+        Report report = pool.invoke(new GameTask(wordLength, wordSource, strategy, answers, seed, 0,
+                answers.length));
+        report.elapsedTime = System.nanoTime() - startTime;
+        return report;
+    }
+
+    /**
+     * The {@code GameTask} class plays the games of a range of answers.
+     */
+    private static class GameTask extends RecursiveTask<Report> {
+        /**
+         * A static constant holding the serial version, as tasks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * An int holding the length of every word.
+         */
+        private final int wordLength;
+
+        /**
+         * A String representing the difficulty level of the games.
+         */
+        private final String wordSource;
+
+        /**
+         * A {@code Strategy} making the guesses.
+         */
+        private final transient Strategy strategy;
+
+        /**
+         * A String array holding the answer of each game.
+         */
+        private final String[] answers;
+
+        /**
+         * A {@code long} deciding the randomness given to each game.
+         */
+        private final long seed;
+
+        /**
+         * An int holding the first game to be played.
+         */
+        private final int from;
+
+        /**
+         * An int holding the game after the last one to be played.
+         */
+        private final int to;
+
+        /**
+         * The only constructor for class {@code GameTask}.
+         *
+         * @param wordLength an int describing the length of every word.
+         * @param wordSource a String representing the difficulty level of the games.
+         * @param strategy   a {@code Strategy} making the guesses.
+         * @param answers    a String array holding the answer of each game.
+         * @param seed       a {@code long} deciding the randomness given to each game.
+         * @param from       an int describing the first game to be played.
+         * @param to         an int describing the game after the last one to be played.
+         */
+        private GameTask(int wordLength, String wordSource, Strategy strategy, String[] answers, long seed,
+                         int from, int to) {
+            this.wordLength = wordLength;
+            this.wordSource = wordSource;
+            this.strategy = strategy;
+            this.answers = answers;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Report compute() {
+            if (to - from > LEAF_GAMES) {
+                int middle = (from + to) >>> 1;
+                GameTask right = new GameTask(wordLength, wordSource, strategy, answers, seed, middle, to);
+                right.fork();
+                return new GameTask(wordLength, wordSource, strategy, answers, seed, from, middle).compute()
+                        .merge(right.join());
+            }
+            Report report = new Report(wordLength);
+            for (int game = from; game < to; game++)
+                play(answers[game], new SplittableRandom(seed * 31 + game), report);
+            return report;
+        }
+
+        /**
+         * This method plays a game under the rules of {@code Game} and records its outcome.
+         *
+         * @param answer a String holding the word to be guessed.
+         * @param random a {@code SplittableRandom} owned by the game.
+         * @param report a {@code Report} receiving the outcome.
+         */
+        private void play(String answer, SplittableRandom random, Report report) {
+            Service service = Service.getInstance();
+            CandidateSet candidates = service.createCandidateSet(wordLength, wordSource);
+            for (int turn = 0; turn <= wordLength; turn++) {
+                String guess = strategy.nextGuess(candidates, turn, random);
+                if (guess.equals(answer)) {
+                    report.solvedByGuesses[turn + 1]++;
+                    return;
+                }
+                if (service.checkExistence(guess, wordSource).length() > 0) {
+                    report.rejections++;
+                    break;
+                }
+                candidates.narrow(guess, FeedbackKernel.score(guess, answer));
+            }
+            report.failures++;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The {@code Solver} class ranks possible guesses by the expected information they reveal about the answer, which is
+ * the entropy of the distribution of scores the guess would get over the remaining candidates.
+ *
+ * <p>
+ * Guesses are split into ranges evaluated on a fork-join pool, and each range keeps its own top guesses, which are
+ * merged when the tasks join. Scoring every guess against every candidate is quadratic, so when the candidates are too
+ * many, guesses are first ranked against a fixed random sample of them, and only the leading ones are scored again
+ * against every candidate.
+ *
+ * <p>
+ * Scores follow {@link FeedbackKernel}. They are looked up in a {@code FeedbackMatrix} if one has been built for the
+ * guesses, and otherwise computed in batches straight from the codes of {@code WordStore} without decoding words.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class Solver {
+    /**
+     * A static constant holding the largest number of guesses evaluated by a single task.
+     */
+    private static final int LEAF_GUESSES = 256;
+
+    /**
+     * A static constant holding the number of guess and candidate pairs scored at most in the sampled pass, which
+     * keeps 8-letter words under "All" well within a second.
+     */
+    private static final long SCORING_BUDGET = 1L << 24;
+
+    /**
+     * A static constant holding the number of leading guesses of the sampled pass scored again against every
+     * candidate.
+     */
+    private static final int REFINED_GUESSES = 64;
+
+    /**
+     * A static constant holding the seed of the candidate sample, so that rankings are reproducible.
+     */
+    private static final long SAMPLE_SEED = 0x5EED;
+
+    /**
+     * An int holding the length of every word.
+     */
+    private final int wordLength;
+
+    /**
+     * A {@code long} array holding the codes of the possible guesses.
+     */
+    private final long[] guessCodes;
+
+    /**
+     * An int array holding the ranks of the candidates among the guesses.
+     */
+    private final int[] candidateRanks;
+
+    /**
+     * A {@code FeedbackMatrix} holding the patterns of every pair of guesses, or {@code null} if patterns are scored
+     * on the fly.
+     */
+    private final FeedbackMatrix feedbackMatrix;
+
+    /**
+     * A boolean array describing whether each guess is also a candidate.
+     */
+    private final boolean[] isCandidate;
+
+    /**
+     * A double array holding {@code c * log(c)} of every count <var>c</var> up to the number of candidates, which
+     * saves a logarithm per score pattern seen.
+     */
+    private final double[] countLogs;
+
+    /**
+     * The {@code RankedGuess} class holds a guess together with its expected information.
+     */
+    public static class RankedGuess {
+        /**
+         * A String holding the guess.
+         */
+        private final String word;
+
+        /**
+         * A double holding the expected information in bits.
+         */
+        private final double entropy;
+
+        /**
+         * A boolean describing whether the guess may be the answer.
+         */
+        private final boolean isCandidate;
+
+        /**
+         * The only constructor for class {@code RankedGuess}.
+         *
+         * @param word        a String holding the guess.
+         * @param entropy     a double describing the expected information in bits.
+         * @param isCandidate a boolean describing whether the guess may be the answer.
+         */
+        private RankedGuess(String word, double entropy, boolean isCandidate) {
+            this.word = word;
+            this.entropy = entropy;
+            this.isCandidate = isCandidate;
+        }
+
+        /**
+         * Returns the guess.
+         *
+         * @return a String holding the guess.
+         */
+        public String getWord() {
+            return word;
+        }
+
+        /**
+         * Returns the expected information revealed by the guess.
+         *
+         * @return a double describing the expected information in bits.
+         */
+        public double getEntropy() {
+            return entropy;
+        }
+
+        /**
+         * Returns whether the guess may be the answer.
+         *
+         * @return a boolean describing whether the guess is one of the candidates.
+         */
+        public boolean isCandidate() {
+            return isCandidate;
+        }
+    }
+
+    /**
+     * The only constructor for class {@code Solver}.
+     *
+     * @param wordLength     an int describing the length of every word.
+     * @param guessCodes     a {@code long} array holding the codes of the possible guesses, in the order of
+     *                       {@link WordStore#getCodes(int)}.
+     * @param candidateRanks an int array holding the ranks of the candidates among the guesses.
+     * @param feedbackMatrix a {@code FeedbackMatrix} of the guesses, or {@code null} if patterns should be scored on
+     *                       the fly.
+     */
+    public Solver(int wordLength, long[] guessCodes, int[] candidateRanks, FeedbackMatrix feedbackMatrix) {
+        this.wordLength = wordLength;
+        this.guessCodes = guessCodes;
+        this.candidateRanks = candidateRanks;
+        this.feedbackMatrix = feedbackMatrix;
+        isCandidate = new boolean[guessCodes.length];
+        for (int rank : candidateRanks)
+            isCandidate[rank] = true;
+        countLogs = new double[candidateRanks.length + 1];
+        for (int c = 1; c <= candidateRanks.length; c++)
+            countLogs[c] = c * Math.log(c);
+    }
+
+    /**
+     * Returns the guesses revealing the most information on average, using the common fork-join pool.
+     *
+     * @param count       an int describing the number of guesses to be returned.
+     * @param isCancelled a {@code BooleanSupplier} telling whether the ranking is no longer needed.
+     * @return a {@code RankedGuess} array sorted by expected information, then by being a candidate, or {@code null}
+     * if cancelled.
+     */
+    public RankedGuess[] rank(int count, BooleanSupplier isCancelled) {
+        return rank(count, isCancelled, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns the guesses revealing the most information on average.
+     *
+     * @param count       an int describing the number of guesses to be returned.
+     * @param isCancelled a {@code BooleanSupplier} telling whether the ranking is no longer needed.
+     * @param pool        a {@code ForkJoinPool} running the evaluation.
+     * @return a {@code RankedGuess} array sorted by expected information, then by being a candidate, or {@code null}
+     * if cancelled.
+     */
+    public RankedGuess[] rank(int count, BooleanSupplier isCancelled, ForkJoinPool pool) {
+        if (candidateRanks.length == 0 || guessCodes.length == 0)
+            return new RankedGuess[0];
+        int[] allGuesses = new int[guessCodes.length];
+        for (int i = 0; i < allGuesses.length; i++)
+            allGuesses[i] = i;
+        Ranking ranking;
+        int sampleSize = (int) Math.max(1, SCORING_BUDGET / guessCodes.length);
+        if (sampleSize < candidateRanks.length) {
+            // Rank every guess against a sample, then score the leading ones again against every candidate.
+            int[] sampledRanks = sample(sampleSize);
+            Ranking sampled = pool.invoke(new RankTask(allGuesses, 0, allGuesses.length, sampledRanks,
+                    toLetters(sampledRanks), Math.max(count, REFINED_GUESSES), isCancelled));
+            ranking = pool.invoke(new RankTask(Arrays.copyOf(sampled.guesses, sampled.size), 0, sampled.size,
+                    candidateRanks, toLetters(candidateRanks), count, isCancelled));
+        } else
+            ranking = pool.invoke(new RankTask(allGuesses, 0, allGuesses.length, candidateRanks,
+                    toLetters(candidateRanks), count, isCancelled));
+        if (isCancelled.getAsBoolean())
+            return null;
+        RankedGuess[] rankedGuesses = new RankedGuess[ranking.size];
+        for (int i = 0; i < ranking.size; i++) {
+            int guess = ranking.guesses[i];
+            rankedGuesses[i] = new RankedGuess(WordStore.decode(guessCodes[guess], wordLength),
+                    ranking.entropies[i], isCandidate[guess]);
+        }
+        return rankedGuesses;
+    }
+
+    /**
+     * Returns the letters of the guesses of given ranks one after another, counting from 0 for A.
+     *
+     * @param ranks an int array holding the ranks of guesses.
+     * @return a byte array holding the letters, or {@code null} if patterns are looked up in the feedback matrix.
+     */
+    private byte[] toLetters(int[] ranks) {
+        if (feedbackMatrix != null)
+            return null;
+        byte[] letters = new byte[ranks.length * wordLength];
+        for (int i = 0; i < ranks.length; i++)
+            FeedbackKernel.toLetters(guessCodes[ranks[i]], wordLength, letters, i * wordLength);
+        return letters;
+    }
+
+    /**
+     * Returns a random sample of the candidates drawn without replacement from a fixed seed.
+     *
+     * @param sampleSize an int describing the number of candidates to be drawn.
+     * @return an int array holding the ranks drawn.
+     */
+    private int[] sample(int sampleSize) {
+        int[] ranks = candidateRanks.clone();
+        SplittableRandom random = new SplittableRandom(SAMPLE_SEED);
+        for (int i = 0; i < sampleSize; i++) {
+            int picked = i + random.nextInt(ranks.length - i);
+            int rank = ranks[i];
+            ranks[i] = ranks[picked];
+            ranks[picked] = rank;
+        }
+        return Arrays.copyOf(ranks, sampleSize);
+    }
+
+    /**
+     * The {@code Ranking} class holds the leading guesses of a range, sorted by expected information, then by being a
+     * candidate, and then by index.
+     */
+    private class Ranking {
+        /**
+         * An int array holding the indexes of the leading guesses.
+         */
+        private final int[] guesses;
+
+        /**
+         * A double array holding the expected information of the leading guesses.
+         */
+        private final double[] entropies;
+
+        /**
+         * An int holding the number of guesses kept.
+         */
+        private int size;
+
+        /**
+         * The only constructor for class {@code Ranking}.
+         *
+         * @param capacity an int describing the number of guesses kept at most.
+         */
+        private Ranking(int capacity) {
+            guesses = new int[capacity];
+            entropies = new double[capacity];
+        }
+
+        /**
+         * This method offers a guess, which is kept if it is among the leading ones.
+         *
+         * @param guess   an int describing the index of the guess.
+         * @param entropy a double describing the expected information of the guess.
+         */
+        private void add(int guess, double entropy) {
+            if (guesses.length == 0 || size == guesses.length && !isBefore(guess, entropy, size - 1))
+                return;
+            int position = Math.min(size, guesses.length - 1);
+            while (position > 0 && isBefore(guess, entropy, position - 1)) {
+                guesses[position] = guesses[position - 1];
+                entropies[position] = entropies[position - 1];
+                position--;
+            }
+            guesses[position] = guess;
+            entropies[position] = entropy;
+            size = Math.min(size + 1, guesses.length);
+        }
+
+        /**
+         * Returns whether a guess comes before the one kept at given position.
+         *
+         * @param guess    an int describing the index of the guess.
+         * @param entropy  a double describing the expected information of the guess.
+         * @param position an int describing the position of the guess compared with.
+         * @return a boolean describing whether the guess comes first.
+         */
+        private boolean isBefore(int guess, double entropy, int position) {
+            if (entropy != entropies[position])
+                return entropy > entropies[position];
+            if (isCandidate[guess] != isCandidate[guesses[position]])
+                return isCandidate[guess];
+            return guess < guesses[position];
+        }
+
+        /**
+         * Returns the leading guesses of both rankings.
+         *
+         * @param other a {@code Ranking} of another range.
+         * @return a {@code Ranking} holding the merged results, which is the current one.
+         */
+        private Ranking merge(Ranking other) {
+            for (int i = 0; i < other.size; i++)
+                add(other.guesses[i], other.entropies[i]);
+            return this;
+        }
+    }
+
+    /**
+     * The {@code RankTask} class evaluates a range of guesses against a set of answers.
+     */
+    private class RankTask extends RecursiveTask<Ranking> {
+        /**
+         * A static constant holding the serial version, as tasks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * An int array holding the indexes of the guesses.
+         */
+        private final int[] guesses;
+
+        /**
+         * An int holding the position of the first guess to be evaluated.
+         */
+        private final int from;
+
+        /**
+         * An int holding the position after the last guess to be evaluated.
+         */
+        private final int to;
+
+        /**
+         * An int array holding the ranks of the answers among the guesses.
+         */
+        private final int[] answerRanks;
+
+        /**
+         * A byte array holding the letters of the answers one after another, or {@code null} if patterns are looked
+         * up in the feedback matrix.
+         */
+        private final byte[] answerLetters;
+
+        /**
+         * An int holding the number of guesses kept.
+         */
+        private final int count;
+
+        /**
+         * A {@code BooleanSupplier} telling whether the ranking is no longer needed.
+         */
+        private final BooleanSupplier isCancelled;
+
+        /**
+         * The only constructor for class {@code RankTask}.
+         *
+         * @param guesses       an int array holding the indexes of the guesses.
+         * @param from          an int describing the position of the first guess to be evaluated.
+         * @param to            an int describing the position after the last guess to be evaluated.
+         * @param answerRanks   an int array holding the ranks of the answers among the guesses.
+         * @param answerLetters a byte array holding the letters of the answers one after another, or {@code null} if
+         *                      patterns are looked up in the feedback matrix.
+         * @param count         an int describing the number of guesses kept.
+         * @param isCancelled   a {@code BooleanSupplier} telling whether the ranking is no longer needed.
+         */
+        private RankTask(int[] guesses, int from, int to, int[] answerRanks, byte[] answerLetters, int count,
+                         BooleanSupplier isCancelled) {
+            this.guesses = guesses;
+            this.from = from;
+            this.to = to;
+            this.answerRanks = answerRanks;
+            this.answerLetters = answerLetters;
+            this.count = count;
+            this.isCancelled = isCancelled;
+        }
+
+        @Override
+        protected Ranking compute() {
+            if (to - from > LEAF_GUESSES) {
+                int middle = (from + to) >>> 1;
+                RankTask right = new RankTask(guesses, middle, to, answerRanks, answerLetters, count,
+                        isCancelled);
+                right.fork();
+                return new RankTask(guesses, from, middle, answerRanks, answerLetters, count, isCancelled).compute()
+                        .merge(right.join());
+            }
+            Ranking ranking = new Ranking(count);
+            if (isCancelled.getAsBoolean())
+                return ranking;
+            // Only the patterns seen are counted and cleared, as there are up to 3^8 of them.
+            int answerCount = answerRanks.length;
+            int[] patternCount = new int[(int) Math.pow(3, wordLength)];
+            int[] patternsSeen = new int[Math.min(patternCount.length, answerCount)];
+            byte[] guessLetters = new byte[wordLength];
+            int[] patterns = feedbackMatrix == null ? new int[answerCount] : null;
+            double logTotal = Math.log(answerCount);
+            for (int i = from; i < to; i++) {
+                int seen = 0;
+                if (feedbackMatrix != null)
+                    for (int answer : answerRanks) {
+                        int pattern = feedbackMatrix.get(guesses[i], answer);
+                        if (patternCount[pattern]++ == 0)
+                            patternsSeen[seen++] = pattern;
+                    }
+                else {
+                    FeedbackKernel.toLetters(guessCodes[guesses[i]], wordLength, guessLetters, 0);
+                    FeedbackKernel.scoreAll(guessLetters, answerLetters, wordLength, patterns);
+                    for (int pattern : patterns)
+                        if (patternCount[pattern]++ == 0)
+                            patternsSeen[seen++] = pattern;
+                }
+                // H = log(n) - sum(c * log(c)) / n, in bits.
+                double sum = 0;
+                for (int j = 0; j < seen; j++) {
+                    sum += countLogs[patternCount[patternsSeen[j]]];
+                    patternCount[patternsSeen[j]] = 0;
+                }
+                ranking.add(guesses[i], (logTotal - sum / answerCount) / Math.log(2));
+            }
+            return ranking;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The {@code WordSourceFolder} class mounts every word source in csv format found in the {@code Word Sources} folder,
+ * and watches the folder so that changed word sources are parsed again without a restart.
+ *
+ * <p>
+ * The default word source is mounted first, followed by any other csv file in the order of their names, and a word
+ * found in several of them keeps its lowest difficulty. Each word source is parsed on its own and kept, so a change
+ * only parses the files changed before the stores are merged again.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class WordSourceFolder {
+    /**
+     * A static constant holding the time without further changes after which changes are applied, in milliseconds,
+     * as editors often write a file in several steps.
+     */
+    private static final long SETTLE_MILLIS = 200;
+
+    /**
+     * A {@code File} holding the default word source.
+     */
+    private final File defaultFile;
+
+    /**
+     * A {@code File} holding the folder watched.
+     */
+    private final File folder;
+
+    /**
+     * An int holding the shortest word length to be kept.
+     */
+    private final int minLength;
+
+    /**
+     * An int holding the longest word length to be kept.
+     */
+    private final int maxLength;
+
+    /**
+     * An int holding the number of difficulty levels.
+     */
+    private final int difficultyLevels;
+
+    /**
+     * A HashMap holding the store parsed from each word source by file name. It is guarded by this folder.
+     */
+    private final HashMap<String, WordStore> storeByFileName = new HashMap<>();
+
+    /**
+     * The only constructor for class {@code WordSourceFolder}, which mounts the folder of the default word source.
+     *
+     * @param defaultFile      a {@code File} describing the default word source.
+     * @param minLength        an int describing the shortest word length to be kept.
+     * @param maxLength        an int describing the longest word length to be kept.
+     * @param difficultyLevels an int describing the number of difficulty levels.
+     */
+    public WordSourceFolder(File defaultFile, int minLength, int maxLength, int difficultyLevels) {
+        this.defaultFile = defaultFile;
+        this.folder = defaultFile.getAbsoluteFile().getParentFile();
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.difficultyLevels = difficultyLevels;
+    }
+
+    /**
+     * Returns the word sources mounted, which are the default one followed by other csv files of the folder.
+     *
+     * @return a {@code List} holding the files in the order they are merged.
+     */
+    public List<File> getMountedFiles() {
+        List<File> files = new ArrayList<>();
+        if (defaultFile.isFile())
+            files.add(defaultFile);
+        File[] others = folder.listFiles((directory, name) -> isWordSource(name) &&
+                !name.equals(defaultFile.getName()));
+        if (others != null) {
+            Arrays.sort(others);
+            for (File file : others)
+                if (file.isFile())
+                    files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * Returns whether the default word source is the only one mounted, in which case the dictionary snapshot can hold
+     * every word.
+     *
+     * @return a boolean describing whether only the default word source is mounted.
+     */
+    public boolean isDefaultOnly() {
+        List<File> files = getMountedFiles();
+        return files.size() == 1 && files.get(0).equals(defaultFile);
+    }
+
+    /**
+     * Returns a store holding the words of every mounted word source, where only the ones changed or not parsed yet
+     * are parsed.
+     *
+     * @param changedFileNames a {@code Collection} holding the names of the files changed since the last call.
+     * @return a fully loaded {@code WordStore} holding the words merged.
+     * @throws IOException if no word source is mounted or a word source cannot be read.
+     */
+    public synchronized WordStore parse(Collection<String> changedFileNames) throws IOException {
+        List<File> files = getMountedFiles();
+        if (files.isEmpty())
+            throw new IOException("No word source found in " + folder);
+        List<WordStore> stores = new ArrayList<>();
+        HashMap<String, WordStore> newStoreByFileName = new HashMap<>();
+        for (File file : files) {
+            WordStore store = storeByFileName.get(file.getName());
+            if (store == null || changedFileNames.contains(file.getName()))
+                store = CsvIngest.parse(file, minLength, maxLength, difficultyLevels);
+            newStoreByFileName.put(file.getName(), store);
+            stores.add(store);
+        }
+        // Word sources removed are dropped only once every mounted one has been parsed.
+        storeByFileName.clear();
+        storeByFileName.putAll(newStoreByFileName);
+        return WordStore.merge(stores);
+    }
+
+    /**
+     * This method writes a fully loaded store into the dictionary snapshot of the default word source, replacing the
+     * older one atomically.
+     *
+     * @param wordStore a {@code WordStore} holding the words of the default word source.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void writeSnapshot(WordStore wordStore) throws IOException {
+        DictionarySnapshot.write(wordStore, defaultFile, DictionarySnapshot.getSnapshotFile(defaultFile), minLength,
+                maxLength, difficultyLevels);
+    }
+
+    /**
+     * This method starts a daemon thread watching the folder, which parses the word sources again and passes the
+     * merged store to <var>listener</var> whenever a csv file is created, modified or deleted.
+     *
+     * @param listener a {@code Consumer} accepting the store holding the words of every mounted word source, which is
+     *                 called from the watching thread.
+     */
+    public void watch(Consumer<WordStore> listener) {
+        Thread thread = new Thread(() -> watchFolder(listener), "eWordle word source watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * This method watches the folder until the thread is interrupted, for {@link WordSourceFolder#watch(Consumer)}.
+     *
+     * @param listener a {@code Consumer} accepting the store holding the words of every mounted word source.
+     */
+    private void watchFolder(Consumer<WordStore> listener) {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            folder.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<String> changedFileNames = new HashSet<>();
+                boolean isChanged = false;
+                // Gather events until the folder settles.
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        String name = String.valueOf(event.context());
+                        // Events may be lost under load, in which case every word source is parsed again.
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            for (File file : getMountedFiles())
+                                changedFileNames.add(file.getName());
+                            isChanged = true;
+                        } else if (isWordSource(name)) {
+                            changedFileNames.add(name);
+                            isChanged = true;
+                        }
+                    }
+                    key.reset();
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (!isChanged)
+                    continue;
+                try {
+                    listener.accept(parse(changedFileNames));
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Unable to reload word sources: " + e);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Unable to watch word sources: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * This static method returns whether a file name is the one of a word source.
+     *
+     * @param name a String describing the file name.
+     * @return a boolean describing whether the file is in csv format.
+     */
+    private static boolean isWordSource(String name) {
+        return name.toLowerCase().endsWith(".csv");
+    }
+}
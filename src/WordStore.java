@@ -0,0 +1,528 @@
+/*
+ * Copyright 2022 Mingchun Zhuang (http://me.mczhuang.cn)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.THE
+ * SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code WordStore} class holds the words of every length in packed primitive arrays, providing lookups by word
+ * and by rank.
+ *
+ * <p>
+ * Each word is encoded in a {@code long} holding 5 bits per letter, where the first letter takes the highest bits so
+ * that codes of the same length compare like the words themselves. The codes of one length are kept in a single
+ * array sorted by difficulty and then alphabetically, together with an offsets table marking where each difficulty
+ * starts. Restricting words to a difficulty level is therefore a prefix of the array.
+ *
+ * <p>
+ * A store opened from a {@code DictionarySnapshot} starts empty and loads each block of words sharing the same length
+ * and difficulty on first use through {@link WordStore#ensureLoaded(int, int)}, so that only the partitions actually
+ * played take heap space. Lookups of words in blocks not loaded yet are served by the snapshot directly.
+ *
+ * <p>
+ * A store returned by {@link WordStore#compact()} keeps every word in a {@code FrontCodedDictionary} instead, which
+ * serves lookups by word and by rank without loading any block. Blocks are only decoded into codes for scans, such as
+ * helper searches and candidate sets.
+ *
+ * @author Mingchun Zhuang
+ * @version 1.0
+ */
+public class WordStore {
+    /**
+     * A static constant holding the number of bits used by each letter.
+     */
+    public static final int LETTER_BITS = 5;
+
+    /**
+     * A static constant holding the mask of a single letter.
+     */
+    public static final long LETTER_MASK = (1L << LETTER_BITS) - 1;
+
+    /**
+     * A static constant holding the shift of the difficulty inside a key built by
+     * {@link WordStore#toKey(String, int)}, which leaves room for words up to 12 letters.
+     */
+    private static final int DIFFICULTY_SHIFT = 60;
+
+    /**
+     * A static constant holding the mask of the word code inside a key.
+     */
+    private static final long CODE_MASK = (1L << DIFFICULTY_SHIFT) - 1;
+
+    /**
+     * An int holding the shortest word length stored.
+     */
+    private final int minLength;
+
+    /**
+     * An int holding the number of difficulty levels.
+     */
+    private final int difficultyLevels;
+
+    /**
+     * An array holding the loaded codes of each length (counting from <var>minLength</var>) sorted by difficulty and
+     * then alphabetically. The array is replaced as a whole whenever more blocks are loaded, so that readers always see
+     * a complete prefix without locking.
+     */
+    private volatile long[][] codesByLength;
+
+    /**
+     * An array holding the offsets table of each length (counting from <var>minLength</var>), where
+     * {@code offsets[d]} is the number of words whose difficulty is at most <var>d</var>.
+     */
+    private final int[][] offsetsByLength;
+
+    /**
+     * A {@code DictionarySnapshot} holding the blocks not loaded yet, or {@code null} if every block is loaded or
+     * the store is compact.
+     */
+    private final DictionarySnapshot snapshot;
+
+    /**
+     * A {@code FrontCodedDictionary} holding every word of a compact store, or {@code null} if the store is not
+     * compact.
+     */
+    private final FrontCodedDictionary dictionary;
+
+    /**
+     * A constructor for class {@code WordStore}, which sorts the keys given and strips their difficulty.
+     *
+     * @param minLength        an int describing the shortest word length stored.
+     * @param difficultyLevels an int describing the number of difficulty levels.
+     * @param keysByLength     an array holding keys built by {@link WordStore#toKey(String, int)} of each length,
+     *                         counting from <var>minLength</var>, which will be sorted in place.
+     * @param sizesByLength    an int array describing the number of keys used in each array of
+     *                         <var>keysByLength</var>.
+     */
+    public WordStore(int minLength, int difficultyLevels, long[][] keysByLength, int[] sizesByLength) {
+        this.minLength = minLength;
+        this.difficultyLevels = difficultyLevels;
+        codesByLength = new long[keysByLength.length][];
+        offsetsByLength = new int[keysByLength.length][];
+        for (int i = 0; i < keysByLength.length; i++) {
+            int size = sizesByLength[i];
+            long[] codes = Arrays.copyOf(keysByLength[i], size);
+            Arrays.sort(codes);
+            int[] offsets = new int[difficultyLevels + 1];
+            for (int rank = 0; rank < size; rank++) {
+                offsets[(int) (codes[rank] >>> DIFFICULTY_SHIFT)]++;
+                codes[rank] &= CODE_MASK;
+            }
+            for (int difficulty = 1; difficulty <= difficultyLevels; difficulty++)
+                offsets[difficulty] += offsets[difficulty - 1];
+            codesByLength[i] = codes;
+            offsetsByLength[i] = offsets;
+        }
+        snapshot = null;
+        dictionary = null;
+    }
+
+    /**
+     * A constructor for class {@code WordStore}, which loads nothing until the blocks are requested from
+     * <var>snapshot</var>.
+     *
+     * @param minLength an int describing the shortest word length stored.
+     * @param snapshot  a {@code DictionarySnapshot} holding the words.
+     */
+    public WordStore(int minLength, DictionarySnapshot snapshot) {
+        this.minLength = minLength;
+        this.snapshot = snapshot;
+        offsetsByLength = snapshot.getOffsetsByLength();
+        difficultyLevels = offsetsByLength[0].length - 1;
+        codesByLength = new long[offsetsByLength.length][0];
+        dictionary = null;
+    }
+
+    /**
+     * A constructor for class {@code WordStore}, which holds codes and offsets tables as they are.
+     *
+     * @param minLength        an int describing the shortest word length stored.
+     * @param difficultyLevels an int describing the number of difficulty levels.
+     * @param codesByLength    an array holding the codes of each length, sorted by difficulty and then
+     *                         alphabetically, which are fully loaded unless the store is compact.
+     * @param offsetsByLength  an array holding the offsets table of each length.
+     * @param dictionary       a {@code FrontCodedDictionary} holding every word of a compact store, or {@code null}.
+     */
+    private WordStore(int minLength, int difficultyLevels, long[][] codesByLength, int[][] offsetsByLength,
+                      FrontCodedDictionary dictionary) {
+        this.minLength = minLength;
+        this.difficultyLevels = difficultyLevels;
+        this.codesByLength = codesByLength;
+        this.offsetsByLength = offsetsByLength;
+        this.dictionary = dictionary;
+        snapshot = null;
+    }
+
+    /**
+     * Returns a store holding the words of several fully loaded stores, where a word stored more than once keeps its
+     * lowest difficulty.
+     *
+     * @param stores a {@code List} holding at least one fully loaded store, sharing the same lengths and difficulty
+     *               levels.
+     * @return a {@code WordStore} holding the words merged, which is the only store given if there is one.
+     */
+    public static WordStore merge(List<WordStore> stores) {
+        WordStore first = stores.get(0);
+        if (stores.size() == 1)
+            return first;
+        int lengthCount = first.offsetsByLength.length;
+        long[][] keysByLength = new long[lengthCount][];
+        int[] sizesByLength = new int[lengthCount];
+        for (int index = 0; index < lengthCount; index++) {
+            int total = 0;
+            for (WordStore store : stores)
+                total += store.codesByLength[index].length;
+            // Difficulties fit in 3 bits below the code, so that the easiest copy of a word sorts first.
+            long[] entries = new long[total];
+            int size = 0;
+            for (WordStore store : stores) {
+                long[] codes = store.codesByLength[index];
+                int[] offsets = store.offsetsByLength[index];
+                for (int difficulty = 1; difficulty <= first.difficultyLevels; difficulty++)
+                    for (int rank = offsets[difficulty - 1]; rank < offsets[difficulty]; rank++)
+                        entries[size++] = codes[rank] << 3 | difficulty;
+            }
+            Arrays.sort(entries);
+            long[] keys = new long[total];
+            int count = 0;
+            for (int i = 0; i < total; i++)
+                if (i == 0 || entries[i] >>> 3 != entries[i - 1] >>> 3)
+                    keys[count++] = toKey(entries[i] >>> 3, (int) (entries[i] & 7));
+            keysByLength[index] = keys;
+            sizesByLength[index] = count;
+        }
+        return new WordStore(first.minLength, first.difficultyLevels, keysByLength, sizesByLength);
+    }
+
+    /**
+     * Returns a fully loaded store holding the words of <var>source</var>, which keeps the arrays of this store for
+     * every length whose words are the same, so that indexes built on them stay valid. Blocks of this store not
+     * loaded yet are read to be compared, without being kept by this store.
+     *
+     * @param source         a fully loaded {@code WordStore} holding the new words, sharing the same lengths and
+     *                       difficulty levels.
+     * @param changedLengths a {@code List} receiving the lengths whose words differ.
+     * @return a {@code WordStore} holding the words of <var>source</var>.
+     */
+    public WordStore update(WordStore source, List<Integer> changedLengths) {
+        long[][] newCodesByLength = new long[offsetsByLength.length][];
+        int[][] newOffsetsByLength = new int[offsetsByLength.length][];
+        for (int index = 0; index < offsetsByLength.length; index++) {
+            long[] codes = readCodes(index);
+            if (Arrays.equals(offsetsByLength[index], source.offsetsByLength[index]) &&
+                    Arrays.equals(codes, source.codesByLength[index])) {
+                newCodesByLength[index] = codes;
+                newOffsetsByLength[index] = offsetsByLength[index];
+            } else {
+                newCodesByLength[index] = source.codesByLength[index];
+                newOffsetsByLength[index] = source.offsetsByLength[index];
+                changedLengths.add(minLength + index);
+            }
+        }
+        return new WordStore(minLength, difficultyLevels, newCodesByLength, newOffsetsByLength, null);
+    }
+
+    /**
+     * Returns a store holding the same words in a {@code FrontCodedDictionary}, with the same ranks. Blocks not
+     * loaded yet are read one length at a time, and none of them is kept.
+     *
+     * @return a compact {@code WordStore} with no block loaded, which is this store if it is compact already.
+     */
+    public WordStore compact() {
+        if (dictionary != null)
+            return this;
+        FrontCodedDictionary compacted = new FrontCodedDictionary(offsetsByLength, this::readCodes);
+        return new WordStore(minLength, difficultyLevels, new long[offsetsByLength.length][0], offsetsByLength,
+                compacted);
+    }
+
+    /**
+     * Returns every code of the length of given index, which is the loaded array itself if every block is loaded,
+     * or a copy completed from the snapshot or the dictionary otherwise.
+     *
+     * @param index an int describing the length of the words, counting from <var>minLength</var>.
+     * @return a {@code long} array holding the codes sorted by difficulty and then alphabetically.
+     */
+    private long[] readCodes(int index) {
+        long[] codes = codesByLength[index];
+        int[] offsets = offsetsByLength[index];
+        if (codes.length >= offsets[difficultyLevels])
+            return codes;
+        long[] loaded = Arrays.copyOf(codes, offsets[difficultyLevels]);
+        for (int difficulty = 1; difficulty <= difficultyLevels; difficulty++)
+            if (offsets[difficulty] > codes.length) {
+                if (dictionary != null)
+                    dictionary.readBlock(index, difficulty, loaded);
+                else
+                    snapshot.readBlock(index, difficulty, loaded);
+            }
+        return loaded;
+    }
+
+    /**
+     * This method loads every block of given length whose difficulty is at most <var>maxDifficulty</var>, and
+     * returns immediately if they are loaded already. The time taken by each block is recorded in {@code Metrics}.
+     *
+     * @param wordLength    an int describing the length of words.
+     * @param maxDifficulty an int describing the highest difficulty to be loaded.
+     */
+    public void ensureLoaded(int wordLength, int maxDifficulty) {
+        if (isLoaded(wordLength, maxDifficulty))
+            return;
+        synchronized (this) {
+            int index = wordLength - minLength;
+            int[] offsets = offsetsByLength[index];
+            maxDifficulty = Math.min(maxDifficulty, difficultyLevels);
+            long[] codes = codesByLength[index];
+            if (codes.length >= offsets[maxDifficulty])
+                return;
+            long[] loaded = Arrays.copyOf(codes, offsets[maxDifficulty]);
+            for (int difficulty = 1; difficulty <= maxDifficulty; difficulty++)
+                if (offsets[difficulty] > codes.length) {
+                    long startTime = System.nanoTime();
+                    if (dictionary != null)
+                        dictionary.readBlock(index, difficulty, loaded);
+                    else
+                        snapshot.readBlock(index, difficulty, loaded);
+                    Metrics.getInstance().histogram("dictionary.loadMicros.length" + wordLength + ".difficulty" +
+                            difficulty).recordSince(startTime);
+                }
+            long[][] newCodesByLength = codesByLength.clone();
+            newCodesByLength[index] = loaded;
+            codesByLength = newCodesByLength;
+        }
+    }
+
+    /**
+     * This method makes sure that words of given length whose difficulty is at most <var>maxDifficulty</var> can be
+     * looked up by {@link WordStore#findRank(String, int)} and {@link WordStore#getWord(int, int)}, which a compact
+     * store serves without loading any block.
+     *
+     * @param wordLength    an int describing the length of words.
+     * @param maxDifficulty an int describing the highest difficulty to be looked up.
+     */
+    public void ensureReadable(int wordLength, int maxDifficulty) {
+        if (dictionary == null)
+            ensureLoaded(wordLength, maxDifficulty);
+    }
+
+    /**
+     * Returns whether every block of given length whose difficulty is at most <var>maxDifficulty</var> is loaded.
+     * Lengths not stored count as loaded, as there is nothing to load.
+     *
+     * @param wordLength    an int describing the length of words.
+     * @param maxDifficulty an int describing the highest difficulty needed.
+     * @return a boolean describing whether the blocks are loaded.
+     */
+    public boolean isLoaded(int wordLength, int maxDifficulty) {
+        int index = wordLength - minLength;
+        if (index < 0 || index >= offsetsByLength.length)
+            return true;
+        return codesByLength[index].length >= offsetsByLength[index][Math.min(maxDifficulty, difficultyLevels)];
+    }
+
+    /**
+     * Returns the code of an uppercase word, or -1 if it contains letters other than A to Z.
+     *
+     * @param word a CharSequence holding the word to be encoded.
+     * @return a long describing the code of <var>word</var>.
+     */
+    public static long encode(CharSequence word) {
+        long code = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int letter = word.charAt(i) - 'A';
+            if (letter < 0 || letter >= 26)
+                return -1;
+            code = code << LETTER_BITS | letter;
+        }
+        return code;
+    }
+
+    /**
+     * Returns the uppercase word represented by a code.
+     *
+     * @param code   a long holding the code of the word.
+     * @param length an int describing the length of the word.
+     * @return a String holding the word decoded.
+     */
+    public static String decode(long code, int length) {
+        char[] letters = new char[length];
+        for (int i = length - 1; i >= 0; i--, code >>>= LETTER_BITS)
+            letters[i] = (char) ('A' + (code & LETTER_MASK));
+        return new String(letters);
+    }
+
+    /**
+     * Returns the letter at given position of a code, counting from 0 for A.
+     *
+     * @param code     a long holding the code of the word.
+     * @param length   an int describing the length of the word.
+     * @param position an int describing the position counting from 0.
+     * @return an int describing the letter at <var>position</var>.
+     */
+    public static int letterAt(long code, int length, int position) {
+        return (int) (code >>> (LETTER_BITS * (length - 1 - position)) & LETTER_MASK);
+    }
+
+    /**
+     * Returns the sorting key of a word, which orders by difficulty first and then alphabetically, or -1 if the word
+     * contains letters other than A to Z.
+     *
+     * @param word       an uppercase String holding the word.
+     * @param difficulty an int describing the difficulty of the word, counting from 1.
+     * @return a long holding the key of the word.
+     */
+    public static long toKey(String word, int difficulty) {
+        long code = encode(word);
+        return code < 0 ? -1 : toKey(code, difficulty);
+    }
+
+    /**
+     * Returns the sorting key of a word already encoded, which orders by difficulty first and then alphabetically.
+     *
+     * @param code       a long holding the code of the word.
+     * @param difficulty an int describing the difficulty of the word, counting from 1.
+     * @return a long holding the key of the word.
+     */
+    public static long toKey(long code, int difficulty) {
+        return (long) difficulty << DIFFICULTY_SHIFT | code;
+    }
+
+    /**
+     * Returns the difficulty of a word, or 0 if the word is not stored.
+     *
+     * @param word an uppercase String holding the word to be found.
+     * @return an int describing the difficulty of <var>word</var>, counting from 1.
+     */
+    public int findDifficulty(String word) {
+        int index = word.length() - minLength;
+        long code = encode(word);
+        if (index < 0 || index >= codesByLength.length || code < 0)
+            return 0;
+        long[] codes = codesByLength[index];
+        int[] offsets = offsetsByLength[index];
+        // Each difficulty block is sorted alphabetically on its own.
+        for (int difficulty = 1; difficulty <= difficultyLevels; difficulty++)
+            if (offsets[difficulty] <= codes.length ?
+                    Arrays.binarySearch(codes, offsets[difficulty - 1], offsets[difficulty], code) >= 0 :
+                    dictionary != null ? dictionary.findRank(index, difficulty, code) >= 0 :
+                            snapshot.contains(index, difficulty, code))
+                return difficulty;
+        return 0;
+    }
+
+    /**
+     * Returns the rank of a word among the words of its length, or -1 if the word is not stored with difficulty at
+     * most <var>maxDifficulty</var>.
+     *
+     * @param word          an uppercase String holding the word to be found.
+     * @param maxDifficulty an int describing the highest difficulty searched, whose words should be readable already
+     *                      as made sure by {@link WordStore#ensureReadable(int, int)}.
+     * @return an int describing the position of the word in {@link WordStore#getCodes(int)}.
+     */
+    public int findRank(String word, int maxDifficulty) {
+        int index = word.length() - minLength;
+        long code = encode(word);
+        if (index < 0 || index >= codesByLength.length || code < 0)
+            return -1;
+        long[] codes = codesByLength[index];
+        int[] offsets = offsetsByLength[index];
+        for (int difficulty = 1; difficulty <= Math.min(maxDifficulty, difficultyLevels); difficulty++) {
+            int rank = offsets[difficulty] <= codes.length ?
+                    Arrays.binarySearch(codes, offsets[difficulty - 1], offsets[difficulty], code) :
+                    dictionary.findRank(index, difficulty, code);
+            if (rank >= 0)
+                return rank;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of words with given length whose difficulty is at most <var>maxDifficulty</var>, which is
+     * also the size of the prefix holding them.
+     *
+     * @param wordLength    an int describing the length of words.
+     * @param maxDifficulty an int describing the highest difficulty included.
+     * @return an int describing the number of words.
+     */
+    public int count(int wordLength, int maxDifficulty) {
+        int index = wordLength - minLength;
+        if (index < 0 || index >= offsetsByLength.length)
+            return 0;
+        return offsetsByLength[index][Math.min(maxDifficulty, difficultyLevels)];
+    }
+
+    /**
+     * Returns the loaded codes of given length sorted by difficulty and then alphabetically. The array returned is
+     * shared and should not be modified.
+     *
+     * @param wordLength an int describing the length of words.
+     * @return a {@code long} array holding the codes, or an empty one if the length is not stored.
+     */
+    public long[] getCodes(int wordLength) {
+        int index = wordLength - minLength;
+        if (index < 0 || index >= codesByLength.length)
+            return new long[0];
+        return codesByLength[index];
+    }
+
+    /**
+     * Returns the word of given length and rank.
+     *
+     * @param wordLength an int describing the length of the word.
+     * @param rank       an int describing the position of the word in {@link WordStore#getCodes(int)}, which should
+     *                   be readable already as made sure by {@link WordStore#ensureReadable(int, int)}.
+     * @return a String holding the word.
+     */
+    public String getWord(int wordLength, int rank) {
+        long[] codes = codesByLength[wordLength - minLength];
+        return decode(rank < codes.length ? codes[rank] : dictionary.getCode(wordLength - minLength, rank),
+                wordLength);
+    }
+
+    /**
+     * Returns the dictionary holding every word of a compact store.
+     *
+     * @return a {@code FrontCodedDictionary} holding every word, or {@code null} if the store is not compact.
+     */
+    public FrontCodedDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the number of bytes taken by the loaded codes, the offsets tables and the dictionary of a compact store,
+     * including array headers.
+     *
+     * @return a {@code long} describing the number of bytes.
+     */
+    public long getMemoryBytes() {
+        // The dictionary shares the offsets tables and counts them itself.
+        long bytes = 0;
+        if (dictionary != null)
+            bytes += dictionary.getMemoryBytes();
+        else
+            for (int[] offsets : offsetsByLength)
+                bytes += 16 + offsets.length * 4L;
+        for (long[] codes : codesByLength)
+            bytes += 16 + codes.length * 8L;
+        return bytes;
+    }
+}
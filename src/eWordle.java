@@ -19,6 +19,11 @@
  * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
+import javax.swing.*;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The {@code eWordle} class stores the default settings and launch the game.
  *
@@ -39,25 +44,69 @@ public class eWordle {
     /**
      * A constant ordered String array that lists word length options.
      */
-    private static final String[] wordLengths = new String[]{"5", "6", "7", "8"};
+    static final String[] wordLengths = new String[]{"5", "6", "7", "8"};
     /**
      * A constant String array that lists word source options ordered by difficulty.
      */
-    private static final String[] wordSources = new String[]{"CET-4", "CET-6", "TOEFL", "GRE", "Oxford Dictionary",
+    static final String[] wordSources = new String[]{"CET-4", "CET-6", "TOEFL", "GRE", "Oxford Dictionary",
             "All"};
 
     /**
-     * This method launches the <var>setting</var> window with default setting and initialize <var>service</var>.
+     * This method launches the <var>setting</var> window with default setting and initialize <var>service</var>,
+     * unless the user resumes a game recorded by {@code GameJournal}.
+     *
+     * <p>
+     * The word sources are initialized on the background thread while the window is built on the EDT, so that the
+     * launch takes as long as the slower of the two instead of both. Starting a game before the word sources are ready
+     * waits for them, and the time each phase is ready is logged.
      *
-     * @param args a default String array which is not used by this program.
+     * <p>
+     * With "--server" as the first argument, games are served over HTTP by {@code GameServer} instead, on the port
+     * given as the second argument.
+     *
+     * @param args a String array holding "--server" and the port if games are served over HTTP.
+     * @throws IOException if the port of the server cannot be bound.
      */
-    public static void main(String[] args) {
-        Settings.getInstance().configSettings(5, "All", wordLengths, wordSources);
-        String initResult = Service.getInstance().initService(wordSources, wordLengths);
-        if (initResult.length() > 0) {
-            System.out.println("Error while initialization:" + initResult);
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
             return;
         }
-        Settings.getInstance().setVisibleStatus(true);
+        final long launchTime = System.nanoTime();
+        CompletableFuture<String> initialization = Service.getInstance().initServiceAsync(wordSources, wordLengths);
+        initialization.thenAccept(initResult -> {
+            if (initResult.length() > 0)
+                System.out.println("Error while initialization:" + initResult);
+            else {
+                logPhase("dictionary", launchTime);
+                Service.getInstance().watchWordSources();
+            }
+        });
+        SwingUtilities.invokeLater(() -> {
+            Settings.getInstance().configSettings(5, "All", wordLengths, wordSources);
+            logPhase("settings", launchTime);
+            GameJournal journal = GameJournal.getInstance();
+            if (journal == null || journal.getUnfinishedGames().isEmpty()) {
+                Settings.getInstance().setVisibleStatus(true);
+                return;
+            }
+            // A game interrupted earlier is offered before the settings window, once its words can be checked.
+            initialization.thenAccept(initResult -> SwingUtilities.invokeLater(() -> {
+                if (initResult.length() > 0 || !Settings.getInstance().offerResume())
+                    Settings.getInstance().setVisibleStatus(true);
+            }));
+        });
+    }
+
+    /**
+     * This static method logs the time from launch to a startup phase being ready, and records it in
+     * {@code Metrics}.
+     *
+     * @param phase      a String describing the phase.
+     * @param launchTime a {@code long} holding the launch time, as returned by {@link System#nanoTime()}.
+     */
+    private static void logPhase(String phase, long launchTime) {
+        Metrics.getInstance().histogram("startup." + phase + "Micros").recordSince(launchTime);
+        System.out.println("Startup: " + phase + " ready in " + (System.nanoTime() - launchTime) / 1000000 + " ms");
     }
 }